@@ -0,0 +1,30 @@
+package com.hatirlat.backend.config;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.provider.ChannelProvider;
+import com.hatirlat.backend.provider.LoggingChannelProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Logging stand-ins for every channel. A real provider is registered as another {@link ChannelProvider}
+ * bean and selected with {@code outbox.channels.<channel>.provider}.
+ */
+@Configuration
+public class ChannelProviderConfig {
+
+    @Bean
+    public ChannelProvider emailLogProvider() {
+        return new LoggingChannelProvider("email-log", NotificationChannel.EMAIL);
+    }
+
+    @Bean
+    public ChannelProvider smsLogProvider() {
+        return new LoggingChannelProvider("sms-log", NotificationChannel.SMS);
+    }
+
+    @Bean
+    public ChannelProvider whatsAppLogProvider() {
+        return new LoggingChannelProvider("whatsapp-log", NotificationChannel.WHATSAPP);
+    }
+}
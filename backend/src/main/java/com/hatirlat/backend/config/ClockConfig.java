@@ -0,0 +1,21 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Clock;
+
+/**
+ * The clock the scheduler, the outbox relay and the channel pipelines read "now" from. The
+ * {@code simulation} profile replaces it with a virtual clock.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    @Profile("!simulation")
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
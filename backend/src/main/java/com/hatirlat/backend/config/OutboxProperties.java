@@ -0,0 +1,224 @@
+package com.hatirlat.backend.config;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    private long pollMs = 250;
+    private int batchSize = 200;
+    private int leaseSeconds = 60;
+    private int maxInFlight = 256; // Sends awaiting a provider across all channels
+    private int maxAttempts = 8;
+    private int retryDelaySeconds = 30; // Delay after the first failure, doubled after each further one
+    private int retryMaxDelaySeconds = 3600;
+    private double smoothingRatePerSecond = 50; // Budget for spreading tolerant deliveries when the provider has no quota
+    private int dedupeRetentionMinutes = 60;
+    private long fairShareUnitMs = 1000; // How far one delivery pushes its owner's fair tag at weight 1
+    private int premiumWeight = 4;
+    private int freeWeight = 1;
+    private int fanOutPageSize = 500; // Group members resolved and written per page
+    private Map<NotificationChannel, Channel> channels = new EnumMap<>(NotificationChannel.class);
+
+    public long getPollMs() {
+        return pollMs;
+    }
+
+    public void setPollMs(long pollMs) {
+        this.pollMs = pollMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(int leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getRetryDelaySeconds() {
+        return retryDelaySeconds;
+    }
+
+    public void setRetryDelaySeconds(int retryDelaySeconds) {
+        this.retryDelaySeconds = retryDelaySeconds;
+    }
+
+    public int getRetryMaxDelaySeconds() {
+        return retryMaxDelaySeconds;
+    }
+
+    public void setRetryMaxDelaySeconds(int retryMaxDelaySeconds) {
+        this.retryMaxDelaySeconds = retryMaxDelaySeconds;
+    }
+
+    public double getSmoothingRatePerSecond() {
+        return smoothingRatePerSecond;
+    }
+
+    public void setSmoothingRatePerSecond(double smoothingRatePerSecond) {
+        this.smoothingRatePerSecond = smoothingRatePerSecond;
+    }
+
+    public int getDedupeRetentionMinutes() {
+        return dedupeRetentionMinutes;
+    }
+
+    public void setDedupeRetentionMinutes(int dedupeRetentionMinutes) {
+        this.dedupeRetentionMinutes = dedupeRetentionMinutes;
+    }
+
+    public long getFairShareUnitMs() {
+        return fairShareUnitMs;
+    }
+
+    public void setFairShareUnitMs(long fairShareUnitMs) {
+        this.fairShareUnitMs = fairShareUnitMs;
+    }
+
+    public int getPremiumWeight() {
+        return premiumWeight;
+    }
+
+    public void setPremiumWeight(int premiumWeight) {
+        this.premiumWeight = premiumWeight;
+    }
+
+    public int getFreeWeight() {
+        return freeWeight;
+    }
+
+    public void setFreeWeight(int freeWeight) {
+        this.freeWeight = freeWeight;
+    }
+
+    public int getFanOutPageSize() {
+        return fanOutPageSize;
+    }
+
+    public void setFanOutPageSize(int fanOutPageSize) {
+        this.fanOutPageSize = fanOutPageSize;
+    }
+
+    public Map<NotificationChannel, Channel> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(Map<NotificationChannel, Channel> channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * Settings of the given channel's pipeline, falling back to the defaults when none are configured.
+     */
+    public Channel getChannel(NotificationChannel channel) {
+        return channels.getOrDefault(channel, new Channel());
+    }
+
+    public static class Channel {
+        private int queueCapacity = 500;
+        private int workers = 8;
+        private int maxInFlight = 100; // Sends handed to the provider and not answered yet
+        private String provider; // Name of the ChannelProvider to use; optional when the channel has only one
+        private List<String> failoverProviders = new ArrayList<>(); // Tried in order after the provider fails
+        private boolean hedge = false; // Also send through the next provider when the first is slower than its p95
+        private long hedgeDelayMs = 500; // Hedging delay until the provider has enough latency samples for a p95
+        private int digestWindowSeconds = 0; // 0 sends every delivery on its own
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public void setProvider(String provider) {
+            this.provider = provider;
+        }
+
+        public List<String> getFailoverProviders() {
+            return failoverProviders;
+        }
+
+        public void setFailoverProviders(List<String> failoverProviders) {
+            this.failoverProviders = failoverProviders;
+        }
+
+        public boolean isHedge() {
+            return hedge;
+        }
+
+        public void setHedge(boolean hedge) {
+            this.hedge = hedge;
+        }
+
+        public long getHedgeDelayMs() {
+            return hedgeDelayMs;
+        }
+
+        public void setHedgeDelayMs(long hedgeDelayMs) {
+            this.hedgeDelayMs = hedgeDelayMs;
+        }
+
+        public int getDigestWindowSeconds() {
+            return digestWindowSeconds;
+        }
+
+        public void setDigestWindowSeconds(int digestWindowSeconds) {
+            this.digestWindowSeconds = digestWindowSeconds;
+        }
+    }
+}
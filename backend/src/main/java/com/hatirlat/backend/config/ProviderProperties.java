@@ -0,0 +1,65 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Send quotas of the channel providers, keyed by provider name. A provider without an entry is not
+ * rate limited by the dispatcher.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "provider")
+public class ProviderProperties {
+
+    private double targetUtilization = 0.9; // Share of a quota actually used, so clock drift never trips the provider's limit
+    private Map<String, RateLimit> rateLimits = new HashMap<>();
+
+    public double getTargetUtilization() {
+        return targetUtilization;
+    }
+
+    public void setTargetUtilization(double targetUtilization) {
+        this.targetUtilization = targetUtilization;
+    }
+
+    public Map<String, RateLimit> getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(Map<String, RateLimit> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    public static class RateLimit {
+        private double quotaPerSecond; // 0 means unlimited
+        private double perSenderQuotaPerSecond; // 0 means senders only share the provider's quota
+        private int burst = 1; // Sends allowed back to back after an idle period
+
+        public double getQuotaPerSecond() {
+            return quotaPerSecond;
+        }
+
+        public void setQuotaPerSecond(double quotaPerSecond) {
+            this.quotaPerSecond = quotaPerSecond;
+        }
+
+        public double getPerSenderQuotaPerSecond() {
+            return perSenderQuotaPerSecond;
+        }
+
+        public void setPerSenderQuotaPerSecond(double perSenderQuotaPerSecond) {
+            this.perSenderQuotaPerSecond = perSenderQuotaPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
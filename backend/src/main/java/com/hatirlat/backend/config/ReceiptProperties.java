@@ -0,0 +1,50 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Buffering of delivery receipts. Receipts are collected in memory and written as one multi-row insert
+ * every {@code flush-ms}, or as soon as {@code batch-size} of them are waiting.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "receipts")
+public class ReceiptProperties {
+
+    private boolean enabled = true;
+    private int bufferCapacity = 10000; // Receipts beyond this are dropped rather than slowing down sends
+    private int batchSize = 500; // Rows per INSERT statement
+    private long flushMs = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushMs() {
+        return flushMs;
+    }
+
+    public void setFlushMs(long flushMs) {
+        this.flushMs = flushMs;
+    }
+}
@@ -0,0 +1,126 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+@ConfigurationProperties(prefix = "scheduler")
+public class SchedulerProperties {
+
+    public enum Mode {
+        ADAPTIVE,
+        WHEEL,
+        POLL
+    }
+
+    private Mode mode = Mode.ADAPTIVE;
+    private long tickMs = 1000;
+    private long pollRateMs = 60000;
+    private int windowSeconds = 600;
+    private String nodeId = "node-" + UUID.randomUUID().toString().substring(0, 8);
+    private int leaseSeconds = 120;
+    private int claimBatchSize = 100;
+    private int pageSize = 500;
+    private int wheelCapacity = 100_000; // Reminders the timing wheel holds at most
+    private long backlogRefreshMs = 15000;
+    private int idleRecheckSeconds = 60;
+    private boolean backgroundEnabled = true; // false: no wake-up thread or scheduled passes, the caller drives the scheduler
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public void setTickMs(long tickMs) {
+        this.tickMs = tickMs;
+    }
+
+    public long getPollRateMs() {
+        return pollRateMs;
+    }
+
+    public void setPollRateMs(long pollRateMs) {
+        this.pollRateMs = pollRateMs;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public int getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(int leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getClaimBatchSize() {
+        return claimBatchSize;
+    }
+
+    public void setClaimBatchSize(int claimBatchSize) {
+        this.claimBatchSize = claimBatchSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getWheelCapacity() {
+        return wheelCapacity;
+    }
+
+    public void setWheelCapacity(int wheelCapacity) {
+        this.wheelCapacity = wheelCapacity;
+    }
+
+    public long getBacklogRefreshMs() {
+        return backlogRefreshMs;
+    }
+
+    public void setBacklogRefreshMs(long backlogRefreshMs) {
+        this.backlogRefreshMs = backlogRefreshMs;
+    }
+
+    public int getIdleRecheckSeconds() {
+        return idleRecheckSeconds;
+    }
+
+    public void setIdleRecheckSeconds(int idleRecheckSeconds) {
+        this.idleRecheckSeconds = idleRecheckSeconds;
+    }
+
+    public boolean isBackgroundEnabled() {
+        return backgroundEnabled;
+    }
+
+    public void setBackgroundEnabled(boolean backgroundEnabled) {
+        this.backgroundEnabled = backgroundEnabled;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} passes (wheel tick, poll, outbox relay, backlog refresh, dedupe purge).
+ * With {@code scheduler.background-enabled=false} nothing runs on its own and the caller drives the
+ * scheduler, as the simulation runner does.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduler.background-enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
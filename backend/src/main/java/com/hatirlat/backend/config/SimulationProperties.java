@@ -0,0 +1,124 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDateTime;
+
+/**
+ * Workload of the {@code simulation} profile: how many reminders are seeded, over which stretch of
+ * virtual time, and how their times and repeat types are distributed.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "simulation")
+public class SimulationProperties {
+
+    private int reminders = 10000;
+    private int contacts = 1000;
+    private int owners = 500;
+    private LocalDateTime start = LocalDateTime.of(2030, 1, 7, 0, 0); // Virtual time the run starts at
+    private int horizonHours = 24;
+    private long seed = 42;
+    private double roundTimeShare = 0.6; // Reminders set on a full quarter hour, the way people pick times
+    private double hourlyShare = 0.05;
+    private double dailyShare = 0.2;
+    private double weeklyShare = 0.1;
+    private double multiChannelShare = 0.1; // Reminders sent by email and SMS
+    private boolean exitOnFinish = true;
+
+    public int getReminders() {
+        return reminders;
+    }
+
+    public void setReminders(int reminders) {
+        this.reminders = reminders;
+    }
+
+    public int getContacts() {
+        return contacts;
+    }
+
+    public void setContacts(int contacts) {
+        this.contacts = contacts;
+    }
+
+    public int getOwners() {
+        return owners;
+    }
+
+    public void setOwners(int owners) {
+        this.owners = owners;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public int getHorizonHours() {
+        return horizonHours;
+    }
+
+    public void setHorizonHours(int horizonHours) {
+        this.horizonHours = horizonHours;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public double getRoundTimeShare() {
+        return roundTimeShare;
+    }
+
+    public void setRoundTimeShare(double roundTimeShare) {
+        this.roundTimeShare = roundTimeShare;
+    }
+
+    public double getHourlyShare() {
+        return hourlyShare;
+    }
+
+    public void setHourlyShare(double hourlyShare) {
+        this.hourlyShare = hourlyShare;
+    }
+
+    public double getDailyShare() {
+        return dailyShare;
+    }
+
+    public void setDailyShare(double dailyShare) {
+        this.dailyShare = dailyShare;
+    }
+
+    public double getWeeklyShare() {
+        return weeklyShare;
+    }
+
+    public void setWeeklyShare(double weeklyShare) {
+        this.weeklyShare = weeklyShare;
+    }
+
+    public double getMultiChannelShare() {
+        return multiChannelShare;
+    }
+
+    public void setMultiChannelShare(double multiChannelShare) {
+        this.multiChannelShare = multiChannelShare;
+    }
+
+    public boolean isExitOnFinish() {
+        return exitOnFinish;
+    }
+
+    public void setExitOnFinish(boolean exitOnFinish) {
+        this.exitOnFinish = exitOnFinish;
+    }
+}
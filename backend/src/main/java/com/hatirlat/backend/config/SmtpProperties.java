@@ -0,0 +1,68 @@
+package com.hatirlat.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection pool and batching of the SMTP email provider. The server itself is configured with the
+ * standard {@code spring.mail.*} properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "smtp")
+public class SmtpProperties {
+
+    private String from = "no-reply@hatirlat.io";
+    private int connections = 4;
+    private int batchSize = 50; // Messages a connection takes from the queue at once
+    private int maxMessagesPerConnection = 500; // Reconnect after this many, servers limit messages per session
+    private int idleCloseSeconds = 30;
+    private int queueCapacity = 1000;
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxMessagesPerConnection() {
+        return maxMessagesPerConnection;
+    }
+
+    public void setMaxMessagesPerConnection(int maxMessagesPerConnection) {
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+    }
+
+    public int getIdleCloseSeconds() {
+        return idleCloseSeconds;
+    }
+
+    public void setIdleCloseSeconds(int idleCloseSeconds) {
+        this.idleCloseSeconds = idleCloseSeconds;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,33 @@
+package com.hatirlat.backend.config;
+
+import com.hatirlat.backend.entity.MessageLocale;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rendering of reminder messages: the language of recipients who have not chosen one, and how many
+ * compiled templates are kept.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "templates")
+public class TemplateProperties {
+
+    private MessageLocale defaultLocale = MessageLocale.TR;
+    private int cacheSize = 10000; // Compiled templates kept, least recently used ones are evicted
+
+    public MessageLocale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    public void setDefaultLocale(MessageLocale defaultLocale) {
+        this.defaultLocale = defaultLocale;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+}
@@ -0,0 +1,68 @@
+package com.hatirlat.backend.controller;
+
+import com.hatirlat.backend.dto.BaseResponse;
+import com.hatirlat.backend.dto.DeadLetterReplayRequest;
+import com.hatirlat.backend.dto.DeadLetterResponse;
+import com.hatirlat.backend.service.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@Tag(name = "Dead letters", description = "Deliveries that ran out of attempts (admin only)")
+public class DeadLetterController {
+
+    @Autowired
+    private DeadLetterService deadLetterService;
+
+    @Operation(
+            summary = "Get dead letters",
+            description = "Retrieve deliveries that failed every attempt, oldest first, optionally for one channel",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successfully retrieved dead letters",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeadLetterResponse.class))
+                    )
+            }
+    )
+    @GetMapping
+    public ResponseEntity<BaseResponse<List<DeadLetterResponse>>> getDeadLetters(
+            @RequestParam(required = false) String channel,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<DeadLetterResponse> deadLetters = deadLetterService.getDeadLetters(channel, page, size);
+        String message = deadLetters.isEmpty()
+            ? "No dead letters found"
+            : "Dead letters retrieved successfully";
+        return ResponseEntity.ok(new BaseResponse<>(true, deadLetters, message));
+    }
+
+    @Operation(
+            summary = "Replay dead letters",
+            description = "Enqueue dead letters again as fresh deliveries: the given ids, or the oldest ones up to limit",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Number of deliveries enqueued again"
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Unknown channel"
+                    )
+            }
+    )
+    @PostMapping("/replay")
+    public ResponseEntity<BaseResponse<Integer>> replay(@RequestBody DeadLetterReplayRequest request) {
+        int replayed = deadLetterService.replay(request);
+        return ResponseEntity.ok(new BaseResponse<>(true, replayed, replayed + " dead letters replayed"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.hatirlat.backend.controller;
+
+import com.hatirlat.backend.dto.BaseResponse;
+import com.hatirlat.backend.dto.DeliveryReceiptResponse;
+import com.hatirlat.backend.service.DeliveryReceiptService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/delivery-receipts")
+@Tag(name = "Delivery receipts", description = "Messages providers accepted, by reminder or recipient (admin only)")
+public class DeliveryReceiptController {
+
+    @Autowired
+    private DeliveryReceiptService deliveryReceiptService;
+
+    @Operation(
+            summary = "Get receipts of a reminder",
+            description = "Retrieve the deliveries of a reminder, newest first",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successfully retrieved delivery receipts",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeliveryReceiptResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid reminder id"
+                    )
+            }
+    )
+    @GetMapping("/reminders/{reminderId}")
+    public ResponseEntity<BaseResponse<List<DeliveryReceiptResponse>>> getByReminder(
+            @PathVariable String reminderId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return respond(deliveryReceiptService.getByReminder(reminderId, page, size));
+    }
+
+    @Operation(
+            summary = "Get receipts of a recipient",
+            description = "Retrieve the deliveries to an email address or phone number, newest first",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successfully retrieved delivery receipts",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeliveryReceiptResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Recipient missing"
+                    )
+            }
+    )
+    @GetMapping
+    public ResponseEntity<BaseResponse<List<DeliveryReceiptResponse>>> getByRecipient(
+            @RequestParam String recipient,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return respond(deliveryReceiptService.getByRecipient(recipient, page, size));
+    }
+
+    private static ResponseEntity<BaseResponse<List<DeliveryReceiptResponse>>> respond(List<DeliveryReceiptResponse> receipts) {
+        String message = receipts.isEmpty()
+            ? "No delivery receipts found"
+            : "Delivery receipts retrieved successfully";
+        return ResponseEntity.ok(new BaseResponse<>(true, receipts, message));
+    }
+}
@@ -0,0 +1,26 @@
+package com.hatirlat.backend.controller;
+
+import com.hatirlat.backend.service.SchedulerBacklogMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/scheduler}: next due time, backlog, in-flight deliveries and the oldest unsent
+ * occurrence. Lag and throughput histograms are published under {@code /actuator/metrics}.
+ */
+@Component
+@Endpoint(id = "scheduler")
+public class SchedulerEndpoint {
+
+    @Autowired
+    private SchedulerBacklogMonitor schedulerBacklogMonitor;
+
+    @ReadOperation
+    public Map<String, Object> scheduler() {
+        return schedulerBacklogMonitor.snapshot();
+    }
+}
@@ -0,0 +1,19 @@
+package com.hatirlat.backend.dto;
+
+import java.util.List;
+
+public class DeadLetterReplayRequest {
+    private List<Long> ids; // Replays exactly these; when empty, the oldest `limit` dead letters
+    private String channel; // Optional filter when no ids are given: "email" | "sms" | "whatsapp"
+    private Integer limit;
+
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+}
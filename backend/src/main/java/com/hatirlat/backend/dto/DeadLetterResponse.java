@@ -0,0 +1,39 @@
+package com.hatirlat.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class DeadLetterResponse {
+    private String id;
+    private String reminderId;
+    private LocalDateTime occurrence;
+    private String channel; // "email" | "sms" | "whatsapp"
+    private String recipient;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime failedAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getReminderId() { return reminderId; }
+    public void setReminderId(String reminderId) { this.reminderId = reminderId; }
+
+    public LocalDateTime getOccurrence() { return occurrence; }
+    public void setOccurrence(LocalDateTime occurrence) { this.occurrence = occurrence; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getFailedAt() { return failedAt; }
+    public void setFailedAt(LocalDateTime failedAt) { this.failedAt = failedAt; }
+}
@@ -0,0 +1,47 @@
+package com.hatirlat.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class DeliveryReceiptResponse {
+    private String id;
+    private String reminderId;
+    private LocalDateTime occurrence;
+    private String channel; // "email" | "sms" | "whatsapp"
+    private String recipient;
+    private String provider;
+    private String messageId;
+    private String digestId;
+    private int attempts;
+    private LocalDateTime deliveredAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getReminderId() { return reminderId; }
+    public void setReminderId(String reminderId) { this.reminderId = reminderId; }
+
+    public LocalDateTime getOccurrence() { return occurrence; }
+    public void setOccurrence(LocalDateTime occurrence) { this.occurrence = occurrence; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public String getDigestId() { return digestId; }
+    public void setDigestId(String digestId) { this.digestId = digestId; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
+}
@@ -12,6 +12,7 @@ public class MemberRequest {
     private String email;
     private String role; // "Admin" | "Member"
     private String phone;
+    private String locale; // "tr" | "en", optional
 
     // Getters and Setters
     public String getName() { return name; }
@@ -25,4 +26,7 @@ public class MemberRequest {
 
     public String getPhone() { return phone; }
     public void setPhone(String phone) { this.phone = phone; }
+
+    public String getLocale() { return locale; }
+    public void setLocale(String locale) { this.locale = locale; }
 }
\ No newline at end of file
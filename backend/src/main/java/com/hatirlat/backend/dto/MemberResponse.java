@@ -14,6 +14,7 @@ public class MemberResponse {
     private String phone;
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime lastActivity;
+    private String locale; // "tr" | "en", null when the member has not chosen one
 
     // Getters and Setters
     public String getId() { return id; }
@@ -39,4 +40,7 @@ public class MemberResponse {
 
     public LocalDateTime getLastActivity() { return lastActivity; }
     public void setLastActivity(LocalDateTime lastActivity) { this.lastActivity = lastActivity; }
+
+    public String getLocale() { return locale; }
+    public void setLocale(String locale) { this.locale = locale; }
 }
\ No newline at end of file
@@ -34,6 +34,10 @@ public class ReminderRequest {
 
     private CustomRepeatRequest customRepeat;
 
+    @Min(value = 0, message = "Tolerance cannot be negative")
+    @Max(value = 60, message = "Tolerance cannot exceed 60 minutes")
+    private Integer toleranceMinutes; // Optional: minutes delivery may be spread after dateTime to smooth load
+
     // Getters and Setters
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
@@ -67,4 +71,7 @@ public class ReminderRequest {
 
     public CustomRepeatRequest getCustomRepeat() { return customRepeat; }
     public void setCustomRepeat(CustomRepeatRequest customRepeat) { this.customRepeat = customRepeat; }
+
+    public Integer getToleranceMinutes() { return toleranceMinutes; }
+    public void setToleranceMinutes(Integer toleranceMinutes) { this.toleranceMinutes = toleranceMinutes; }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ public class ReminderResponse {
     private String repeat; // "none" | "hourly" | "daily" | "weekly" | "custom"
     private CustomRepeatRequest customRepeat;
 
+    private Integer toleranceMinutes; // Optional: minutes delivery may be spread after dateTime to smooth load
+
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -51,4 +53,7 @@ public class ReminderResponse {
 
     public CustomRepeatRequest getCustomRepeat() { return customRepeat; }
     public void setCustomRepeat(CustomRepeatRequest customRepeat) { this.customRepeat = customRepeat; }
+
+    public Integer getToleranceMinutes() { return toleranceMinutes; }
+    public void setToleranceMinutes(Integer toleranceMinutes) { this.toleranceMinutes = toleranceMinutes; }
 }
\ No newline at end of file
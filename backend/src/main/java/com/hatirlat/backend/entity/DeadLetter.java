@@ -0,0 +1,187 @@
+package com.hatirlat.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An outbox row that failed every attempt, moved out of the outbox so it no longer competes with live
+ * deliveries. It keeps everything needed to enqueue the delivery again.
+ */
+@Entity
+@Table(name = "notification_dead_letters",
+        indexes = @Index(name = "idx_dead_letters_channel", columnList = "channel, id"))
+public class DeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_dead_letters_seq")
+    @SequenceGenerator(name = "notification_dead_letters_seq", sequenceName = "notification_dead_letters_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "outbox_id")
+    private Long outboxId; // Id of the outbox row it was moved from
+
+    @Column(name = "reminder_id", nullable = false)
+    private Long reminderId;
+
+    @Column(nullable = false)
+    private LocalDateTime occurrence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationChannel channel;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(length = 2000)
+    private String body;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Enumerated(EnumType.STRING)
+    private PlanTier tier;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    // Constructors
+    public DeadLetter() {}
+
+    public DeadLetter(NotificationOutbox delivery, String lastError, LocalDateTime failedAt) {
+        this.outboxId = delivery.getId();
+        this.reminderId = delivery.getReminderId();
+        this.occurrence = delivery.getOccurrence();
+        this.channel = delivery.getChannel();
+        this.recipient = delivery.getRecipient();
+        this.subject = delivery.getSubject();
+        this.body = delivery.getBody();
+        this.ownerId = delivery.getOwnerId();
+        this.tier = delivery.getTier();
+        this.attempts = delivery.getAttempts() + 1;
+        this.lastError = lastError;
+        this.failedAt = failedAt;
+    }
+
+    /**
+     * A fresh outbox row for the same delivery, due at {@code now} with no attempts.
+     */
+    public NotificationOutbox toOutbox(LocalDateTime now) {
+        NotificationOutbox delivery = new NotificationOutbox(reminderId, occurrence, channel, recipient, subject, body, now);
+        delivery.setOwnerId(ownerId);
+        delivery.setTier(tier);
+        return delivery;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOutboxId() {
+        return outboxId;
+    }
+
+    public void setOutboxId(Long outboxId) {
+        this.outboxId = outboxId;
+    }
+
+    public Long getReminderId() {
+        return reminderId;
+    }
+
+    public void setReminderId(Long reminderId) {
+        this.reminderId = reminderId;
+    }
+
+    public LocalDateTime getOccurrence() {
+        return occurrence;
+    }
+
+    public void setOccurrence(LocalDateTime occurrence) {
+        this.occurrence = occurrence;
+    }
+
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+
+    public void setChannel(NotificationChannel channel) {
+        this.channel = channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public PlanTier getTier() {
+        return tier;
+    }
+
+    public void setTier(PlanTier tier) {
+        this.tier = tier;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
+}
@@ -0,0 +1,126 @@
+package com.hatirlat.backend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Record of one message a provider accepted: which delivery, through which provider, and when. Receipts
+ * are append-only and written in batches by {@code DeliveryReceiptWriter} over plain JDBC, so the entity
+ * is only used to create the table and to read it back.
+ */
+@Entity
+@Immutable
+@Table(name = "delivery_receipts",
+        indexes = {
+                @Index(name = "idx_receipts_reminder", columnList = "reminder_id, delivered_at"),
+                @Index(name = "idx_receipts_recipient", columnList = "recipient, delivered_at")
+        })
+public class DeliveryReceipt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reminder_id", nullable = false)
+    private Long reminderId;
+
+    @Column(nullable = false)
+    private LocalDateTime occurrence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationChannel channel;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String provider;
+
+    @Column(name = "message_id")
+    private String messageId; // The provider's id for the message, null if it does not return one
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "delivery_key", nullable = false)
+    private UUID deliveryKey;
+
+    @Column(name = "digest_id")
+    private UUID digestId; // Set when the delivery went out as part of a digest
+
+    private int attempts; // Failed attempts before this one
+
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+
+    // Constructors
+    public DeliveryReceipt() {}
+
+    public DeliveryReceipt(NotificationOutbox delivery, String provider, String messageId, UUID digestId,
+                           LocalDateTime deliveredAt) {
+        this.reminderId = delivery.getReminderId();
+        this.occurrence = delivery.getOccurrence();
+        this.channel = delivery.getChannel();
+        this.recipient = delivery.getRecipient();
+        this.provider = provider;
+        this.messageId = messageId;
+        this.ownerId = delivery.getOwnerId();
+        this.deliveryKey = delivery.getDeliveryKey();
+        this.digestId = digestId;
+        this.attempts = delivery.getAttempts();
+        this.deliveredAt = deliveredAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getReminderId() {
+        return reminderId;
+    }
+
+    public LocalDateTime getOccurrence() {
+        return occurrence;
+    }
+
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public UUID getDeliveryKey() {
+        return deliveryKey;
+    }
+
+    public UUID getDigestId() {
+        return digestId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+}
@@ -24,6 +24,9 @@ public class Member {
     private String phone;
     private LocalDateTime lastActivity;
 
+    @Enumerated(EnumType.STRING)
+    private MessageLocale locale; // Language of the member's reminders; null uses templates.default-locale
+
     // Constructors
     public Member() {
         this.joinedAt = LocalDateTime.now();
@@ -103,4 +106,12 @@ public class Member {
     public void setLastActivity(LocalDateTime lastActivity) {
         this.lastActivity = lastActivity;
     }
-}
\ No newline at end of file
+
+    public MessageLocale getLocale() {
+        return locale;
+    }
+
+    public void setLocale(MessageLocale locale) {
+        this.locale = locale;
+    }
+}
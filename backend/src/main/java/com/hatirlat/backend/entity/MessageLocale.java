@@ -0,0 +1,9 @@
+package com.hatirlat.backend.entity;
+
+/**
+ * Language a recipient's reminders are rendered in.
+ */
+public enum MessageLocale {
+    TR,
+    EN
+}
@@ -0,0 +1,250 @@
+package com.hatirlat.backend.entity;
+
+import jakarta.persistence.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "notification_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_delivery",
+                columnNames = {"reminder_id", "occurrence", "channel", "recipient"}),
+        indexes = @Index(name = "idx_outbox_channel_status_fair_tag", columnList = "channel, status, fair_tag"))
+public class NotificationOutbox {
+
+    // Sequence ids let Hibernate batch the inserts of a claimed batch; IDENTITY would insert row by row
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "reminder_id", nullable = false)
+    private Long reminderId;
+
+    @Column(nullable = false)
+    private LocalDateTime occurrence; // The reminder's nextFireAt when it was claimed
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationChannel channel;
+
+    @Column(nullable = false)
+    private String recipient; // Email address or phone number, depending on the channel
+
+    private String subject;
+
+    @Column(length = 2000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt; // Not relayed before this time; pushed back after a failed attempt
+
+    @Column(name = "owner_id")
+    private Long ownerId; // Owner of the reminder, or null for reminders created before owners were recorded
+
+    @Enumerated(EnumType.STRING)
+    private PlanTier tier;
+
+    @Column(name = "fair_tag")
+    private long fairTag; // Weighted-fair finish tag; rows are relayed in ascending order
+
+    @Column(name = "claimed_by")
+    private String claimedBy; // Relay node currently holding the delivery lease
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(name = "digest_id")
+    private UUID digestId; // Digest message this row was sent in, or null when it was sent on its own
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // Constructors
+    public NotificationOutbox() {}
+
+    public NotificationOutbox(Long reminderId, LocalDateTime occurrence, NotificationChannel channel, String recipient,
+                              String subject, String body, LocalDateTime createdAt) {
+        this.reminderId = reminderId;
+        this.occurrence = occurrence;
+        this.channel = channel;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = OutboxStatus.PENDING;
+        this.createdAt = createdAt;
+        this.availableAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReminderId() {
+        return reminderId;
+    }
+
+    public void setReminderId(Long reminderId) {
+        this.reminderId = reminderId;
+    }
+
+    public LocalDateTime getOccurrence() {
+        return occurrence;
+    }
+
+    public void setOccurrence(LocalDateTime occurrence) {
+        this.occurrence = occurrence;
+    }
+
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+
+    public void setChannel(NotificationChannel channel) {
+        this.channel = channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public OutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public PlanTier getTier() {
+        return tier;
+    }
+
+    public void setTier(PlanTier tier) {
+        this.tier = tier;
+    }
+
+    public long getFairTag() {
+        return fairTag;
+    }
+
+    public void setFairTag(long fairTag) {
+        this.fairTag = fairTag;
+    }
+
+    public UUID getDigestId() {
+        return digestId;
+    }
+
+    public void setDigestId(UUID digestId) {
+        this.digestId = digestId;
+    }
+
+    /**
+     * Identity of this delivery across retries, re-claims and relay nodes, derived from the same
+     * (reminder, occurrence, channel, recipient) tuple as the unique key: a 128-bit name-based UUID.
+     */
+    public UUID getDeliveryKey() {
+        String identity = reminderId + "|" + occurrence + "|" + channel + "|" + recipient;
+        return UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,7 @@
+package com.hatirlat.backend.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
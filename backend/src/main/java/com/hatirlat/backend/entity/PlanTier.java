@@ -0,0 +1,6 @@
+package com.hatirlat.backend.entity;
+
+public enum PlanTier {
+    FREE,
+    PREMIUM
+}
@@ -5,9 +5,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "reminders")
+@NamedEntityGraph(name = Reminder.WITH_CHANNELS, attributeNodes = @NamedAttributeNode("channels"))
+@Table(name = "reminders", indexes = {
+        @Index(name = "idx_reminders_status_next_fire_at", columnList = "status, next_fire_at")
+})
 public class Reminder {
 
+    public static final String WITH_CHANNELS = "Reminder.withChannels";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,9 +43,30 @@ public class Reminder {
     
     private Long customRepeatId; // Foreign key reference instead of relationship
 
+    private Long ownerId; // User who created the reminder; decides its dispatch share. Null for legacy rows
+
+    @Column(name = "next_fire_at")
+    private LocalDateTime nextFireAt; // Next occurrence to send; equals dateTime until a recurring reminder is re-armed
+
+    @Column(name = "tolerance_minutes")
+    private Integer toleranceMinutes; // Opt-in: delivery may be spread up to this many minutes after nextFireAt
+
+    @Column(name = "claimed_by")
+    private String claimedBy; // Scheduler node currently holding the dispatch lease
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil; // Lease expiry; an expired lease can be claimed by any node
+
     // Constructors
     public Reminder() {}
 
+    @PrePersist
+    void initNextFireAt() {
+        if (nextFireAt == null) {
+            nextFireAt = dateTime;
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -129,4 +155,44 @@ public class Reminder {
     public void setCustomRepeatId(Long customRepeatId) {
         this.customRepeatId = customRepeatId;
     }
-}
\ No newline at end of file
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public LocalDateTime getNextFireAt() {
+        return nextFireAt;
+    }
+
+    public void setNextFireAt(LocalDateTime nextFireAt) {
+        this.nextFireAt = nextFireAt;
+    }
+
+    public Integer getToleranceMinutes() {
+        return toleranceMinutes;
+    }
+
+    public void setToleranceMinutes(Integer toleranceMinutes) {
+        this.toleranceMinutes = toleranceMinutes;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+}
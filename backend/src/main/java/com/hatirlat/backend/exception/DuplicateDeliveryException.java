@@ -0,0 +1,11 @@
+package com.hatirlat.backend.exception;
+
+/**
+ * Thrown instead of sending when another worker on this node is already sending the same delivery.
+ * The relay leaves the row alone; the worker holding the key writes its outcome back.
+ */
+public class DuplicateDeliveryException extends BaseException {
+    public DuplicateDeliveryException(String message) {
+        super("DUPLICATE_DELIVERY", message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hatirlat.backend.exception;
+
+/**
+ * Thrown instead of sending when a provider's quota would only free a token after the longest a send may
+ * be parked. The send fails over to the next provider, or goes back to the outbox to be retried.
+ */
+public class ProviderThrottledException extends BaseException {
+    public ProviderThrottledException(String message) {
+        super("PROVIDER_THROTTLED", message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.hatirlat.backend.provider;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends notifications over one channel, e.g. an SMTP relay for email or an SMS gateway. Implementations
+ * are Spring beans and are picked up by {@code NotificationService}. {@link #send} must not block the
+ * caller: it starts the send and returns, and the future completes when the provider accepted or
+ * rejected the message. A failure is reported by completing the future exceptionally.
+ */
+public interface ChannelProvider {
+
+    /**
+     * Unique provider name. It selects the provider through {@code outbox.channels.<channel>.provider},
+     * and it names the provider's circuit breaker and time limiter.
+     */
+    String getName();
+
+    NotificationChannel getChannel();
+
+    CompletableFuture<DeliveryResult> send(NotificationOutbox delivery);
+
+    /**
+     * Identity the delivery is sent as, such as an SMS sender id or a WhatsApp business number, for
+     * providers that enforce a quota per sender as well as per account. Null when only the account's
+     * quota applies.
+     */
+    default String senderOf(NotificationOutbox delivery) {
+        return null;
+    }
+}
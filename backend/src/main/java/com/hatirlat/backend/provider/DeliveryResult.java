@@ -0,0 +1,23 @@
+package com.hatirlat.backend.provider;
+
+/**
+ * A message a provider accepted for delivery.
+ */
+public final class DeliveryResult {
+
+    private final String provider;
+    private final String messageId; // The provider's id for the message, null if it does not return one
+
+    public DeliveryResult(String provider, String messageId) {
+        this.provider = provider;
+        this.messageId = messageId;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+}
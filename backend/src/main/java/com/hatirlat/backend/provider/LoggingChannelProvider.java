@@ -0,0 +1,41 @@
+package com.hatirlat.backend.provider;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stand-in provider that only logs the message and reports it as accepted. It is the default for every
+ * channel until a real integration is configured.
+ */
+public class LoggingChannelProvider implements ChannelProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingChannelProvider.class);
+
+    private final String name;
+    private final NotificationChannel channel;
+
+    public LoggingChannelProvider(String name, NotificationChannel channel) {
+        this.name = name;
+        this.channel = channel;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public CompletableFuture<DeliveryResult> send(NotificationOutbox delivery) {
+        log.debug("Sending {} notification to {}: {}", channel, delivery.getRecipient(), delivery.getBody());
+        return CompletableFuture.completedFuture(new DeliveryResult(name, null));
+    }
+}
@@ -0,0 +1,292 @@
+package com.hatirlat.backend.provider;
+
+import com.hatirlat.backend.config.SmtpProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EMAIL provider that sends through the SMTP server configured with {@code spring.mail.*}. It is
+ * registered only when {@code spring.mail.host} is set, and selected with
+ * {@code outbox.channels.email.provider=smtp}.
+ *
+ * <p>Each of the {@code smtp.connections} workers owns one authenticated connection and keeps it open
+ * between messages. A worker takes up to {@code smtp.batch-size} queued messages at a time and sends
+ * them all over its connection. Messages of the same reminder occurrence, such as one group reminder to
+ * hundreds of members, share one prepared message; only the recipient changes, and the subject and body
+ * where a member's name or locale makes them differ. A connection is
+ * renewed after {@code smtp.max-messages-per-connection} messages and closed after
+ * {@code smtp.idle-close-seconds} without work.
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.mail", name = "host")
+public class SmtpChannelProvider implements ChannelProvider {
+
+    public static final String NAME = "smtp";
+
+    private static final String DEFAULT_PROTOCOL = "smtp";
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpChannelProvider.class);
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Autowired
+    private SmtpProperties smtpProperties;
+
+    private final AtomicInteger connectionsOpened = new AtomicInteger();
+    private BlockingQueue<PendingMail> queue;
+    private ExecutorService connections;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, smtpProperties.getQueueCapacity()));
+        int count = Math.max(1, smtpProperties.getConnections());
+        AtomicInteger threadCount = new AtomicInteger();
+        connections = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "smtp-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < count; i++) {
+            connections.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (connections != null) {
+            connections.shutdownNow();
+        }
+        PendingMail mail;
+        while (queue != null && (mail = queue.poll()) != null) {
+            mail.result.completeExceptionally(new IllegalStateException("SMTP provider stopped"));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public NotificationChannel getChannel() {
+        return NotificationChannel.EMAIL;
+    }
+
+    @Override
+    public CompletableFuture<DeliveryResult> send(NotificationOutbox delivery) {
+        PendingMail mail = new PendingMail(delivery);
+        if (!running || !queue.offer(mail)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("SMTP queue is full"));
+        }
+        return mail.result;
+    }
+
+    /**
+     * Connections opened since start, for monitoring how well connections are reused.
+     */
+    public int getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    private void work() {
+        Transport transport = null;
+        int sentOnConnection = 0;
+        // Kept across batches, so a fan-out spread over several batches still shares one message
+        SharedMessage shared = null;
+        long idleSince = System.nanoTime();
+        try {
+            while (running) {
+                PendingMail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (transport != null && System.nanoTime() - idleSince
+                            > TimeUnit.SECONDS.toNanos(smtpProperties.getIdleCloseSeconds())) {
+                        close(transport);
+                        transport = null;
+                    }
+                    continue;
+                }
+                List<PendingMail> batch = new ArrayList<>();
+                batch.add(first);
+                queue.drainTo(batch, Math.max(0, smtpProperties.getBatchSize() - 1));
+
+                for (List<PendingMail> sameOccurrence : byOccurrence(batch).values()) {
+                    NotificationOutbox head = sameOccurrence.get(0).delivery;
+                    Object key = occurrenceOf(head);
+                    if (shared == null || !key.equals(shared.key)) {
+                        try {
+                            shared = new SharedMessage(key, prepare(head), head);
+                        } catch (MessagingException e) {
+                            shared = null;
+                            sameOccurrence.forEach(mail -> mail.result.completeExceptionally(e));
+                            continue;
+                        }
+                    }
+                    for (PendingMail mail : sameOccurrence) {
+                        if (mail.result.isDone()) {
+                            // Timed out while queued; the outbox retries it
+                            continue;
+                        }
+                        try {
+                            if (transport == null || !transport.isConnected()
+                                    || sentOnConnection >= smtpProperties.getMaxMessagesPerConnection()) {
+                                close(transport);
+                                transport = null;
+                                transport = connect();
+                                sentOnConnection = 0;
+                            }
+                            MimeMessage message = shared.personalise(mail.delivery);
+                            transport.sendMessage(message, message.getAllRecipients());
+                            sentOnConnection++;
+                            mail.result.complete(new DeliveryResult(NAME, message.getMessageID()));
+                        } catch (MessagingException e) {
+                            mail.result.completeExceptionally(e);
+                            if (!(e instanceof SendFailedException) && !(e instanceof AddressException)) {
+                                // Anything but a rejected address may have broken the connection
+                                close(transport);
+                                transport = null;
+                            }
+                        }
+                    }
+                }
+                idleSince = System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(protocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    /**
+     * The configured protocol, which Spring leaves null unless {@code spring.mail.protocol} is set; the
+     * session's {@code mail.transport.protocol} and then plain SMTP are used instead, as in
+     * {@link JavaMailSenderImpl#send}.
+     */
+    private String protocol() {
+        if (mailSender.getProtocol() != null) {
+            return mailSender.getProtocol();
+        }
+        String configured = mailSender.getSession().getProperty("mail.transport.protocol");
+        return configured != null ? configured : DEFAULT_PROTOCOL;
+    }
+
+    private MimeMessage prepare(NotificationOutbox delivery) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(smtpProperties.getFrom());
+        helper.setSubject(delivery.getSubject());
+        helper.setText(delivery.getBody());
+        return message;
+    }
+
+    /**
+     * Groups the batch by reminder occurrence. The members of one group reminder get one message each,
+     * differing only in the rendered {name} and locale, so they share the prepared message.
+     */
+    private static Map<Object, List<PendingMail>> byOccurrence(List<PendingMail> batch) {
+        Map<Object, List<PendingMail>> groups = new LinkedHashMap<>();
+        for (PendingMail mail : batch) {
+            groups.computeIfAbsent(occurrenceOf(mail.delivery), key -> new ArrayList<>()).add(mail);
+        }
+        return groups;
+    }
+
+    private static Object occurrenceOf(NotificationOutbox delivery) {
+        if (delivery.getReminderId() == null) {
+            return delivery.getSubject() + '\u0000' + delivery.getBody();
+        }
+        return List.of(delivery.getReminderId(), String.valueOf(delivery.getOccurrence()));
+    }
+
+    private static void close(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A prepared message shared by one reminder occurrence. Only the recipient is set for every member;
+     * the subject and body are replaced only where they differ from the previous member's.
+     */
+    private static final class SharedMessage {
+        private final Object key;
+        private final MimeMessage message;
+        private String subject;
+        private String body;
+
+        private SharedMessage(Object key, MimeMessage message, NotificationOutbox prepared) {
+            this.key = key;
+            this.message = message;
+            this.subject = prepared.getSubject();
+            this.body = prepared.getBody();
+        }
+
+        private MimeMessage personalise(NotificationOutbox delivery) throws MessagingException {
+            if (!Objects.equals(subject, delivery.getSubject())) {
+                message.setSubject(delivery.getSubject(), "UTF-8");
+                subject = delivery.getSubject();
+            }
+            if (!Objects.equals(body, delivery.getBody())) {
+                message.setText(delivery.getBody(), "UTF-8");
+                body = delivery.getBody();
+            }
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress(delivery.getRecipient()));
+            message.saveChanges();
+            return message;
+        }
+    }
+
+    private static final class PendingMail {
+        private final NotificationOutbox delivery;
+        private final CompletableFuture<DeliveryResult> result = new CompletableFuture<>();
+
+        private PendingMail(NotificationOutbox delivery) {
+            this.delivery = delivery;
+        }
+    }
+}
@@ -2,8 +2,15 @@ package com.hatirlat.backend.repository;
 
 import com.hatirlat.backend.entity.CustomRepeatConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CustomRepeatConfigRepository extends JpaRepository<CustomRepeatConfig, Long> {
+
+    @Query("SELECT DISTINCT c FROM CustomRepeatConfig c LEFT JOIN FETCH c.daysOfWeek WHERE c.id IN :ids")
+    List<CustomRepeatConfig> findAllWithDaysByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.DeadLetter;
+import com.hatirlat.backend.entity.NotificationChannel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeadLetterRepository extends JpaRepository<DeadLetter, Long> {
+
+    List<DeadLetter> findAllByOrderByIdAsc(Pageable page);
+
+    List<DeadLetter> findByChannelOrderByIdAsc(NotificationChannel channel, Pageable page);
+
+    long countByChannel(NotificationChannel channel);
+}
@@ -0,0 +1,17 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.DeliveryReceipt;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeliveryReceiptRepository extends JpaRepository<DeliveryReceipt, Long> {
+
+    // Both queries are served by an index on (column, delivered_at), newest first
+    List<DeliveryReceipt> findByReminderIdOrderByDeliveredAtDescIdDesc(Long reminderId, Pageable page);
+
+    List<DeliveryReceipt> findByRecipientOrderByDeliveredAtDescIdDesc(String recipient, Pageable page);
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +18,18 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     List<GroupMember> findByGroupId(Long groupId);
     
     void deleteByGroupIdAndMemberId(Long groupId, Long memberId);
+
+    /**
+     * The member count of each of {@code groupIds} that has members, in one grouped query. Only memberships
+     * whose member still exists are counted, as when the members themselves are loaded.
+     */
+    @Query("SELECT gm.groupId AS groupId, COUNT(m) AS members FROM GroupMember gm " +
+            "JOIN Member m ON m.id = gm.memberId " +
+            "WHERE gm.groupId IN :groupIds GROUP BY gm.groupId")
+    List<GroupSize> countMembersByGroupIdIn(Collection<Long> groupIds);
+
+    interface GroupSize {
+        Long getGroupId();
+        long getMembers();
+    }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.hatirlat.backend.repository;
 
 import com.hatirlat.backend.entity.Member;
+import com.hatirlat.backend.entity.MemberStatus;
+import com.hatirlat.backend.entity.MessageLocale;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -12,4 +15,32 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     
     @Query("SELECT m FROM Member m JOIN GroupMember gm ON m.id = gm.memberId WHERE gm.groupId = :groupId")
     List<Member> findMembersByGroupId(Long groupId);
-}
\ No newline at end of file
+
+    /**
+     * One page of the email addresses of a group's members with the given status, ordered by address and
+     * starting after {@code afterAddress}. Members sharing an address come out next to each other, lowest
+     * id first, and the next page starts past the address, so paging through the group yields every
+     * address once. Only the address, name and locale are selected, so no entities are read.
+     */
+    @Query("SELECT m.id AS id, m.name AS name, m.email AS address, m.locale AS locale " +
+            "FROM GroupMember gm JOIN Member m ON m.id = gm.memberId " +
+            "WHERE gm.groupId = :groupId AND m.status = :status AND m.email > :afterAddress " +
+            "ORDER BY m.email, m.id")
+    List<Recipient> findEmailRecipientsAfter(Long groupId, MemberStatus status, String afterAddress, Pageable page);
+
+    /**
+     * As {@link #findEmailRecipientsAfter}, for phone numbers.
+     */
+    @Query("SELECT m.id AS id, m.name AS name, m.phone AS address, m.locale AS locale " +
+            "FROM GroupMember gm JOIN Member m ON m.id = gm.memberId " +
+            "WHERE gm.groupId = :groupId AND m.status = :status AND m.phone > :afterAddress " +
+            "ORDER BY m.phone, m.id")
+    List<Recipient> findPhoneRecipientsAfter(Long groupId, MemberStatus status, String afterAddress, Pageable page);
+
+    interface Recipient {
+        Long getId();
+        String getName();
+        String getAddress();
+        MessageLocale getLocale();
+    }
+}
@@ -0,0 +1,73 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long>, OutboxClaimRepository {
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.hatirlat.backend.entity.OutboxStatus.SENT, " +
+            "o.attempts = o.attempts + 1, o.sentAt = :sentAt, o.claimedBy = null, o.leaseUntil = null " +
+            "WHERE o.id IN :ids AND o.claimedBy = :nodeId")
+    int markSent(Collection<Long> ids, LocalDateTime sentAt, String nodeId);
+
+    /**
+     * Records the digest message the rows were sent in, on the rows {@code nodeId} still holds.
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.digestId = :digestId WHERE o.id IN :ids AND o.claimedBy = :nodeId")
+    int recordDigest(Collection<Long> ids, UUID digestId, String nodeId);
+
+    /**
+     * Releases failed rows back to PENDING, to be claimed again once {@code availableAt} has passed. The
+     * new {@code fairTag} places them behind the rows written before they are due.
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.attempts = o.attempts + 1, o.availableAt = :availableAt, " +
+            "o.fairTag = :fairTag, o.lastError = :error, o.claimedBy = null, o.leaseUntil = null " +
+            "WHERE o.id IN :ids AND o.claimedBy = :nodeId")
+    int scheduleRetry(Collection<Long> ids, LocalDateTime availableAt, long fairTag, String error, String nodeId);
+
+    /**
+     * The subset of {@code ids} still leased by {@code nodeId}.
+     */
+    @Query("SELECT o.id FROM NotificationOutbox o WHERE o.id IN :ids AND o.claimedBy = :nodeId")
+    List<Long> findIdsClaimedBy(Collection<Long> ids, String nodeId);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.id IN :ids AND o.claimedBy = :nodeId")
+    int deleteClaimed(Collection<Long> ids, String nodeId);
+
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * Rows currently leased by a relay, i.e. queued in or being sent by a channel pipeline.
+     */
+    long countByStatusAndLeaseUntilAfter(OutboxStatus status, LocalDateTime now);
+
+    @Query("SELECT MIN(o.occurrence) FROM NotificationOutbox o WHERE o.status = :status")
+    LocalDateTime findOldestOccurrence(OutboxStatus status);
+
+    /**
+     * Reminder, occurrence and send time of every sent row, for measuring firing lag after a simulation run.
+     */
+    @Query("SELECT o.reminderId AS reminderId, o.occurrence AS occurrence, o.sentAt AS sentAt FROM NotificationOutbox o " +
+            "WHERE o.status = com.hatirlat.backend.entity.OutboxStatus.SENT")
+    List<SendTime> findSendTimes();
+
+    interface SendTime {
+        Long getReminderId();
+        LocalDateTime getOccurrence();
+        LocalDateTime getSentAt();
+    }
+}
@@ -0,0 +1,23 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lease-based claiming of pending outbox rows so several relay nodes can drain one outbox without
+ * delivering the same row concurrently.
+ */
+public interface OutboxClaimRepository {
+
+    /**
+     * Atomically leases up to {@code limit} PENDING rows of one channel whose {@code availableAt} has
+     * passed to the given node. Rows whose lease has expired are eligible again, which makes delivery at-least-once.
+     *
+     * @return the rows now leased to {@code nodeId}, in weighted-fair order (lowest fair tag first)
+     */
+    List<NotificationOutbox> claimPending(String nodeId, NotificationChannel channel, LocalDateTime now,
+                                          LocalDateTime leaseUntil, int limit);
+}
@@ -0,0 +1,87 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class OutboxClaimRepositoryImpl implements OutboxClaimRepository {
+
+    private static final String PENDING_CONDITION =
+            "channel = :channel AND status = 'PENDING' AND available_at <= :now " +
+                    "AND (lease_until IS NULL OR lease_until < :now)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private SkipLockedDetector skipLockedDetector;
+
+    @Override
+    @Transactional
+    public List<NotificationOutbox> claimPending(String nodeId, NotificationChannel channel, LocalDateTime now,
+                                                 LocalDateTime leaseUntil, int limit) {
+        LocalDateTime lease = leaseUntil.truncatedTo(ChronoUnit.MILLIS);
+
+        int claimed = skipLockedDetector.isSupported()
+                ? claimWithSkipLocked(nodeId, channel.name(), now, lease, limit)
+                : claimWithConditionalUpdate(nodeId, channel.name(), now, lease, limit);
+        if (claimed == 0) {
+            return List.of();
+        }
+
+        return entityManager.createQuery(
+                        "SELECT o FROM NotificationOutbox o WHERE o.claimedBy = :nodeId AND o.leaseUntil = :leaseUntil " +
+                                "ORDER BY o.fairTag, o.id", NotificationOutbox.class)
+                .setParameter("nodeId", nodeId)
+                .setParameter("leaseUntil", lease)
+                .getResultList();
+    }
+
+    private int claimWithSkipLocked(String nodeId, String channel, LocalDateTime now, LocalDateTime lease, int limit) {
+        return entityManager.createNativeQuery(
+                        "UPDATE notification_outbox SET claimed_by = :nodeId, lease_until = :leaseUntil WHERE id IN (" +
+                                "SELECT id FROM notification_outbox WHERE " + PENDING_CONDITION +
+                                " ORDER BY fair_tag, id LIMIT :limit FOR UPDATE SKIP LOCKED)")
+                .setParameter("nodeId", nodeId)
+                .setParameter("leaseUntil", lease)
+                .setParameter("channel", channel)
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+
+    private int claimWithConditionalUpdate(String nodeId, String channel, LocalDateTime now, LocalDateTime lease,
+                                           int limit) {
+        // Same fallback as the reminder claim: the UPDATE re-checks the condition, so raced rows are not counted
+        List<Long> candidateIds = ((List<?>) entityManager.createNativeQuery(
+                        "SELECT id FROM notification_outbox WHERE " + PENDING_CONDITION + " ORDER BY fair_tag, id")
+                .setParameter("channel", channel)
+                .setParameter("now", now)
+                .setMaxResults(limit)
+                .getResultList())
+                .stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+        if (candidateIds.isEmpty()) {
+            return 0;
+        }
+
+        return entityManager.createNativeQuery(
+                        "UPDATE notification_outbox SET claimed_by = :nodeId, lease_until = :leaseUntil " +
+                                "WHERE id IN (:ids) AND " + PENDING_CONDITION)
+                .setParameter("nodeId", nodeId)
+                .setParameter("leaseUntil", lease)
+                .setParameter("ids", candidateIds)
+                .setParameter("channel", channel)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+}
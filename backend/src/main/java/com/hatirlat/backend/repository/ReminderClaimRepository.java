@@ -0,0 +1,35 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.Reminder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lease-based claiming of due reminders so several scheduler nodes can share one reminders table
+ * without sending the same reminder twice.
+ */
+public interface ReminderClaimRepository {
+
+    /**
+     * Atomically leases up to {@code limit} due SCHEDULED reminders to the given node. Rows whose
+     * lease has expired (for example because their node crashed) are eligible again. Reminders using
+     * any of the {@code excludedChannels} are left due, so saturated channels are not fed further.
+     *
+     * @return the reminders now leased to {@code nodeId}, oldest first
+     */
+    List<Reminder> claimDue(String nodeId, LocalDateTime now, LocalDateTime leaseUntil, int limit,
+                            Set<NotificationChannel> excludedChannels);
+
+    /**
+     * Moves leased recurring reminders back to SCHEDULED at their own next occurrence and releases the
+     * node's lease, all with a single statement however many distinct occurrences there are. Rows whose
+     * lease was taken over by another node are left alone.
+     *
+     * @return the number of reminders re-armed
+     */
+    int rearmClaims(Map<Long, LocalDateTime> nextFireAts, String nodeId);
+}
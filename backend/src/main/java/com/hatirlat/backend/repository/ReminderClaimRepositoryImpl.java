@@ -0,0 +1,134 @@
+package com.hatirlat.backend.repository;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.Reminder;
+import jakarta.persistence.Query;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ReminderClaimRepositoryImpl implements ReminderClaimRepository {
+
+    private static final String DUE_CONDITION =
+            "status = 'SCHEDULED' AND next_fire_at <= :now AND (lease_until IS NULL OR lease_until < :now)";
+
+    private static final String WITHOUT_EXCLUDED_CHANNELS =
+            " AND NOT EXISTS (SELECT 1 FROM reminder_channels rc WHERE rc.reminder_id = reminders.id " +
+                    "AND rc.channels IN (:excludedChannels))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private SkipLockedDetector skipLockedDetector;
+
+    @Override
+    @Transactional
+    public List<Reminder> claimDue(String nodeId, LocalDateTime now, LocalDateTime leaseUntil, int limit,
+                                   Set<NotificationChannel> excludedChannels) {
+        // Truncate so the lease value round-trips exactly through TIMESTAMP columns and identifies this claim
+        LocalDateTime lease = leaseUntil.truncatedTo(ChronoUnit.MILLIS);
+
+        List<String> excluded = excludedChannels.stream().map(Enum::name).collect(Collectors.toList());
+        int claimed = skipLockedDetector.isSupported()
+                ? claimWithSkipLocked(nodeId, now, lease, limit, excluded)
+                : claimWithConditionalUpdate(nodeId, now, lease, limit, excluded);
+        if (claimed == 0) {
+            return List.of();
+        }
+
+        // Channels come back in the same query through the entity graph instead of one lazy load per reminder
+        return entityManager.createQuery(
+                        "SELECT r FROM Reminder r WHERE r.claimedBy = :nodeId AND r.leaseUntil = :leaseUntil " +
+                                "ORDER BY r.nextFireAt, r.id", Reminder.class)
+                .setParameter("nodeId", nodeId)
+                .setParameter("leaseUntil", lease)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Reminder.WITH_CHANNELS))
+                .getResultList();
+    }
+
+    private int claimWithSkipLocked(String nodeId, LocalDateTime now, LocalDateTime lease, int limit,
+                                    List<String> excluded) {
+        // Rows locked by a concurrent claimer are skipped rather than waited on, so nodes never contend
+        Query query = entityManager.createNativeQuery(
+                "UPDATE reminders SET claimed_by = :nodeId, lease_until = :leaseUntil WHERE id IN (" +
+                        "SELECT id FROM reminders WHERE " + dueCondition(excluded) +
+                        " ORDER BY next_fire_at, id LIMIT :limit FOR UPDATE SKIP LOCKED)");
+        return withExcluded(query, excluded)
+                .setParameter("nodeId", nodeId)
+                .setParameter("leaseUntil", lease)
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+
+    private int claimWithConditionalUpdate(String nodeId, LocalDateTime now, LocalDateTime lease, int limit,
+                                           List<String> excluded) {
+        // Fallback for databases without SKIP LOCKED (H2): pick candidates, then lease only the rows that
+        // are still unclaimed. The UPDATE re-checks the due condition under the row lock, so a row raced
+        // by another node is simply not counted here.
+        Query candidates = entityManager.createNativeQuery(
+                "SELECT id FROM reminders WHERE " + dueCondition(excluded) + " ORDER BY next_fire_at, id");
+        List<Long> candidateIds = ((List<?>) withExcluded(candidates, excluded)
+                .setParameter("now", now)
+                .setMaxResults(limit)
+                .getResultList())
+                .stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+        if (candidateIds.isEmpty()) {
+            return 0;
+        }
+
+        return entityManager.createNativeQuery(
+                        "UPDATE reminders SET claimed_by = :nodeId, lease_until = :leaseUntil " +
+                                "WHERE id IN (:ids) AND " + DUE_CONDITION)
+                .setParameter("nodeId", nodeId)
+                .setParameter("leaseUntil", lease)
+                .setParameter("ids", candidateIds)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int rearmClaims(Map<Long, LocalDateTime> nextFireAts, String nodeId) {
+        if (nextFireAts.isEmpty()) {
+            return 0;
+        }
+        // One CASE arm per reminder, so reminders with different next occurrences still share one UPDATE
+        StringBuilder nextFireAt = new StringBuilder("CASE id");
+        for (int i = 0; i < nextFireAts.size(); i++) {
+            nextFireAt.append(" WHEN :id").append(i).append(" THEN :at").append(i);
+        }
+        nextFireAt.append(" END");
+        Query query = entityManager.createNativeQuery(
+                "UPDATE reminders SET status = 'SCHEDULED', next_fire_at = " + nextFireAt +
+                        ", claimed_by = NULL, lease_until = NULL WHERE id IN (:ids) AND claimed_by = :nodeId");
+        int i = 0;
+        for (Map.Entry<Long, LocalDateTime> entry : nextFireAts.entrySet()) {
+            query.setParameter("id" + i, entry.getKey());
+            query.setParameter("at" + i, entry.getValue());
+            i++;
+        }
+        return query.setParameter("ids", nextFireAts.keySet())
+                .setParameter("nodeId", nodeId)
+                .executeUpdate();
+    }
+
+    private static String dueCondition(List<String> excluded) {
+        return excluded.isEmpty() ? DUE_CONDITION : DUE_CONDITION + WITHOUT_EXCLUDED_CHANNELS;
+    }
+
+    private static Query withExcluded(Query query, List<String> excluded) {
+        return excluded.isEmpty() ? query : query.setParameter("excludedChannels", excluded);
+    }
+}
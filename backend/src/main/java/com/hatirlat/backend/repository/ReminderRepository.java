@@ -2,22 +2,73 @@ package com.hatirlat.backend.repository;
 
 import com.hatirlat.backend.entity.Reminder;
 import com.hatirlat.backend.entity.ReminderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ReminderRepository extends JpaRepository<Reminder, Long> {
-    
-    @Query("SELECT r FROM Reminder r WHERE r.status = :status AND r.dateTime <= :dateTime")
-    List<Reminder> findByStatusAndDateTimeBefore(ReminderStatus status, LocalDateTime dateTime);
+public interface ReminderRepository extends JpaRepository<Reminder, Long>, ReminderClaimRepository {
     
+    /**
+     * One keyset page of the scheduler's window, ordered by (nextFireAt, id). Pass the last entry of the
+     * previous page as {@code afterFireAt}/{@code afterId} to continue without OFFSET scans.
+     */
+    @Query("SELECT r.id AS id, r.nextFireAt AS fireAt FROM Reminder r WHERE r.status = :status AND r.nextFireAt <= :to " +
+            "AND (r.nextFireAt > :afterFireAt OR (r.nextFireAt = :afterFireAt AND r.id > :afterId)) " +
+            "ORDER BY r.nextFireAt, r.id")
+    List<ScheduleEntry> findScheduleEntriesPage(ReminderStatus status, LocalDateTime afterFireAt, Long afterId,
+                                                LocalDateTime to, Pageable pageable);
+
+    /**
+     * Set-based status transition for a dispatched batch that also releases the node's lease.
+     */
+    @Modifying
+    @Query("UPDATE Reminder r SET r.status = :status, r.claimedBy = null, r.leaseUntil = null " +
+            "WHERE r.id IN :ids AND r.claimedBy = :nodeId")
+    int completeClaims(Collection<Long> ids, ReminderStatus status, String nodeId);
+
+    /**
+     * Flags one-off reminders whose delivery was given up on. Recurring reminders are already
+     * SCHEDULED for their next occurrence and are left alone.
+     */
+    @Modifying
+    @Query("UPDATE Reminder r SET r.status = com.hatirlat.backend.entity.ReminderStatus.FAILED " +
+            "WHERE r.id IN :ids AND r.status = com.hatirlat.backend.entity.ReminderStatus.SENT")
+    int markDeliveryFailed(Collection<Long> ids);
+
+    long countByStatusAndNextFireAtLessThanEqual(ReminderStatus status, LocalDateTime nextFireAt);
+
+    /**
+     * Earliest occurrence after {@code after}; pass a time far in the past to get the oldest one.
+     */
+    @Query("SELECT MIN(r.nextFireAt) FROM Reminder r WHERE r.status = :status AND r.nextFireAt > :after")
+    LocalDateTime findEarliestFireAtAfter(ReminderStatus status, LocalDateTime after);
+
+    /**
+     * Every reminder with its channels loaded in the same query.
+     */
+    @EntityGraph(Reminder.WITH_CHANNELS)
+    @Query("SELECT r FROM Reminder r")
+    List<Reminder> findAllWithChannels();
+
     @Query("SELECT r FROM Reminder r WHERE r.contactId = :contactId")
     List<Reminder> findByContactId(Long contactId);
     
     @Query("SELECT r FROM Reminder r WHERE r.groupId = :groupId")
     List<Reminder> findByGroupId(Long groupId);
+
+    /**
+     * Id and due time only, so loading the scheduler's window does not materialise whole entities.
+     */
+    interface ScheduleEntry {
+        Long getId();
+        LocalDateTime getFireAt();
+    }
 }
\ No newline at end of file
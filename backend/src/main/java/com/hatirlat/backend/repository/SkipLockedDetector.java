@@ -0,0 +1,39 @@
+package com.hatirlat.backend.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Tells the claim repositories whether the database supports {@code FOR UPDATE SKIP LOCKED}. Only
+ * PostgreSQL is treated as supporting it; H2 falls back to a conditional UPDATE.
+ */
+@Component
+public class SkipLockedDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(SkipLockedDetector.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    private volatile Boolean supported;
+
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                result = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                log.warn("Could not detect database product, claiming without SKIP LOCKED: {}", e.getMessage());
+                result = false;
+            }
+            supported = result;
+        }
+        return result;
+    }
+}
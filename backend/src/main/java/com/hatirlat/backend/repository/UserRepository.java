@@ -2,11 +2,17 @@ package com.hatirlat.backend.repository;
   
 import com.hatirlat.backend.entity.User;  
 import org.springframework.data.jpa.repository.JpaRepository;  
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;  
   
+import java.util.Collection;
 import java.util.Optional;  
+import java.util.Set;
   
 @Repository  
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.premium = true")
+    Set<Long> findPremiumIds(Collection<Long> ids);
 }
\ No newline at end of file
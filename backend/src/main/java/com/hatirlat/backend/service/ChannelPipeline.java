@@ -0,0 +1,229 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.DuplicateDeliveryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Delivery stage of a single notification channel: a bounded queue drained by the channel's own worker
+ * pool. Channels never share threads or queue space, so a slow WhatsApp provider cannot delay email.
+ * Send rates are the provider's concern: {@link NotificationService} parks sends over a provider's quota
+ * on a timer, where they keep their in-flight slot, so no worker ever sleeps. Sends are asynchronous: a
+ * worker hands the row to the provider and moves on, and at most {@code maxInFlight} sends await an
+ * answer at once. Pipelines may also share a semaphore that caps the sends in flight across all of them.
+ * Outcomes are buffered until the relay collects them, so they can be written back to the outbox in batches.
+ */
+public class ChannelPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelPipeline.class);
+
+    private final NotificationChannel channel;
+    private final BlockingQueue<Queued> queue;
+    private final Queue<Outcome> completed = new ConcurrentLinkedQueue<>();
+    private final Function<NotificationOutbox, CompletableFuture<?>> sender;
+    private final SchedulerMetrics metrics;
+    private final Clock clock;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Semaphore inFlight;
+    private final Semaphore sharedInFlight;
+    private final int workerCount;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public ChannelPipeline(NotificationChannel channel, int queueCapacity, int workerCount, int maxInFlight,
+                           Function<NotificationOutbox, CompletableFuture<?>> sender, SchedulerMetrics metrics,
+                           Clock clock) {
+        this(channel, queueCapacity, workerCount, maxInFlight, new Semaphore(Integer.MAX_VALUE), sender, metrics, clock);
+    }
+
+    /**
+     * @param sharedInFlight slots shared with other pipelines; every send also holds one of them
+     */
+    public ChannelPipeline(NotificationChannel channel, int queueCapacity, int workerCount, int maxInFlight,
+                           Semaphore sharedInFlight, Function<NotificationOutbox, CompletableFuture<?>> sender,
+                           SchedulerMetrics metrics, Clock clock) {
+        this.channel = channel;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.workerCount = Math.max(1, workerCount);
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.sharedInFlight = sharedInFlight;
+        this.sender = sender;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    public void start() {
+        running = true;
+        String prefix = "dispatch-" + channel.name().toLowerCase() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Stops the workers. Rows still queued or in flight stay leased in the outbox and are relayed
+     * again once their lease expires.
+     */
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a delivery without blocking.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(NotificationOutbox delivery) {
+        if (!queue.offer(new Queued(delivery, clock.instant()))) {
+            return false;
+        }
+        pending.incrementAndGet();
+        return true;
+    }
+
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * Deliveries queued or awaiting the provider whose outcome has not been recorded yet.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    public boolean isFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    /**
+     * Moves the outcomes finished since the last call into {@code into}.
+     */
+    public void drainCompleted(Collection<Outcome> into) {
+        Outcome outcome;
+        while ((outcome = completed.poll()) != null) {
+            into.add(outcome);
+        }
+    }
+
+    private void work() {
+        while (running) {
+            Queued queued;
+            try {
+                // Take a slot first, so rows wait in the queue, where they count towards saturation
+                inFlight.acquire();
+                queued = queue.poll(1, TimeUnit.SECONDS);
+                if (queued == null) {
+                    inFlight.release();
+                    continue;
+                }
+                // Only a row in hand waits for a shared slot, so an idle channel never holds one
+                sharedInFlight.acquire();
+                metrics.recordQueueWait(channel, Duration.between(queued.enqueuedAt, clock.instant()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            send(queued.delivery);
+        }
+    }
+
+    private void send(NotificationOutbox delivery) {
+        Instant start = clock.instant();
+        CompletableFuture<?> future;
+        try {
+            future = sender.apply(delivery);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, error) -> complete(delivery, start, unwrap(error)));
+    }
+
+    private void complete(NotificationOutbox delivery, Instant start, Throwable failure) {
+        try {
+            if (!(failure instanceof DuplicateDeliveryException)) {
+                if (failure != null) {
+                    log.debug("{} delivery {} failed: {}", channel, delivery.getId(), failure.getMessage());
+                }
+                metrics.recordSendLatency(channel, failure == null, Duration.between(start, clock.instant()));
+                metrics.recordDelivery(channel, failure == null);
+            }
+            completed.add(new Outcome(delivery, failure));
+        } finally {
+            pending.decrementAndGet();
+            sharedInFlight.release();
+            inFlight.release();
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Result of one delivery attempt; {@code failure} is null when the send succeeded.
+     */
+    public static final class Outcome {
+        private final NotificationOutbox delivery;
+        private final Throwable failure;
+
+        public Outcome(NotificationOutbox delivery, Throwable failure) {
+            this.delivery = delivery;
+            this.failure = failure;
+        }
+
+        public NotificationOutbox getDelivery() {
+            return delivery;
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
+    }
+
+    private static final class Queued {
+        private final NotificationOutbox delivery;
+        private final Instant enqueuedAt;
+
+        private Queued(NotificationOutbox delivery, Instant enqueuedAt) {
+            this.delivery = delivery;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
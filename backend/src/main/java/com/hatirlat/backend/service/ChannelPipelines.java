@@ -0,0 +1,152 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.SchedulerProperties;
+import com.hatirlat.backend.entity.DeliveryReceipt;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.DuplicateDeliveryException;
+import com.hatirlat.backend.provider.DeliveryResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Owns one {@link ChannelPipeline} per notification channel and exposes which channels are saturated,
+ * so the scheduler can hold back reminders that would only pile up behind a full queue.
+ */
+@Component
+public class ChannelPipelines {
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private SchedulerProperties schedulerProperties;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
+    @Autowired
+    private DeliveryDedupeStore deliveryDedupeStore;
+
+    @Autowired
+    private DeliveryReceiptWriter deliveryReceiptWriter;
+
+    @Autowired
+    private Clock clock;
+
+    private final Map<NotificationChannel, ChannelPipeline> pipelines = new EnumMap<>(NotificationChannel.class);
+
+    @PostConstruct
+    void start() {
+        // One cap across channels, so together they never have more sends awaiting providers than this
+        int maxInFlight = Math.max(1, outboxProperties.getMaxInFlight());
+        Semaphore sharedInFlight = new Semaphore(maxInFlight);
+        schedulerMetrics.registerInFlight(() -> maxInFlight - sharedInFlight.availablePermits());
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            OutboxProperties.Channel settings = outboxProperties.getChannel(channel);
+            ChannelPipeline pipeline = new ChannelPipeline(channel, settings.getQueueCapacity(), settings.getWorkers(),
+                    settings.getMaxInFlight(), sharedInFlight, this::send, schedulerMetrics, clock);
+            schedulerMetrics.registerQueueDepth(channel, pipeline::depth);
+            pipeline.start();
+            pipelines.put(channel, pipeline);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        pipelines.values().forEach(ChannelPipeline::stop);
+    }
+
+    public ChannelPipeline get(NotificationChannel channel) {
+        return pipelines.get(channel);
+    }
+
+    public Set<NotificationChannel> saturatedChannels() {
+        Set<NotificationChannel> saturated = EnumSet.noneOf(NotificationChannel.class);
+        pipelines.forEach((channel, pipeline) -> {
+            if (pipeline.isFull()) {
+                saturated.add(channel);
+            }
+        });
+        return saturated;
+    }
+
+    /**
+     * Collects the outcomes every pipeline finished since the last call.
+     */
+    public List<ChannelPipeline.Outcome> drainCompleted() {
+        List<ChannelPipeline.Outcome> outcomes = new ArrayList<>();
+        pipelines.values().forEach(pipeline -> pipeline.drainCompleted(outcomes));
+        return outcomes;
+    }
+
+    /**
+     * Starts sending one delivery unless its key shows it was already sent. A delivered key counts as
+     * success, so the row is marked SENT without contacting the provider again.
+     */
+    private CompletableFuture<?> send(NotificationOutbox delivery) {
+        UUID key = delivery.getDeliveryKey();
+        DeliveryDedupeStore.Acquisition acquisition = deliveryDedupeStore.acquire(key);
+        if (acquisition != DeliveryDedupeStore.Acquisition.ACQUIRED) {
+            schedulerMetrics.recordDuplicate(delivery.getChannel(), acquisition.name().toLowerCase());
+            if (acquisition == DeliveryDedupeStore.Acquisition.IN_FLIGHT) {
+                return CompletableFuture.failedFuture(
+                        new DuplicateDeliveryException("Delivery " + key + " is already being sent"));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<DeliveryResult> sent;
+        try {
+            sent = notificationService.deliver(delivery);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.whenComplete((result, failure) -> {
+            if (failure != null) {
+                deliveryDedupeStore.release(key);
+                return;
+            }
+            deliveryDedupeStore.markDelivered(key);
+            LocalDateTime now = LocalDateTime.now(clock);
+            if (delivery instanceof DeliveryDigest digest) {
+                // A row re-relayed on its own after a crash must not be sent again either
+                for (NotificationOutbox row : digest.getCovered()) {
+                    deliveryDedupeStore.markDelivered(row.getDeliveryKey());
+                    deliveryReceiptWriter.record(receipt(row, result, key, now));
+                }
+            } else {
+                deliveryReceiptWriter.record(receipt(delivery, result, null, now));
+            }
+            if (delivery.getAttempts() == 0 && delivery.getOccurrence() != null) {
+                schedulerMetrics.recordFiringLag(schedulerProperties.getMode().name().toLowerCase(), delivery.getTier(),
+                        Duration.between(delivery.getOccurrence(), now));
+            }
+        });
+    }
+
+    private static DeliveryReceipt receipt(NotificationOutbox delivery, DeliveryResult result, UUID digestId,
+                                           LocalDateTime now) {
+        String provider = result != null ? result.getProvider() : "unknown";
+        String messageId = result != null ? result.getMessageId() : null;
+        return new DeliveryReceipt(delivery, provider, messageId, digestId, now);
+    }
+}
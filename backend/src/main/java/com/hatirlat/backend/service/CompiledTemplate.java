@@ -0,0 +1,112 @@
+package com.hatirlat.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message template parsed once into its literal text and placeholders. Placeholders are written as
+ * {@code {name}}, {@code {group}}, {@code {title}}, {@code {date}} and {@code {time}}; anything else in
+ * braces is kept as text. Rendering only appends the pieces to a builder sized in advance, and a template
+ * without placeholders renders to its source string itself, so identical messages stay identical for
+ * providers that batch them.
+ */
+public final class CompiledTemplate {
+
+    public enum Placeholder {
+        NAME,
+        GROUP,
+        TITLE,
+        DATE,
+        TIME;
+
+        private final String token = name().toLowerCase();
+    }
+
+    private static final Placeholder[] PLACEHOLDERS = Placeholder.values();
+    private static final int VALUE_ESTIMATE = 16; // Characters reserved per placeholder when sizing the builder
+
+    private final String source;
+    private final String[] literals; // One more than placeholders: the text before, between and after them
+    private final Placeholder[] placeholders;
+    private final int capacity;
+
+    private CompiledTemplate(String source, String[] literals, Placeholder[] placeholders) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.capacity = length + placeholders.length * VALUE_ESTIMATE;
+    }
+
+    public static CompiledTemplate parse(String source) {
+        String text = source != null ? source : "";
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = text.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            Placeholder placeholder = placeholderOf(text, open + 1, close);
+            if (placeholder != null) {
+                literals.add(text.substring(literalStart, open));
+                placeholders.add(placeholder);
+                literalStart = close + 1;
+                open = text.indexOf('{', literalStart);
+            } else {
+                open = text.indexOf('{', open + 1);
+            }
+        }
+        literals.add(text.substring(literalStart));
+        return new CompiledTemplate(text, literals.toArray(new String[0]), placeholders.toArray(new Placeholder[0]));
+    }
+
+    private static Placeholder placeholderOf(String text, int start, int end) {
+        for (Placeholder placeholder : PLACEHOLDERS) {
+            if (placeholder.token.length() == end - start
+                    && text.regionMatches(true, start, placeholder.token, 0, placeholder.token.length())) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean uses(Placeholder placeholder) {
+        for (Placeholder used : placeholders) {
+            if (used == placeholder) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renders the template for one recipient.
+     *
+     * @param name   the recipient's name, rendered empty when null
+     * @param values the occurrence's values indexed by {@link Placeholder#ordinal()}; the NAME slot is unused
+     */
+    public String render(String name, String[] values) {
+        if (placeholders.length == 0) {
+            return source;
+        }
+        StringBuilder rendered = new StringBuilder(capacity);
+        for (int i = 0; i < placeholders.length; i++) {
+            rendered.append(literals[i]);
+            String value = placeholders[i] == Placeholder.NAME ? name : values[placeholders[i].ordinal()];
+            if (value != null) {
+                rendered.append(value);
+            }
+        }
+        return rendered.append(literals[placeholders.length]).toString();
+    }
+}
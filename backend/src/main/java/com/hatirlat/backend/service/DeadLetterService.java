@@ -0,0 +1,115 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.dto.DeadLetterReplayRequest;
+import com.hatirlat.backend.dto.DeadLetterResponse;
+import com.hatirlat.backend.entity.DeadLetter;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.ValidationException;
+import com.hatirlat.backend.repository.DeadLetterRepository;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Lists the deliveries that ran out of attempts and puts them back into the outbox once the cause, such
+ * as a provider outage or a wrong credential, has been fixed.
+ */
+@Service
+public class DeadLetterService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterService.class);
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private DeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private FairShareTagger fairShareTagger;
+
+    @Autowired
+    private Clock clock;
+
+    public List<DeadLetterResponse> getDeadLetters(String channel, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), clamp(size));
+        NotificationChannel parsed = parseChannel(channel);
+        List<DeadLetter> deadLetters = parsed != null
+                ? deadLetterRepository.findByChannelOrderByIdAsc(parsed, pageRequest)
+                : deadLetterRepository.findAllByOrderByIdAsc(pageRequest);
+        return deadLetters.stream().map(this::convertToResponse).collect(Collectors.toList());
+    }
+
+    /**
+     * Moves dead letters back into the outbox as fresh deliveries with no attempts, due now. Without ids,
+     * the oldest {@code limit} dead letters are replayed, optionally only those of one channel.
+     *
+     * @return the number of deliveries enqueued again
+     */
+    @Transactional
+    public int replay(DeadLetterReplayRequest request) {
+        List<DeadLetter> deadLetters;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            deadLetters = deadLetterRepository.findAllById(request.getIds());
+        } else {
+            NotificationChannel channel = parseChannel(request.getChannel());
+            PageRequest first = PageRequest.of(0, clamp(request.getLimit() != null ? request.getLimit() : MAX_PAGE_SIZE));
+            deadLetters = channel != null
+                    ? deadLetterRepository.findByChannelOrderByIdAsc(channel, first)
+                    : deadLetterRepository.findAllByOrderByIdAsc(first);
+        }
+        if (deadLetters.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<NotificationOutbox> deliveries = deadLetters.stream()
+                .map(deadLetter -> deadLetter.toOutbox(now))
+                .collect(Collectors.toList());
+        fairShareTagger.tag(deliveries, delivery -> now, now);
+        notificationOutboxRepository.saveAll(deliveries);
+        deadLetterRepository.deleteAllInBatch(deadLetters);
+        log.info("Replayed {} dead letters", deliveries.size());
+        return deliveries.size();
+    }
+
+    private static int clamp(int size) {
+        return Math.min(MAX_PAGE_SIZE, Math.max(1, size));
+    }
+
+    private static NotificationChannel parseChannel(String channel) {
+        if (channel == null || channel.isBlank()) {
+            return null;
+        }
+        try {
+            return NotificationChannel.valueOf(channel.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("channel", "Unknown channel: " + channel);
+        }
+    }
+
+    private DeadLetterResponse convertToResponse(DeadLetter deadLetter) {
+        DeadLetterResponse response = new DeadLetterResponse();
+        response.setId(deadLetter.getId().toString());
+        response.setReminderId(deadLetter.getReminderId().toString());
+        response.setOccurrence(deadLetter.getOccurrence());
+        response.setChannel(deadLetter.getChannel().name().toLowerCase());
+        response.setRecipient(deadLetter.getRecipient());
+        response.setAttempts(deadLetter.getAttempts());
+        response.setLastError(deadLetter.getLastError());
+        response.setFailedAt(deadLetter.getFailedAt());
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which delivery keys this node is sending or has sent, so a delivery that reaches a worker
+ * again is not handed to the provider twice. That happens when its lease expired while it was still
+ * queued, or when the SENT write-back was lost after the provider had accepted it. Every attempt costs
+ * one atomic hash-map operation. In-flight keys are held for one outbox lease, so a send that never
+ * reported back frees its key. Delivered keys are kept for {@code outbox.dedupe-retention-minutes}, and
+ * expired keys are purged periodically, so the store is bounded by the delivery rate times the
+ * retention.
+ */
+@Component
+public class DeliveryDedupeStore {
+
+    public enum Acquisition {
+        ACQUIRED,
+        IN_FLIGHT,
+        DELIVERED
+    }
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private Clock clock;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Check-and-set before a provider call: takes the key unless it is already held or delivered.
+     */
+    public Acquisition acquire(UUID key) {
+        long now = clock.millis();
+        long holdUntil = now + TimeUnit.SECONDS.toMillis(outboxProperties.getLeaseSeconds());
+        Acquisition[] result = new Acquisition[1];
+        entries.compute(key, (k, existing) -> {
+            if (existing != null && existing.expiresAt > now) {
+                result[0] = existing.delivered ? Acquisition.DELIVERED : Acquisition.IN_FLIGHT;
+                return existing;
+            }
+            result[0] = Acquisition.ACQUIRED;
+            return new Entry(false, holdUntil);
+        });
+        return result[0];
+    }
+
+    public void markDelivered(UUID key) {
+        long retention = TimeUnit.MINUTES.toMillis(outboxProperties.getDedupeRetentionMinutes());
+        entries.put(key, new Entry(true, clock.millis() + retention));
+    }
+
+    /**
+     * Frees a key after a failed attempt so the retry can take it again.
+     */
+    public void release(UUID key) {
+        entries.computeIfPresent(key, (k, existing) -> existing.delivered ? existing : null);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dedupe-purge-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private static final class Entry {
+        private final boolean delivered;
+        private final long expiresAt;
+
+        private Entry(boolean delivered, long expiresAt) {
+            this.delivered = delivered;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
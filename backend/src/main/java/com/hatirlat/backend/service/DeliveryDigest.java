@@ -0,0 +1,45 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.NotificationOutbox;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * One message standing in for several outbox rows to the same recipient on the same channel. It travels
+ * through the channel pipeline like a single delivery and is never persisted; its outcome is applied to
+ * every covered row, and the rows sent in it record its {@link #getDeliveryKey() key} as their digest id.
+ */
+public class DeliveryDigest extends NotificationOutbox {
+
+    private final List<NotificationOutbox> covered;
+    private final UUID key;
+
+    DeliveryDigest(List<NotificationOutbox> covered, String subject, String body) {
+        super(covered.get(0).getReminderId(),
+                covered.stream().map(NotificationOutbox::getOccurrence).min(Comparator.naturalOrder()).orElse(null),
+                covered.get(0).getChannel(), covered.get(0).getRecipient(), subject, body, covered.get(0).getCreatedAt());
+        this.covered = List.copyOf(covered);
+        setOwnerId(covered.get(0).getOwnerId());
+        setTier(covered.get(0).getTier());
+        setAttempts(covered.stream().mapToInt(NotificationOutbox::getAttempts).min().orElse(0));
+        // The same rows always make the same digest, so a re-relayed digest is recognised as a duplicate
+        String identity = this.covered.stream()
+                .map(delivery -> delivery.getDeliveryKey().toString())
+                .sorted()
+                .collect(Collectors.joining("|", "digest|", ""));
+        this.key = UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public List<NotificationOutbox> getCovered() {
+        return covered;
+    }
+
+    @Override
+    public UUID getDeliveryKey() {
+        return key;
+    }
+}
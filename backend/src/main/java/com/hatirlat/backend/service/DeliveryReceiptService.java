@@ -0,0 +1,66 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.dto.DeliveryReceiptResponse;
+import com.hatirlat.backend.entity.DeliveryReceipt;
+import com.hatirlat.backend.exception.ValidationException;
+import com.hatirlat.backend.repository.DeliveryReceiptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Answers what was delivered for a reminder or to a recipient, newest first, from the receipts written
+ * by {@link DeliveryReceiptWriter}. Receipts reach the table within {@code receipts.flush-ms} of the send.
+ */
+@Service
+public class DeliveryReceiptService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private DeliveryReceiptRepository deliveryReceiptRepository;
+
+    @Transactional(readOnly = true)
+    public List<DeliveryReceiptResponse> getByReminder(String reminderId, int page, int size) {
+        Long id;
+        try {
+            id = Long.parseLong(reminderId);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("reminderId", "Invalid reminder id: " + reminderId);
+        }
+        return deliveryReceiptRepository.findByReminderIdOrderByDeliveredAtDescIdDesc(id, pageOf(page, size))
+                .stream().map(this::convertToResponse).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DeliveryReceiptResponse> getByRecipient(String recipient, int page, int size) {
+        if (recipient == null || recipient.isBlank()) {
+            throw new ValidationException("recipient", "Recipient is required");
+        }
+        return deliveryReceiptRepository.findByRecipientOrderByDeliveredAtDescIdDesc(recipient.trim(), pageOf(page, size))
+                .stream().map(this::convertToResponse).collect(Collectors.toList());
+    }
+
+    private static PageRequest pageOf(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.min(MAX_PAGE_SIZE, Math.max(1, size)));
+    }
+
+    private DeliveryReceiptResponse convertToResponse(DeliveryReceipt receipt) {
+        DeliveryReceiptResponse response = new DeliveryReceiptResponse();
+        response.setId(receipt.getId().toString());
+        response.setReminderId(receipt.getReminderId().toString());
+        response.setOccurrence(receipt.getOccurrence());
+        response.setChannel(receipt.getChannel().name().toLowerCase());
+        response.setRecipient(receipt.getRecipient());
+        response.setProvider(receipt.getProvider());
+        response.setMessageId(receipt.getMessageId());
+        response.setDigestId(receipt.getDigestId() != null ? receipt.getDigestId().toString() : null);
+        response.setAttempts(receipt.getAttempts());
+        response.setDeliveredAt(receipt.getDeliveredAt());
+        return response;
+    }
+}
@@ -0,0 +1,155 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.ReceiptProperties;
+import com.hatirlat.backend.entity.DeliveryReceipt;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes delivery receipts without slowing down the sends that produce them. {@link #record} only puts
+ * the receipt into a bounded ring buffer and returns; a single writer thread drains the buffer every
+ * {@code receipts.flush-ms}, or as soon as a full batch is waiting, and writes each batch with one
+ * multi-row INSERT. Receipts are a log, not the source of truth: when the buffer is full or an insert
+ * fails they are dropped and counted, and the outbox row still records that the delivery was sent.
+ */
+@Component
+public class DeliveryReceiptWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryReceiptWriter.class);
+
+    private static final String INSERT = "INSERT INTO delivery_receipts (reminder_id, occurrence, channel, recipient, "
+            + "provider, message_id, owner_id, delivery_key, digest_id, attempts, delivered_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 11;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReceiptProperties receiptProperties;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private BlockingQueue<DeliveryReceipt> buffer;
+    private ScheduledExecutorService flusher;
+    private int batchSize;
+    private String fullBatchInsert;
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(Math.max(1, receiptProperties.getBufferCapacity()));
+        batchSize = Math.max(1, receiptProperties.getBatchSize());
+        fullBatchInsert = insertOf(batchSize);
+        schedulerMetrics.registerReceiptBuffer(buffer::size);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "receipt-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMs = Math.max(1, receiptProperties.getFlushMs());
+        flusher.scheduleWithFixedDelay(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes what is still buffered before the application context closes.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Buffers a receipt for the next flush. Never blocks: a receipt that does not fit is dropped.
+     */
+    public void record(DeliveryReceipt receipt) {
+        if (!receiptProperties.isEnabled()) {
+            return;
+        }
+        if (!buffer.offer(receipt)) {
+            schedulerMetrics.recordReceiptsDropped("buffer_full", 1);
+            return;
+        }
+        if (buffer.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RuntimeException e) {
+                // Shutting down; stop() writes the rest
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes every buffered receipt, {@code receipts.batch-size} rows per statement.
+     *
+     * @return the number of receipts written
+     */
+    int flush() {
+        flushRequested.set(false);
+        int written = 0;
+        List<DeliveryReceipt> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                insert(batch);
+                written += batch.size();
+            } catch (DataAccessException e) {
+                log.warn("Dropping {} delivery receipts: {}", batch.size(), e.getMessage());
+                schedulerMetrics.recordReceiptsDropped("insert_failed", batch.size());
+            }
+            batch.clear();
+        }
+        return written;
+    }
+
+    private void insert(List<DeliveryReceipt> batch) {
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (DeliveryReceipt receipt : batch) {
+            args[i++] = receipt.getReminderId();
+            args[i++] = receipt.getOccurrence();
+            args[i++] = receipt.getChannel().name();
+            args[i++] = receipt.getRecipient();
+            args[i++] = receipt.getProvider();
+            args[i++] = receipt.getMessageId();
+            args[i++] = receipt.getOwnerId();
+            args[i++] = receipt.getDeliveryKey();
+            args[i++] = receipt.getDigestId();
+            args[i++] = receipt.getAttempts();
+            args[i++] = receipt.getDeliveredAt();
+        }
+        jdbcTemplate.update(batch.size() == batchSize ? fullBatchInsert : insertOf(batch.size()), args);
+    }
+
+    private static String insertOf(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + rows * (ROW.length() + 2)).append(INSERT);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.toString();
+    }
+}
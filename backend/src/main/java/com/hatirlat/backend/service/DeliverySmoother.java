@@ -0,0 +1,122 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Spreads the deliveries of reminders that opted into a tolerance window, so a cohort scheduled at the
+ * same round minute does not hit the outbox relay and the providers all at once. Every delivery written
+ * by this node is booked into a per-channel, per-second ledger; a tolerant delivery takes the earliest
+ * second inside its window that still has room under the quota of the channel's provider and is made
+ * available to the relay only then. The ledger keeps the runs of fully booked seconds, so finding that
+ * second is one lookup however long the window is. A delivery is never pushed past its deadline: when the whole window
+ * is booked, the overflow is dealt round-robin over the window. Each channel's ledger has its own lock,
+ * and the ledger is local to the node, so with several replicas the budget applies per replica.
+ */
+@Component
+public class DeliverySmoother {
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    private final Map<NotificationChannel, Ledger> ledgers = new EnumMap<>(NotificationChannel.class);
+
+    public DeliverySmoother() {
+        // Filled up front so lookups need no lock of their own
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            ledgers.put(channel, new Ledger());
+        }
+    }
+
+    /**
+     * Books {@code delivery} and, if it may be late until {@code deadline}, moves its {@code availableAt}
+     * to the second chosen for it. A null deadline books the delivery where it is without moving it.
+     */
+    public void schedule(NotificationOutbox delivery, LocalDateTime deadline) {
+        int budget = budgetPerSecond(delivery.getChannel());
+        LocalDateTime earliest = latest(delivery.getAvailableAt(), delivery.getOccurrence()).truncatedTo(ChronoUnit.SECONDS);
+        Ledger ledger = ledgers.get(delivery.getChannel());
+        LocalDateTime second;
+        synchronized (ledger) {
+            ledger.prune(delivery.getAvailableAt().truncatedTo(ChronoUnit.SECONDS));
+            if (deadline == null || !deadline.isAfter(earliest)) {
+                second = earliest;
+            } else {
+                second = ledger.firstFree(earliest);
+                if (second.isAfter(deadline)) {
+                    second = ledger.overflow(earliest, deadline);
+                }
+            }
+            ledger.book(second, budget);
+        }
+        if (second.isAfter(delivery.getAvailableAt())) {
+            delivery.setAvailableAt(second);
+        }
+    }
+
+    private int budgetPerSecond(NotificationChannel channel) {
+        double rate = notificationService.sendRate(channel);
+        return (int) Math.max(1, rate > 0 ? rate : outboxProperties.getSmoothingRatePerSecond());
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    /**
+     * One channel's bookings. Guarded by its own monitor.
+     */
+    private static final class Ledger {
+
+        private final NavigableMap<LocalDateTime, Integer> booked = new TreeMap<>();
+        // Maximal runs of consecutive fully booked seconds, first second to last second
+        private final NavigableMap<LocalDateTime, LocalDateTime> fullRuns = new TreeMap<>();
+        private long overflowed;
+
+        void prune(LocalDateTime now) {
+            // Seconds that have passed can no longer be booked
+            booked.headMap(now, false).clear();
+            fullRuns.headMap(now, false).values().removeIf(end -> end.isBefore(now));
+        }
+
+        LocalDateTime firstFree(LocalDateTime from) {
+            Map.Entry<LocalDateTime, LocalDateTime> run = fullRuns.floorEntry(from);
+            return run != null && !run.getValue().isBefore(from) ? run.getValue().plusSeconds(1) : from;
+        }
+
+        LocalDateTime overflow(LocalDateTime from, LocalDateTime deadline) {
+            long window = ChronoUnit.SECONDS.between(from, deadline) + 1;
+            return from.plusSeconds(overflowed++ % window);
+        }
+
+        void book(LocalDateTime second, int budget) {
+            if (booked.merge(second, 1, Integer::sum) != budget) {
+                return;
+            }
+            LocalDateTime start = second;
+            LocalDateTime end = second;
+            Map.Entry<LocalDateTime, LocalDateTime> before = fullRuns.lowerEntry(second);
+            if (before != null && before.getValue().equals(second.minusSeconds(1))) {
+                start = before.getKey();
+            }
+            LocalDateTime after = fullRuns.remove(second.plusSeconds(1));
+            if (after != null) {
+                end = after;
+            }
+            fullRuns.put(start, end);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in coalescing of bursts to one person, enabled per channel with
+ * {@code outbox.channels.<channel>.digest-window-seconds}. The writer holds every row of such a channel
+ * until the end of the window its {@code availableAt} falls in, so all rows an owner sends one recipient
+ * within the window become due together. The relay then replaces the rows of each (owner, recipient) in
+ * a claimed batch by one {@link DeliveryDigest}, which costs one provider call and one rate-limit token.
+ */
+@Component
+public class DigestCoalescer {
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    /**
+     * Moves {@code delivery} to the end of its digest window, if its channel has one.
+     */
+    public void hold(NotificationOutbox delivery) {
+        long window = outboxProperties.getChannel(delivery.getChannel()).getDigestWindowSeconds();
+        if (window <= 0 || delivery.getAvailableAt() == null) {
+            return;
+        }
+        // Windows are aligned to the epoch, so rows written by different batches or nodes share them
+        long second = delivery.getAvailableAt().toEpochSecond(ZoneOffset.UTC);
+        delivery.setAvailableAt(LocalDateTime.ofEpochSecond((second / window + 1) * window, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Replaces the rows of {@code batch} that share an owner and recipient by one digest each, keeping
+     * the batch order. Rows without a companion are returned as they are.
+     */
+    public List<NotificationOutbox> coalesce(List<NotificationOutbox> batch) {
+        Map<String, List<NotificationOutbox>> byRecipient = new LinkedHashMap<>();
+        for (NotificationOutbox delivery : batch) {
+            byRecipient.computeIfAbsent(delivery.getOwnerId() + "|" + delivery.getRecipient(), key -> new ArrayList<>())
+                    .add(delivery);
+        }
+        List<NotificationOutbox> coalesced = new ArrayList<>(byRecipient.size());
+        for (List<NotificationOutbox> rows : byRecipient.values()) {
+            coalesced.add(rows.size() == 1 ? rows.get(0) : digestOf(rows));
+        }
+        return coalesced;
+    }
+
+    private static DeliveryDigest digestOf(List<NotificationOutbox> rows) {
+        StringBuilder body = new StringBuilder();
+        for (NotificationOutbox row : rows) {
+            if (body.length() > 0) {
+                body.append('\n');
+            }
+            body.append("- ").append(row.getSubject() != null ? row.getSubject() : "");
+            if (row.getBody() != null && !row.getBody().isBlank()) {
+                body.append(": ").append(row.getBody());
+            }
+        }
+        return new DeliveryDigest(rows, rows.size() + " reminders", body.toString());
+    }
+}
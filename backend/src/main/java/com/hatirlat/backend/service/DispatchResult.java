@@ -0,0 +1,78 @@
+package com.hatirlat.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one claimed batch, collected in memory so the status transitions can be written with a
+ * few set-based statements instead of one save per reminder.
+ */
+public class DispatchResult {
+
+    private final List<Long> sentIds = new ArrayList<>();
+    private final List<Long> failedIds = new ArrayList<>();
+    private final Map<Long, LocalDateTime> rearmed = new LinkedHashMap<>();
+    private int enqueued;
+    private int statusStatements;
+
+    public void sent(Long reminderId) {
+        sentIds.add(reminderId);
+    }
+
+    public void failed(Long reminderId) {
+        failedIds.add(reminderId);
+    }
+
+    /**
+     * Records a recurring reminder that goes back to SCHEDULED for its next occurrence instead of
+     * reaching a terminal status.
+     */
+    public void rearm(Long reminderId, LocalDateTime nextFireAt) {
+        rearmed.put(reminderId, nextFireAt);
+    }
+
+    public List<Long> getSentIds() {
+        return sentIds;
+    }
+
+    public List<Long> getFailedIds() {
+        return failedIds;
+    }
+
+    public Map<Long, LocalDateTime> getRearmed() {
+        return rearmed;
+    }
+
+    /**
+     * Outbox rows written for the batch.
+     */
+    public int getEnqueued() {
+        return enqueued;
+    }
+
+    public void setEnqueued(int enqueued) {
+        this.enqueued = enqueued;
+    }
+
+    /**
+     * UPDATE statements issued to apply the batch's status transitions.
+     */
+    public int getStatusStatements() {
+        return statusStatements;
+    }
+
+    public void setStatusStatements(int statusStatements) {
+        this.statusStatements = statusStatements;
+    }
+
+    public boolean isEmpty() {
+        return sentIds.isEmpty() && failedIds.isEmpty() && rearmed.isEmpty();
+    }
+
+    public int size() {
+        return sentIds.size() + failedIds.size() + rearmed.size();
+    }
+}
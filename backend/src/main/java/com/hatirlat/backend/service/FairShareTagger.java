@@ -0,0 +1,122 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.PlanTier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stamps outbox rows with a weighted-fair tag, and the relay claims rows in ascending tag order. Each
+ * owner is a flow per channel. A row's tag is the later of now and the owner's previous tag, plus
+ * {@code outbox.fair-share-unit-ms} divided by the weight of the owner's plan. So an owner with a large
+ * backlog pushes only their own rows into the future, and a premium owner advances at a fraction of a
+ * free owner's pace. Within one owner, rows are tagged in earliest-deadline-first order.
+ *
+ * <p>Tags are anchored to wall-clock time rather than to a shared virtual clock, so they stay
+ * comparable across relay nodes and restarts. Only the per-owner tails are node-local. Inside a
+ * transaction the tails advance in a copy bound to that transaction and are published only once it
+ * commits, so rows that were rolled back do not push their owner's later rows back.
+ */
+@Component
+public class FairShareTagger {
+
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private Clock clock;
+
+    private final Map<NotificationChannel, Map<Long, Long>> lastTags = new EnumMap<>(NotificationChannel.class);
+
+    /**
+     * Tags {@code deliveries}, all written at {@code now}, visiting each owner's rows by deadline.
+     */
+    public void tag(List<NotificationOutbox> deliveries, Function<NotificationOutbox, LocalDateTime> deadlineOf,
+                    LocalDateTime now) {
+        long nowMillis = now.atZone(clock.getZone()).toInstant().toEpochMilli();
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        Map<NotificationChannel, Map<Long, Long>> pending = inTransaction ? transactionTails()
+                : new EnumMap<>(NotificationChannel.class);
+        List<NotificationOutbox> byDeadline = new ArrayList<>(deliveries);
+        byDeadline.sort(Comparator.comparing(deadlineOf).thenComparing(NotificationOutbox::getReminderId));
+        synchronized (lastTags) {
+            for (NotificationOutbox delivery : byDeadline) {
+                Map<Long, Long> tails = pending.computeIfAbsent(delivery.getChannel(), channel -> new HashMap<>());
+                Long flow = flowOf(delivery);
+                Long tail = tails.get(flow);
+                if (tail == null) {
+                    tail = lastTags.getOrDefault(delivery.getChannel(), Map.of()).getOrDefault(flow, 0L);
+                }
+                long tag = Math.max(nowMillis, tail)
+                        + Math.max(1, outboxProperties.getFairShareUnitMs() / weightOf(delivery.getTier()));
+                tails.put(flow, tag);
+                delivery.setFairTag(tag);
+            }
+        }
+        if (!inTransaction) {
+            publish(pending, nowMillis);
+        }
+    }
+
+    private Map<NotificationChannel, Map<Long, Long>> transactionTails() {
+        @SuppressWarnings("unchecked")
+        Map<NotificationChannel, Map<Long, Long>> pending =
+                (Map<NotificationChannel, Map<Long, Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<NotificationChannel, Map<Long, Long>> tails = new EnumMap<>(NotificationChannel.class);
+        TransactionSynchronizationManager.bindResource(this, tails);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(FairShareTagger.this);
+                if (status == STATUS_COMMITTED) {
+                    publish(tails, clock.millis());
+                }
+            }
+        });
+        return tails;
+    }
+
+    private void publish(Map<NotificationChannel, Map<Long, Long>> pending, long nowMillis) {
+        synchronized (lastTags) {
+            pending.forEach((channel, tails) -> {
+                Map<Long, Long> committed = lastTags.computeIfAbsent(channel, c -> new HashMap<>());
+                tails.forEach((flow, tag) -> committed.merge(flow, tag, Math::max));
+            });
+            for (Map<Long, Long> tails : lastTags.values()) {
+                if (tails.size() > PRUNE_THRESHOLD) {
+                    // A tail already in the past starts from now anyway
+                    tails.values().removeIf(tag -> tag <= nowMillis);
+                }
+            }
+        }
+    }
+
+    private int weightOf(PlanTier tier) {
+        int weight = tier == PlanTier.PREMIUM ? outboxProperties.getPremiumWeight() : outboxProperties.getFreeWeight();
+        return Math.max(1, weight);
+    }
+
+    private static Long flowOf(NotificationOutbox delivery) {
+        // Reminders without an owner are flows of their own, negated so they never collide with user ids
+        return delivery.getOwnerId() != null ? delivery.getOwnerId() : -delivery.getReminderId();
+    }
+}
@@ -0,0 +1,82 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.MemberStatus;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.MemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Expands a group reminder into one outbox row per active member's address and channel. Each channel's
+ * addresses are read in pages of {@code outbox.fan-out-page-size} with a keyset query ordered by address,
+ * and each page's rows are handed to the sink before the next page is read. Memory therefore stays
+ * bounded by the page size however large the group is, and a 10k-member group costs a few dozen queries
+ * rather than one per member. Because the scan is ordered by address, members sharing one are adjacent
+ * and each address gets a single row across the whole fan-out, as the outbox's unique delivery key
+ * requires.
+ */
+@Component
+public class GroupFanOut {
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    /**
+     * Streams the rows of {@code reminder}'s group to {@code sink}, one page at a time, each rendered from
+     * {@code message} with the name and locale of the lowest-id member at that address. Addresses in
+     * {@code excluded}, written as {@code CHANNEL:address}, are skipped so a contact who is also a member
+     * is not notified twice.
+     *
+     * @return the number of rows handed to the sink
+     */
+    public int fanOut(Reminder reminder, ReminderMessage message, Set<String> excluded, LocalDateTime now,
+                      Consumer<List<NotificationOutbox>> sink) {
+        if (reminder.getGroupId() == null || reminder.getChannels() == null || reminder.getChannels().isEmpty()) {
+            return 0;
+        }
+        int pageSize = Math.max(1, outboxProperties.getFanOutPageSize());
+        int written = 0;
+        for (NotificationChannel channel : new LinkedHashSet<>(reminder.getChannels())) {
+            String afterAddress = "";
+            List<MemberRepository.Recipient> page;
+            do {
+                page = channel == NotificationChannel.EMAIL
+                        ? memberRepository.findEmailRecipientsAfter(reminder.getGroupId(), MemberStatus.ACTIVE,
+                                afterAddress, PageRequest.of(0, pageSize))
+                        : memberRepository.findPhoneRecipientsAfter(reminder.getGroupId(), MemberStatus.ACTIVE,
+                                afterAddress, PageRequest.of(0, pageSize));
+                List<NotificationOutbox> rows = new ArrayList<>();
+                for (MemberRepository.Recipient member : page) {
+                    String address = member.getAddress();
+                    // Later members at the same address follow the first one directly
+                    if (!address.equals(afterAddress) && !address.isBlank()
+                            && !excluded.contains(channel + ":" + address)) {
+                        rows.add(new NotificationOutbox(reminder.getId(), reminder.getNextFireAt(), channel, address,
+                                message.subject(member.getLocale(), member.getName()),
+                                message.body(member.getLocale(), member.getName()), now));
+                    }
+                    afterAddress = address;
+                }
+                if (!rows.isEmpty()) {
+                    sink.accept(rows);
+                    written += rows.size();
+                }
+            } while (page.size() == pageSize);
+        }
+        return written;
+    }
+}
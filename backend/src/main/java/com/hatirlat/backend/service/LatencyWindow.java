@@ -0,0 +1,69 @@
+package com.hatirlat.backend.service;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent latencies of one provider, from which the hedging delay is taken. The last {@code capacity}
+ * samples are kept in a ring and the percentile is recomputed every {@code capacity / 8} samples, so
+ * reading it on the send path is a single volatile read. Sends are timed with the window's own time
+ * source, so tests can drive it without waiting.
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private final double quantile;
+    private final int minSamples;
+    private final int recomputeEvery;
+    private final LongSupplier nanoTime;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(int capacity, double quantile, int minSamples) {
+        this(capacity, quantile, minSamples, System::nanoTime);
+    }
+
+    LatencyWindow(int capacity, double quantile, int minSamples, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.samples = new long[Math.max(1, capacity)];
+        this.quantile = quantile;
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+        this.recomputeEvery = Math.max(1, samples.length / 8);
+    }
+
+    /**
+     * The current reading of the time source, to be passed to {@link #recordSince} once the send answers.
+     */
+    long start() {
+        return nanoTime.getAsLong();
+    }
+
+    void recordSince(long start) {
+        record(nanoTime.getAsLong() - start);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        sinceRecompute++;
+        if (count >= minSamples && (percentileNanos < 0 || sinceRecompute >= recomputeEvery)) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(quantile * count);
+            percentileNanos = sorted[Math.min(count, Math.max(1, rank)) - 1];
+            sinceRecompute = 0;
+        }
+    }
+
+    /**
+     * The nearest-rank percentile of the recent samples, or -1 while there are fewer than the minimum.
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -7,6 +7,7 @@ import com.hatirlat.backend.entity.GroupMember;
 import com.hatirlat.backend.entity.Member;
 import com.hatirlat.backend.entity.MemberRole;
 import com.hatirlat.backend.entity.MemberStatus;
+import com.hatirlat.backend.entity.MessageLocale;
 import com.hatirlat.backend.exception.ResourceNotFoundException;
 import com.hatirlat.backend.repository.GroupMemberRepository;
 import com.hatirlat.backend.repository.GroupRepository;
@@ -49,6 +50,7 @@ public class MemberService {
         member.setPhone(request.getPhone());
         member.setRole(request.getRole() != null ? MemberRole.valueOf(request.getRole().toUpperCase()) : MemberRole.MEMBER);
         member.setStatus(MemberStatus.PENDING); // New members start as pending
+        member.setLocale(request.getLocale() != null ? MessageLocale.valueOf(request.getLocale().toUpperCase()) : null);
 
         Member savedMember = memberRepository.save(member);
 
@@ -93,6 +95,7 @@ public class MemberService {
         response.setJoinedAt(member.getJoinedAt());
         response.setPhone(member.getPhone());
         response.setLastActivity(member.getLastActivity());
+        response.setLocale(member.getLocale() != null ? member.getLocale().name().toLowerCase() : null);
         return response;
     }
 }
\ No newline at end of file
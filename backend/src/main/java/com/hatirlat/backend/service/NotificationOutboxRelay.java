@@ -0,0 +1,138 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.SchedulerProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.DuplicateDeliveryException;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relays the notification outbox into the per-channel pipelines. Runs independently of the reminder
+ * scheduler: each pass first writes back the outcomes the pipelines finished since the previous pass in
+ * one batch, then leases as many pending rows per channel as that channel's queue has room for. A row
+ * is only marked SENT after its send returned, so a relay crash leads to a repeated delivery once the
+ * lease expires, never to a lost one. On channels with a digest window, rows of a batch going to the
+ * same person are sent as one {@link DeliveryDigest}.
+ */
+@Service
+public class NotificationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private ChannelPipelines channelPipelines;
+
+    @Autowired
+    private NotificationOutboxUpdater notificationOutboxUpdater;
+
+    @Autowired
+    private DigestCoalescer digestCoalescer;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private SchedulerProperties schedulerProperties;
+
+    @Autowired
+    private Clock clock;
+
+    @Scheduled(fixedDelayString = "${outbox.poll-ms:250}")
+    public void relay() {
+        flushCompleted();
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            fill(channel);
+        }
+    }
+
+    /**
+     * Writes back the outcomes finished so far.
+     *
+     * @return the number of outcomes written
+     */
+    public int flushCompleted() {
+        List<ChannelPipeline.Outcome> outcomes = channelPipelines.drainCompleted();
+        if (outcomes.isEmpty()) {
+            return 0;
+        }
+        List<NotificationOutbox> deliveries = new ArrayList<>(outcomes.size());
+        List<Throwable> failures = new ArrayList<>(outcomes.size());
+        for (ChannelPipeline.Outcome outcome : outcomes) {
+            NotificationOutbox delivery = outcome.getDelivery();
+            if (outcome.getFailure() instanceof DuplicateDeliveryException) {
+                // The worker that holds the delivery key reports this row
+                continue;
+            }
+            if (outcome.getFailure() != null) {
+                log.error("Error delivering reminder {} via {} to {}, attempt {}: {}", delivery.getReminderId(),
+                        delivery.getChannel(), delivery.getRecipient(), delivery.getAttempts() + 1,
+                        outcome.getFailure().getMessage());
+            }
+            if (delivery instanceof DeliveryDigest digest) {
+                for (NotificationOutbox row : digest.getCovered()) {
+                    if (outcome.getFailure() == null) {
+                        row.setDigestId(digest.getDeliveryKey());
+                    }
+                    deliveries.add(row);
+                    failures.add(outcome.getFailure());
+                }
+                continue;
+            }
+            deliveries.add(delivery);
+            failures.add(outcome.getFailure());
+        }
+        if (deliveries.isEmpty()) {
+            return 0;
+        }
+        notificationOutboxUpdater.apply(schedulerProperties.getNodeId(), deliveries, failures, LocalDateTime.now(clock));
+        return deliveries.size();
+    }
+
+    /**
+     * Leases pending rows of one channel, at most as many as its queue can take right now.
+     *
+     * @return the number of rows queued
+     */
+    public int fill(NotificationChannel channel) {
+        ChannelPipeline pipeline = channelPipelines.get(channel);
+        int limit = Math.min(outboxProperties.getBatchSize(), pipeline.remainingCapacity());
+        if (limit <= 0) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<NotificationOutbox> batch = notificationOutboxRepository.claimPending(
+                schedulerProperties.getNodeId(),
+                channel,
+                now,
+                now.plusSeconds(outboxProperties.getLeaseSeconds()),
+                limit
+        );
+        if (outboxProperties.getChannel(channel).getDigestWindowSeconds() > 0 && batch.size() > 1) {
+            batch = digestCoalescer.coalesce(batch);
+        }
+        int queued = 0;
+        for (NotificationOutbox delivery : batch) {
+            // Only this relay fills the queue, so the capacity checked above is still there
+            if (pipeline.offer(delivery)) {
+                queued++;
+            } else {
+                log.warn("{} queue rejected outbox row {}; it is relayed again after its lease", channel, delivery.getId());
+            }
+        }
+        return queued;
+    }
+}
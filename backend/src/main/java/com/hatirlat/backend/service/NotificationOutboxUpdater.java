@@ -0,0 +1,171 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.DeadLetter;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.repository.DeadLetterRepository;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+@Service
+public class NotificationOutboxUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxUpdater.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private DeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private Clock clock;
+
+    /**
+     * Records the outcome of a relayed batch in one transaction: delivered rows become SENT, failed rows
+     * go back to PENDING after an exponential backoff until they run out of attempts, and exhausted rows
+     * are moved to the dead-letter table, flagging their one-off reminders FAILED. Failed rows are grouped
+     * by error message and attempt, which the whole batch usually shares when a provider is down. Each
+     * group draws its own jitter, so batches failing together on several nodes do not retry in lockstep.
+     * Rows sent in a digest also record its id, with one statement per digest.
+     *
+     * @param failures one entry per row in {@code batch}, {@code null} for a successful delivery
+     * @return the number of statements issued
+     */
+    @Transactional
+    public int apply(String nodeId, List<NotificationOutbox> batch, List<Throwable> failures, LocalDateTime now) {
+        List<Long> sentIds = new ArrayList<>();
+        Map<UUID, List<Long>> digestIds = new LinkedHashMap<>();
+        Map<RetryGroup, List<Long>> retryIds = new LinkedHashMap<>();
+        Map<NotificationOutbox, String> exhausted = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            NotificationOutbox delivery = batch.get(i);
+            Throwable failure = failures.get(i);
+            if (failure == null) {
+                sentIds.add(delivery.getId());
+                if (delivery.getDigestId() != null) {
+                    digestIds.computeIfAbsent(delivery.getDigestId(), key -> new ArrayList<>()).add(delivery.getId());
+                }
+            } else if (delivery.getAttempts() + 1 < outboxProperties.getMaxAttempts()) {
+                retryIds.computeIfAbsent(new RetryGroup(errorOf(failure), delivery.getAttempts()), key -> new ArrayList<>())
+                        .add(delivery.getId());
+            } else {
+                exhausted.put(delivery, errorOf(failure));
+            }
+        }
+
+        int statements = 0;
+        // Before markSent, which releases the lease the digest update checks
+        for (Map.Entry<UUID, List<Long>> entry : digestIds.entrySet()) {
+            int recorded = notificationOutboxRepository.recordDigest(entry.getValue(), entry.getKey(), nodeId);
+            if (recorded < entry.getValue().size()) {
+                log.warn("Digest {} recorded on {} of {} rows; the others were reclaimed by another node",
+                        entry.getKey(), recorded, entry.getValue().size());
+            }
+            statements++;
+        }
+        if (!sentIds.isEmpty()) {
+            notificationOutboxRepository.markSent(sentIds, now, nodeId);
+            statements++;
+        }
+        for (Map.Entry<RetryGroup, List<Long>> entry : retryIds.entrySet()) {
+            LocalDateTime retryAt = now.plus(backoff(entry.getKey().attempts));
+            // Tagged as if written when it becomes due, so a retry never jumps ahead of fresh deliveries
+            long fairTag = retryAt.atZone(clock.getZone()).toInstant().toEpochMilli();
+            notificationOutboxRepository.scheduleRetry(entry.getValue(), retryAt, fairTag, entry.getKey().error, nodeId);
+            statements++;
+        }
+        if (!exhausted.isEmpty()) {
+            statements += deadLetter(nodeId, exhausted, now);
+        }
+        return statements;
+    }
+
+    /**
+     * Delay before the next attempt of a row that has failed {@code attempts + 1} times: the base delay
+     * doubled per earlier failure up to the maximum, then jittered between half and all of it.
+     */
+    private Duration backoff(int attempts) {
+        long base = Math.max(1, outboxProperties.getRetryDelaySeconds()) * 1000L;
+        long max = Math.max(base, outboxProperties.getRetryMaxDelaySeconds() * 1000L);
+        long delay = attempts >= 30 ? max : Math.min(max, base << attempts);
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private int deadLetter(String nodeId, Map<NotificationOutbox, String> exhausted, LocalDateTime now) {
+        List<Long> ids = exhausted.keySet().stream().map(NotificationOutbox::getId).collect(Collectors.toList());
+        // Rows whose lease was taken over are being retried by another node and stay where they are
+        Set<Long> held = new HashSet<>(notificationOutboxRepository.findIdsClaimedBy(ids, nodeId));
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        Set<Long> failedReminderIds = new LinkedHashSet<>();
+        exhausted.forEach((delivery, error) -> {
+            if (held.contains(delivery.getId())) {
+                deadLetters.add(new DeadLetter(delivery, error, now));
+                failedReminderIds.add(delivery.getReminderId());
+            }
+        });
+        if (deadLetters.isEmpty()) {
+            return 1;
+        }
+        deadLetterRepository.saveAll(deadLetters);
+        notificationOutboxRepository.deleteClaimed(held, nodeId);
+        reminderRepository.markDeliveryFailed(failedReminderIds);
+        log.warn("Moved {} deliveries to the dead-letter table after {} attempts", deadLetters.size(),
+                outboxProperties.getMaxAttempts());
+        // The lease check, the batched dead-letter inserts, the delete and the reminder update
+        return 4;
+    }
+
+    private static String errorOf(Throwable failure) {
+        String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static final class RetryGroup {
+        private final String error;
+        private final int attempts;
+
+        private RetryGroup(String error, int attempts) {
+            this.error = error;
+            this.attempts = attempts;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RetryGroup group && group.attempts == attempts && group.error.equals(error);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(error, attempts);
+        }
+    }
+}
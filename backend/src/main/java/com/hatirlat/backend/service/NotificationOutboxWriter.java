@@ -0,0 +1,202 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.Contact;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.PlanTier;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.ContactRepository;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import com.hatirlat.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class NotificationOutboxWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxWriter.class);
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private GroupFanOut groupFanOut;
+
+    @Autowired
+    private DigestCoalescer digestCoalescer;
+
+    @Autowired
+    private TemplateEngine templateEngine;
+
+    @Autowired
+    private RecurrenceEngine recurrenceEngine;
+
+    @Autowired
+    private ReminderStatusUpdater reminderStatusUpdater;
+
+    @Autowired
+    private DeliverySmoother deliverySmoother;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FairShareTagger fairShareTagger;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Claims a batch of due reminders and, in the same transaction, writes one outbox row per
+     * (occurrence, channel, recipient) and moves every claimed reminder on: one-off reminders to SENT,
+     * recurring ones to their next occurrence. Either all of it commits or the reminders stay due, so a
+     * crash can neither lose an occurrence nor enqueue it twice. Reminders using one of the
+     * {@code saturatedChannels} are not claimed. Deliveries of reminders with a tolerance window are
+     * spread over it by the {@link DeliverySmoother}, after the on-time ones have been booked. Every row
+     * carries its owner's plan tier and a {@link FairShareTagger} tag that decides its relay order. Group
+     * reminders reach the group's active members through {@link GroupFanOut}, whose pages are written as
+     * they are read instead of being collected with the rest of the batch. Rows of channels with a digest
+     * window are held until the window ends, see {@link DigestCoalescer}. Subjects and bodies are rendered
+     * per recipient from templates the {@link TemplateEngine} compiles once per reminder.
+     */
+    @Transactional
+    public DispatchResult claimAndEnqueue(String nodeId, LocalDateTime now, LocalDateTime leaseUntil, int limit,
+                                          Set<NotificationChannel> saturatedChannels) {
+        DispatchResult result = new DispatchResult();
+        List<Reminder> claimed = reminderRepository.claimDue(nodeId, now, leaseUntil, limit, saturatedChannels);
+        if (claimed.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, LocalDateTime> nextOccurrences = recurrenceEngine.nextOccurrences(claimed, now);
+        Map<Long, Contact> contacts = loadContacts(claimed);
+        Set<Long> premiumOwners = loadPremiumOwners(claimed);
+
+        List<NotificationOutbox> deliveries = new ArrayList<>();
+        Map<NotificationOutbox, LocalDateTime> deadlines = new LinkedHashMap<>();
+        int fannedOut = 0;
+        for (Reminder reminder : claimed) {
+            Contact contact = reminder.getContactId() != null ? contacts.get(reminder.getContactId()) : null;
+            // A contact who is also a group member must not get the same occurrence twice on one channel
+            Set<String> seen = new HashSet<>();
+            int before = deliveries.size();
+            PlanTier tier = reminder.getOwnerId() != null && premiumOwners.contains(reminder.getOwnerId())
+                    ? PlanTier.PREMIUM : PlanTier.FREE;
+            ReminderMessage message = templateEngine.prepare(reminder);
+            Integer tolerance = reminder.getToleranceMinutes();
+            LocalDateTime deadline = tolerance != null && tolerance > 0 && reminder.getNextFireAt() != null
+                    ? reminder.getNextFireAt().plusMinutes(tolerance) : null;
+            if (contact != null && reminder.getChannels() != null) {
+                // Contacts have no locale of their own and get the default one
+                String subject = message.subject(null, contact.getName());
+                String body = message.body(null, contact.getName());
+                for (NotificationChannel channel : reminder.getChannels()) {
+                    String address = channel == NotificationChannel.EMAIL ? contact.getEmail() : contact.getPhone();
+                    if (address != null && !address.isBlank() && seen.add(channel + ":" + address)) {
+                        NotificationOutbox delivery = new NotificationOutbox(reminder.getId(), reminder.getNextFireAt(),
+                                channel, address, subject, body, now);
+                        delivery.setOwnerId(reminder.getOwnerId());
+                        delivery.setTier(tier);
+                        deliveries.add(delivery);
+                    }
+                }
+            }
+            int members = groupFanOut.fanOut(reminder, message, seen, now, page -> writeGroupPage(page, reminder, tier, deadline, now));
+            fannedOut += members;
+            if (deliveries.size() == before && members == 0) {
+                log.warn("Reminder {} has no deliverable recipient for its channels", reminder.getId());
+            }
+            if (deadline != null) {
+                deliveries.subList(before, deliveries.size()).forEach(delivery -> deadlines.put(delivery, deadline));
+            }
+
+            LocalDateTime next = nextOccurrences.get(reminder.getId());
+            if (next != null) {
+                result.rearm(reminder.getId(), next);
+            } else {
+                result.sent(reminder.getId());
+            }
+        }
+
+        spread(deliveries, deadlines);
+        fairShareTagger.tag(deliveries, delivery -> deadlines.getOrDefault(delivery, delivery.getOccurrence()), now);
+        notificationOutboxRepository.saveAll(deliveries);
+        result.setEnqueued(deliveries.size() + fannedOut);
+        result.setStatusStatements(reminderStatusUpdater.apply(nodeId, result));
+        return result;
+    }
+
+    private void spread(List<NotificationOutbox> deliveries, Map<NotificationOutbox, LocalDateTime> deadlines) {
+        // On-time deliveries go first so tolerant ones are placed around the load they create
+        for (NotificationOutbox delivery : deliveries) {
+            if (!deadlines.containsKey(delivery)) {
+                deliverySmoother.schedule(delivery, null);
+            }
+        }
+        deadlines.forEach(deliverySmoother::schedule);
+        deliveries.forEach(digestCoalescer::hold);
+    }
+
+    private Map<Long, Contact> loadContacts(List<Reminder> reminders) {
+        Set<Long> contactIds = reminders.stream()
+                .map(Reminder::getContactId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (contactIds.isEmpty()) {
+            return Map.of();
+        }
+        return contactRepository.findAllById(contactIds).stream()
+                .collect(Collectors.toMap(Contact::getId, contact -> contact));
+    }
+
+    private Set<Long> loadPremiumOwners(List<Reminder> reminders) {
+        Set<Long> ownerIds = reminders.stream()
+                .map(Reminder::getOwnerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ownerIds.isEmpty()) {
+            return Set.of();
+        }
+        return userRepository.findPremiumIds(ownerIds);
+    }
+
+    /**
+     * Writes one page of a group's rows straight away, smoothing and tagging it on its own, then detaches
+     * it so a large group never piles up in the persistence context.
+     */
+    private void writeGroupPage(List<NotificationOutbox> page, Reminder reminder, PlanTier tier, LocalDateTime deadline,
+                                LocalDateTime now) {
+        for (NotificationOutbox delivery : page) {
+            delivery.setOwnerId(reminder.getOwnerId());
+            delivery.setTier(tier);
+            deliverySmoother.schedule(delivery, deadline);
+            digestCoalescer.hold(delivery);
+        }
+        fairShareTagger.tag(page, delivery -> deadline != null ? deadline : delivery.getOccurrence(), now);
+        notificationOutboxRepository.saveAll(page);
+        entityManager.flush();
+        page.forEach(entityManager::detach);
+    }
+}
@@ -1,69 +1,489 @@
 package com.hatirlat.backend.service;
 
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.ProviderProperties;
 import com.hatirlat.backend.entity.NotificationChannel;
-import com.hatirlat.backend.entity.Reminder;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.ProviderThrottledException;
+import com.hatirlat.backend.provider.ChannelProvider;
+import com.hatirlat.backend.provider.DeliveryResult;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Routes each outbox row to the {@link ChannelProvider} of its channel. Every provider gets its own
+ * resilience4j bulkhead, circuit breaker and time limiter, all named after the provider, and its own timer
+ * thread for time limits and parked sends. A failing SMS gateway therefore only opens its own circuit, a
+ * provider that never answers is failed after the time limit instead of holding a pipeline slot, and a
+ * slow one can tie up at most its bulkhead's calls. Nothing one provider does delays another's sends.
+ * A channel may list failover providers, tried in order when a send fails; once every provider has failed
+ * it, the row goes back to the outbox and is retried with backoff. Latency-critical channels can also
+ * hedge: a send still unanswered after the first provider's recent p95 is raced on the next provider.
+ *
+ * <p>Providers with a quota in {@code provider.rate-limits} get a {@link TokenBucket} refilled at
+ * {@code provider.target-utilization} of the quota, and one more per sender identity when the quota is
+ * also per sender. A send over the limit is parked on a timer until its token is due rather than failed,
+ * so the provider sees a steady rate just under its quota instead of bursts answered with 429s. Parking is
+ * bounded by half the outbox lease; a send whose token is due later fails over or goes back to the outbox.
+ * Tokens of sends that never reach the provider, because they were rejected or cancelled, are refunded.
+ */
 @Service
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+    private static final int LATENCY_SAMPLES = 512;
+    private static final int LATENCY_MIN_SAMPLES = 20;
+
+    @Autowired
+    private List<ChannelProvider> providers;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private ProviderProperties providerProperties;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
+    private final Map<NotificationChannel, List<GuardedProvider>> byChannel = new EnumMap<>(NotificationChannel.class);
+
+    // Time source and timer threads of the send path; tests swap them to drive parking and hedging by hand
+    private LongSupplier nanoTime = System::nanoTime;
+    private Function<String, ScheduledExecutorService> timerFactory = NotificationService::timerThread;
 
     /**
-     * This is a dummy method to simulate sending notifications.
-     * In a real implementation, this would integrate with email/SMS/WhatsApp services.
+     * Replaces the time source and the providers' timers. Only takes effect for providers set up by a
+     * later {@link #start}.
      */
-    @CircuitBreaker(name = "default", fallbackMethod = "sendNotificationFallback")
-    @Retry(name = "default")
-    public void sendNotification(Reminder reminder) {
-        log.info("Sending notification for reminder: {}", reminder.getTitle());
-
-        // Simulate sending notifications via different channels
-        if (reminder.getChannels() != null) {
-            for (NotificationChannel channel : reminder.getChannels()) {
-                switch (channel) {
-                    case EMAIL:
-                        sendEmailNotification(reminder);
-                        break;
-                    case SMS:
-                        sendSmsNotification(reminder);
-                        break;
-                    case WHATSAPP:
-                        sendWhatsAppNotification(reminder);
-                        break;
-                    default:
-                        break;
-                }
+    void useTimers(LongSupplier nanoTime, Function<String, ScheduledExecutorService> timerFactory) {
+        this.nanoTime = nanoTime;
+        this.timerFactory = timerFactory;
+    }
+
+    @PostConstruct
+    void start() {
+        Map<String, GuardedProvider> guarded = new HashMap<>();
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            List<ChannelProvider> chain = select(channel);
+            if (chain.isEmpty()) {
+                log.warn("No provider for {}; its deliveries will fail", channel);
+                continue;
             }
+            log.info("{} notifications are sent by {}", channel,
+                    chain.stream().map(ChannelProvider::getName).collect(Collectors.joining(", then ")));
+            byChannel.put(channel, chain.stream()
+                    .map(provider -> guarded.computeIfAbsent(provider.getName(), name -> new GuardedProvider(provider,
+                            bulkheadRegistry.bulkhead(name),
+                            circuitBreakerRegistry.circuitBreaker(name),
+                            timeLimiterRegistry.timeLimiter(name),
+                            timerFactory.apply(name),
+                            nanoTime,
+                            providerProperties.getRateLimits().get(name),
+                            providerProperties.getTargetUtilization())))
+                    .collect(Collectors.toList()));
         }
+    }
+
+    @PreDestroy
+    void stop() {
+        byChannel.values().forEach(chain -> chain.forEach(guarded -> guarded.timers.shutdownNow()));
+    }
+
+    /**
+     * Starts sending one outbox row without blocking. The send may first be parked until the provider's
+     * rate limit allows it; the time limit only starts once it is handed to the provider. When the
+     * provider rejects the message, does not answer within its time limit, has its circuit open or its
+     * bulkhead full, the send fails over to the channel's next provider. The future fails once every
+     * provider has failed it.
+     *
+     * <p>With {@code outbox.channels.<channel>.hedge}, a send the first provider has not answered within
+     * its recent p95 latency is also started on the next provider. The first answer wins and the other
+     * send is cancelled; a provider that has not taken the message yet, such as the SMTP provider while
+     * it is still queued, then drops it.
+     */
+    public CompletableFuture<DeliveryResult> deliver(NotificationOutbox delivery) {
+        List<GuardedProvider> chain = byChannel.get(delivery.getChannel());
+        if (chain == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("No provider configured for " + delivery.getChannel()));
+        }
+        OutboxProperties.Channel settings = outboxProperties.getChannel(delivery.getChannel());
+        if (settings.isHedge() && chain.size() > 1) {
+            return new HedgedSend(delivery, chain, TimeUnit.MILLISECONDS.toNanos(settings.getHedgeDelayMs())).start();
+        }
+        return new Send(delivery, chain).start();
+    }
+
+    /**
+     * Sends per second the channel's first provider is held to, or 0 when it has no quota.
+     */
+    public double sendRate(NotificationChannel channel) {
+        List<GuardedProvider> chain = byChannel.get(channel);
+        return chain != null ? chain.get(0).rate : 0;
+    }
 
-        log.info("Notification sent for reminder: {}", reminder.getTitle());
+    /**
+     * The longest a send may be parked: half the outbox lease, so that a parked send is sent or failed well
+     * before its row could be claimed again and while its dedupe key is still held.
+     */
+    private long maxParkNanos() {
+        return TimeUnit.SECONDS.toNanos(Math.max(1, outboxProperties.getLeaseSeconds())) / 2;
+    }
+
+    /**
+     * The provider named in {@code outbox.channels.<channel>.provider}, or the only one for the channel,
+     * followed by the channel's failover providers in order.
+     */
+    private List<ChannelProvider> select(NotificationChannel channel) {
+        OutboxProperties.Channel settings = outboxProperties.getChannel(channel);
+        List<ChannelProvider> candidates = new ArrayList<>();
+        for (ChannelProvider provider : providers) {
+            if (provider.getChannel() == channel) {
+                candidates.add(provider);
+            }
+        }
+        List<ChannelProvider> chain = new ArrayList<>();
+        if (settings.getProvider() != null) {
+            chain.add(named(candidates, channel, settings.getProvider()));
+        } else if (!candidates.isEmpty()) {
+            if (candidates.size() > 1) {
+                log.warn("{} has several providers, using {}; set outbox.channels.{}.provider to choose", channel,
+                        candidates.get(0).getName(), channel.name().toLowerCase());
+            }
+            chain.add(candidates.get(0));
+        }
+        for (String name : settings.getFailoverProviders()) {
+            ChannelProvider provider = named(candidates, channel, name);
+            if (!chain.contains(provider)) {
+                chain.add(provider);
+            }
+        }
+        return chain;
     }
 
-    // Fallback signature must match the original method with an extra Throwable at the end
-    private void sendNotificationFallback(Reminder reminder, Throwable throwable) {
-        log.warn("Fallback invoked for sendNotification. title={}, reason={}",
-                reminder != null ? reminder.getTitle() : "<null>",
-                throwable != null ? throwable.getMessage() : "<unknown>");
-        // Optionally enqueue for later retry or persist a failure record
+    private static ScheduledExecutorService timerThread(String provider) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provider-" + provider);
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    private void sendEmailNotification(Reminder reminder) {
-        log.debug("Sending EMAIL notification: {}", reminder.getMessage());
-        // In a real implementation, you would use JavaMailSender or similar
+    private static ChannelProvider named(List<ChannelProvider> candidates, NotificationChannel channel, String name) {
+        return candidates.stream()
+                .filter(provider -> provider.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown " + channel + " provider: " + name));
     }
 
-    private void sendSmsNotification(Reminder reminder) {
-        log.debug("Sending SMS notification: {}", reminder.getMessage());
-        // In a real implementation, you would integrate with an SMS service like Twilio
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
     }
 
-    private void sendWhatsAppNotification(Reminder reminder) {
-        log.debug("Sending WHATSAPP notification: {}", reminder.getMessage());
-        // In a real implementation, you would use WhatsApp Business API
+    /**
+     * One delivery moving down a chain of providers until one of them accepts it.
+     */
+    private final class Send {
+        private final NotificationOutbox delivery;
+        private final List<GuardedProvider> chain;
+        private final CompletableFuture<DeliveryResult> result = new CompletableFuture<>();
+        private volatile CompletableFuture<DeliveryResult> handedOver; // The current provider's own future
+        private volatile CompletableFuture<Void> parked; // Completes when the current token is due
+        private volatile boolean cancelled;
+
+        private Send(NotificationOutbox delivery, List<GuardedProvider> chain) {
+            this.delivery = delivery;
+            this.chain = chain;
+        }
+
+        private CompletableFuture<DeliveryResult> start() {
+            attempt(0);
+            return result;
+        }
+
+        /**
+         * Stops the send: the provider's future is cancelled and no further provider is tried.
+         */
+        private void cancel() {
+            cancelled = true;
+            CompletableFuture<Void> waiting = parked;
+            if (waiting != null) {
+                waiting.completeExceptionally(new CancellationException("Send was cancelled while parked"));
+            }
+            CompletableFuture<DeliveryResult> sent = handedOver;
+            if (sent != null) {
+                sent.cancel(false);
+            }
+        }
+
+        private void attempt(int index) {
+            GuardedProvider guarded = chain.get(index);
+            send(guarded).whenComplete((sent, failure) -> {
+                if (failure == null) {
+                    result.complete(sent);
+                } else if (!cancelled && index + 1 < chain.size()) {
+                    GuardedProvider next = chain.get(index + 1);
+                    log.warn("{} failed {} notification for reminder {}, failing over to {}: {}",
+                            guarded.provider.getName(), delivery.getChannel(), delivery.getReminderId(),
+                            next.provider.getName(), unwrap(failure).toString());
+                    schedulerMetrics.recordFailover(delivery.getChannel(), guarded.provider.getName(),
+                            next.provider.getName());
+                    attempt(index + 1);
+                } else {
+                    result.completeExceptionally(unwrap(failure));
+                }
+            });
+        }
+
+        private CompletableFuture<DeliveryResult> send(GuardedProvider guarded) {
+            long parkedAt = nanoTime.getAsLong();
+            // Tokens this attempt holds; handing the send over uses them, any other ending gives them back
+            List<TokenBucket> reserved = new ArrayList<>(2);
+            // The provider's token is only taken once the sender's is due, so waiting on a busy sender never
+            // wastes a provider slot that another sender could have used
+            TokenBucket senderBucket = guarded.senderBucket(guarded.provider.senderOf(delivery));
+            CompletableFuture<DeliveryResult> sent = park(guarded, senderBucket, reserved)
+                    .thenCompose(ignored -> park(guarded, guarded.bucket, reserved))
+                    .thenCompose(ignored -> {
+                        if (cancelled) {
+                            return CompletableFuture.<DeliveryResult>failedFuture(
+                                    new CancellationException("Send was cancelled while parked"));
+                        }
+                        schedulerMetrics.recordThrottle(guarded.provider.getName(),
+                                Duration.ofNanos(nanoTime.getAsLong() - parkedAt));
+                        log.info("Sending {} notification for reminder {} to {} via {}", delivery.getChannel(),
+                                delivery.getReminderId(), delivery.getRecipient(), guarded.provider.getName());
+                        // The bulkhead is outermost so that rejecting a send never counts against the circuit
+                        return Bulkhead.decorateCompletionStage(guarded.bulkhead,
+                                        CircuitBreaker.decorateCompletionStage(guarded.circuitBreaker,
+                                                () -> guarded.timeLimiter.executeCompletionStage(guarded.timers,
+                                                        () -> handOver(guarded, reserved))))
+                                .get();
+                    })
+                    .toCompletableFuture();
+            return sent.whenComplete((accepted, failure) -> {
+                if (failure != null) {
+                    synchronized (reserved) {
+                        reserved.forEach(TokenBucket::refund);
+                        reserved.clear();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Completes once a token of {@code bucket} is available, right away when there is no bucket. Fails
+         * without taking a token when it would only be due after {@link #maxParkNanos}, and as soon as
+         * the send is cancelled.
+         */
+        private CompletableFuture<Void> park(GuardedProvider guarded, TokenBucket bucket, List<TokenBucket> reserved) {
+            if (bucket == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            long waitNanos = bucket.reserve(maxParkNanos());
+            if (waitNanos < 0) {
+                return CompletableFuture.failedFuture(new ProviderThrottledException(
+                        guarded.provider.getName() + " has no token free within the longest park"));
+            }
+            synchronized (reserved) {
+                reserved.add(bucket);
+            }
+            if (waitNanos == 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> due = new CompletableFuture<>();
+            parked = due;
+            guarded.timers.schedule(() -> due.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+            if (cancelled) {
+                due.completeExceptionally(new CancellationException("Send was cancelled while parked"));
+            }
+            return due;
+        }
+
+        private CompletableFuture<DeliveryResult> handOver(GuardedProvider guarded, List<TokenBucket> reserved) {
+            synchronized (reserved) {
+                reserved.clear();
+            }
+            long sentAt = guarded.latency.start();
+            CompletableFuture<DeliveryResult> sent = guarded.provider.send(delivery);
+            handedOver = sent;
+            if (cancelled) {
+                sent.cancel(false);
+            }
+            return sent.whenComplete((accepted, failure) -> {
+                if (failure == null) {
+                    guarded.latency.recordSince(sentAt);
+                }
+            });
+        }
+    }
+
+    /**
+     * A delivery sent to the first provider and, once that provider is slower than its recent p95 or has
+     * failed, to the rest of the chain as well. Whichever answers first wins and the other is cancelled.
+     */
+    private final class HedgedSend {
+        private final NotificationOutbox delivery;
+        private final List<GuardedProvider> chain;
+        private final long defaultDelayNanos;
+        private final CompletableFuture<DeliveryResult> result = new CompletableFuture<>();
+        private Send primary;
+        private Send hedge;
+        private ScheduledFuture<?> timer;
+        private Throwable primaryFailure;
+        private Throwable hedgeFailure;
+
+        private HedgedSend(NotificationOutbox delivery, List<GuardedProvider> chain, long defaultDelayNanos) {
+            this.delivery = delivery;
+            this.chain = chain;
+            this.defaultDelayNanos = defaultDelayNanos;
+        }
+
+        private CompletableFuture<DeliveryResult> start() {
+            GuardedProvider first = chain.get(0);
+            long p95 = first.latency.percentileNanos();
+            synchronized (this) {
+                primary = new Send(delivery, chain.subList(0, 1));
+                timer = first.timers.schedule(() -> startHedge(false), p95 >= 0 ? p95 : defaultDelayNanos,
+                        TimeUnit.NANOSECONDS);
+            }
+            primary.start().whenComplete(this::onPrimary);
+            return result;
+        }
+
+        private synchronized void startHedge(boolean primaryFailed) {
+            if (hedge != null || result.isDone()) {
+                return;
+            }
+            timer.cancel(false);
+            GuardedProvider from = chain.get(0);
+            if (primaryFailed) {
+                schedulerMetrics.recordFailover(delivery.getChannel(), from.provider.getName(),
+                        chain.get(1).provider.getName());
+            } else {
+                schedulerMetrics.recordHedge(delivery.getChannel(), "fired");
+            }
+            hedge = new Send(delivery, chain.subList(1, chain.size()));
+            hedge.start().whenComplete(this::onHedge);
+        }
+
+        private void onPrimary(DeliveryResult sent, Throwable failure) {
+            if (failure == null) {
+                if (result.complete(sent)) {
+                    synchronized (this) {
+                        timer.cancel(false);
+                        if (hedge != null) {
+                            hedge.cancel();
+                        }
+                    }
+                }
+                return;
+            }
+            synchronized (this) {
+                primaryFailure = failure;
+                if (hedge == null) {
+                    startHedge(true);
+                } else if (hedgeFailure != null) {
+                    result.completeExceptionally(hedgeFailure);
+                }
+            }
+        }
+
+        private void onHedge(DeliveryResult sent, Throwable failure) {
+            if (failure == null) {
+                if (result.complete(sent)) {
+                    schedulerMetrics.recordHedge(delivery.getChannel(), "won");
+                    primary.cancel();
+                }
+                return;
+            }
+            synchronized (this) {
+                hedgeFailure = failure;
+                if (primaryFailure != null) {
+                    result.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private static final class GuardedProvider {
+        private final ChannelProvider provider;
+        private final Bulkhead bulkhead;
+        private final CircuitBreaker circuitBreaker;
+        private final TimeLimiter timeLimiter;
+        private final ScheduledExecutorService timers;
+        private final LatencyWindow latency;
+        private final LongSupplier nanoTime;
+        private final TokenBucket bucket;
+        private final double rate;
+        private final double senderRate;
+        private final int burst;
+        // Senders are the few identities registered with the provider, so their buckets are never evicted
+        private final Map<String, TokenBucket> senderBuckets = new ConcurrentHashMap<>();
+
+        private GuardedProvider(ChannelProvider provider, Bulkhead bulkhead, CircuitBreaker circuitBreaker,
+                                TimeLimiter timeLimiter, ScheduledExecutorService timers, LongSupplier nanoTime,
+                                ProviderProperties.RateLimit limit, double utilization) {
+            this.provider = provider;
+            this.bulkhead = bulkhead;
+            this.circuitBreaker = circuitBreaker;
+            this.timeLimiter = timeLimiter;
+            this.timers = timers;
+            this.nanoTime = nanoTime;
+            this.latency = new LatencyWindow(LATENCY_SAMPLES, 0.95, LATENCY_MIN_SAMPLES, nanoTime);
+            double share = utilization > 0 && utilization <= 1 ? utilization : 1;
+            this.rate = limit != null ? Math.max(0, limit.getQuotaPerSecond() * share) : 0;
+            this.bucket = rate > 0 ? new TokenBucket(rate, limit.getBurst(), nanoTime) : null;
+            this.senderRate = limit != null ? limit.getPerSenderQuotaPerSecond() * share : 0;
+            this.burst = limit != null ? limit.getBurst() : 1;
+            if (bucket != null) {
+                log.info("{} is limited to {} sends per second", provider.getName(), rate);
+            }
+        }
+
+        private TokenBucket senderBucket(String sender) {
+            if (sender == null || senderRate <= 0) {
+                return null;
+            }
+            return senderBuckets.computeIfAbsent(sender, key -> new TokenBucket(senderRate, burst, nanoTime));
+        }
     }
-}
\ No newline at end of file
+}
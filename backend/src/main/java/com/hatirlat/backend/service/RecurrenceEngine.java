@@ -0,0 +1,164 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.CustomRepeatConfig;
+import com.hatirlat.backend.entity.DayOfWeek;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.entity.RepeatFrequency;
+import com.hatirlat.backend.entity.RepeatType;
+import com.hatirlat.backend.repository.CustomRepeatConfigRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the next occurrence of recurring reminders. Occurrences are counted from the reminder's
+ * original {@code dateTime} rather than from the previous firing, so month lengths and late sends never
+ * make the schedule drift, and occurrences missed while the scheduler was down are skipped instead of
+ * being sent in a burst. Each computation is constant time regardless of how many periods were missed.
+ */
+@Component
+public class RecurrenceEngine {
+
+    @Autowired
+    private CustomRepeatConfigRepository customRepeatConfigRepository;
+
+    /**
+     * Next occurrence for every recurring reminder in a claimed batch, keyed by reminder id. One-off
+     * reminders, and recurring ones whose custom configuration is missing, are absent from the map.
+     * CUSTOM configurations for the whole batch are loaded with a single query.
+     */
+    public Map<Long, LocalDateTime> nextOccurrences(List<Reminder> reminders, LocalDateTime now) {
+        Set<Long> customIds = reminders.stream()
+                .filter(reminder -> reminder.getRepeat() == RepeatType.CUSTOM && reminder.getCustomRepeatId() != null)
+                .map(Reminder::getCustomRepeatId)
+                .collect(Collectors.toSet());
+        Map<Long, CustomRepeatConfig> configs = customIds.isEmpty()
+                ? Map.of()
+                : customRepeatConfigRepository.findAllWithDaysByIdIn(customIds).stream()
+                        .collect(Collectors.toMap(CustomRepeatConfig::getId, config -> config));
+
+        Map<Long, LocalDateTime> next = new HashMap<>();
+        for (Reminder reminder : reminders) {
+            CustomRepeatConfig config = reminder.getCustomRepeatId() != null
+                    ? configs.get(reminder.getCustomRepeatId())
+                    : null;
+            LocalDateTime occurrence = nextOccurrence(reminder.getRepeat(), config, reminder.getDateTime(),
+                    reminder.getNextFireAt(), now);
+            if (occurrence != null) {
+                next.put(reminder.getId(), occurrence);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * First occurrence of the series anchored at {@code anchor} that lies after both the occurrence that
+     * just fired and {@code now}.
+     *
+     * @return null if the reminder does not repeat
+     */
+    public LocalDateTime nextOccurrence(RepeatType repeat, CustomRepeatConfig config, LocalDateTime anchor,
+                                        LocalDateTime fired, LocalDateTime now) {
+        if (repeat == null || repeat == RepeatType.NONE || anchor == null) {
+            return null;
+        }
+        LocalDateTime after = fired != null && fired.isAfter(now) ? fired : now;
+        switch (repeat) {
+            case HOURLY:
+                return stepPast(anchor, after, ChronoUnit.HOURS, 1);
+            case DAILY:
+                return stepPast(anchor, after, ChronoUnit.DAYS, 1);
+            case WEEKLY:
+                return stepPast(anchor, after, ChronoUnit.WEEKS, 1);
+            case CUSTOM:
+                return config != null ? nextCustom(config, anchor, after) : null;
+            default:
+                return null;
+        }
+    }
+
+    private LocalDateTime nextCustom(CustomRepeatConfig config, LocalDateTime anchor, LocalDateTime after) {
+        int interval = config.getInterval() != null && config.getInterval() > 0 ? config.getInterval() : 1;
+        RepeatFrequency frequency = config.getFrequency() != null ? config.getFrequency() : RepeatFrequency.DAY;
+        switch (frequency) {
+            case WEEK:
+                if (config.getDaysOfWeek() == null || config.getDaysOfWeek().isEmpty()) {
+                    return stepPast(anchor, after, ChronoUnit.WEEKS, interval);
+                }
+                return nextWeekday(anchor, after, interval, config.getDaysOfWeek());
+            case MONTH:
+                return stepPast(anchor, after, ChronoUnit.MONTHS, interval);
+            case DAY:
+            default:
+                return stepPast(anchor, after, ChronoUnit.DAYS, interval);
+        }
+    }
+
+    /**
+     * Smallest {@code anchor + k * amount units} (k >= 1) strictly after {@code after}.
+     */
+    private static LocalDateTime stepPast(LocalDateTime anchor, LocalDateTime after, ChronoUnit unit, int amount) {
+        long elapsed = unit.between(anchor, after);
+        long steps = elapsed < 0 ? 1 : elapsed / amount + 1;
+        LocalDateTime next = anchor.plus(steps * amount, unit);
+        if (!next.isAfter(after)) {
+            // Month arithmetic clamps the day of month, so the estimate can land one period short
+            next = anchor.plus((steps + 1) * amount, unit);
+        }
+        return next;
+    }
+
+    /**
+     * Next selected weekday in every {@code interval}-th week counted from the anchor's week, at the
+     * anchor's time of day. Looks at most at the rest of the current active week and the first day of
+     * the following one.
+     */
+    private static LocalDateTime nextWeekday(LocalDateTime anchor, LocalDateTime after, int interval,
+                                             List<DayOfWeek> days) {
+        Set<java.time.DayOfWeek> selected = EnumSet.noneOf(java.time.DayOfWeek.class);
+        for (DayOfWeek day : days) {
+            selected.add(java.time.DayOfWeek.of(day.ordinal() + 1));
+        }
+        LocalTime time = anchor.toLocalTime();
+        LocalDate anchorWeek = anchor.toLocalDate().with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+        LocalDate afterWeek = after.toLocalDate().with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+
+        long weeks = Math.max(0, ChronoUnit.WEEKS.between(anchorWeek, afterWeek));
+        LocalDate cycleWeek = anchorWeek.plusWeeks(weeks - weeks % interval);
+        if (weeks % interval == 0) {
+            // The week containing 'after' (or the anchor's week, if that is later) is active
+            LocalDateTime candidate = firstSelectedAfter(cycleWeek, time, selected, after, anchor);
+            if (candidate != null) {
+                return candidate;
+            }
+        }
+        return firstSelectedAfter(cycleWeek.plusWeeks(interval), time, selected, after, anchor);
+    }
+
+    private static LocalDateTime firstSelectedAfter(LocalDate weekStart, LocalTime time,
+                                                    Set<java.time.DayOfWeek> selected,
+                                                    LocalDateTime after, LocalDateTime anchor) {
+        for (int i = 0; i < 7; i++) {
+            LocalDate date = weekStart.plusDays(i);
+            if (!selected.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime candidate = date.atTime(time);
+            if (candidate.isAfter(after) && !candidate.isBefore(anchor)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.MessageLocale;
+
+import java.util.Map;
+
+/**
+ * The compiled subject and body of one reminder occurrence, with the occurrence's values already
+ * formatted for every locale. Built once per occurrence by {@link TemplateEngine#prepare}; rendering it for
+ * a recipient only fills in their name.
+ */
+public final class ReminderMessage {
+
+    private final CompiledTemplate subject;
+    private final Map<MessageLocale, CompiledTemplate> bodies;
+    private final Map<MessageLocale, String[]> values;
+    private final MessageLocale defaultLocale;
+
+    ReminderMessage(CompiledTemplate subject, Map<MessageLocale, CompiledTemplate> bodies,
+                    Map<MessageLocale, String[]> values, MessageLocale defaultLocale) {
+        this.subject = subject;
+        this.bodies = bodies;
+        this.values = values;
+        this.defaultLocale = defaultLocale;
+    }
+
+    /**
+     * @param locale the recipient's locale, or null for the default one
+     */
+    public String subject(MessageLocale locale, String name) {
+        return subject.render(name, values.get(locale != null ? locale : defaultLocale));
+    }
+
+    /**
+     * @param locale the recipient's locale, or null for the default one
+     */
+    public String body(MessageLocale locale, String name) {
+        MessageLocale resolved = locale != null ? locale : defaultLocale;
+        return bodies.get(resolved).render(name, values.get(resolved));
+    }
+}
@@ -0,0 +1,153 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.dto.ContactRequest;
+import com.hatirlat.backend.dto.CustomRepeatRequest;
+import com.hatirlat.backend.dto.GroupResponse;
+import com.hatirlat.backend.dto.ReminderResponse;
+import com.hatirlat.backend.entity.Contact;
+import com.hatirlat.backend.entity.CustomRepeatConfig;
+import com.hatirlat.backend.entity.Group;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.ContactRepository;
+import com.hatirlat.backend.repository.CustomRepeatConfigRepository;
+import com.hatirlat.backend.repository.GroupMemberRepository;
+import com.hatirlat.backend.repository.GroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link ReminderResponse}s for a list of reminders with a fixed number of queries. The contact,
+ * group and custom repeat ids of the whole list are collected first, each kind is loaded with one
+ * {@code IN} query, member counts come from one grouped query, and the responses are then filled from
+ * those maps. Listing reminders therefore costs the same four queries whether it returns one reminder or
+ * a thousand, instead of four per reminder.
+ */
+@Component
+public class ReminderResponseAssembler {
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private CustomRepeatConfigRepository customRepeatConfigRepository;
+
+    public ReminderResponse toResponse(Reminder reminder) {
+        return toResponses(List.of(reminder)).get(0);
+    }
+
+    /**
+     * The responses of {@code reminders}, in the same order. References to rows that no longer exist are
+     * left out of the response, as before.
+     */
+    public List<ReminderResponse> toResponses(List<Reminder> reminders) {
+        Set<Long> contactIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        Set<Long> customRepeatIds = new HashSet<>();
+        for (Reminder reminder : reminders) {
+            if (reminder.getContactId() != null) {
+                contactIds.add(reminder.getContactId());
+            }
+            if (reminder.getGroupId() != null) {
+                groupIds.add(reminder.getGroupId());
+            }
+            if (reminder.getCustomRepeatId() != null) {
+                customRepeatIds.add(reminder.getCustomRepeatId());
+            }
+        }
+
+        Map<Long, Contact> contacts = contactIds.isEmpty() ? Map.of()
+                : contactRepository.findAllById(contactIds).stream()
+                        .collect(Collectors.toMap(Contact::getId, Function.identity()));
+        Map<Long, Group> groups = groupIds.isEmpty() ? Map.of()
+                : groupRepository.findAllById(groupIds).stream()
+                        .collect(Collectors.toMap(Group::getId, Function.identity()));
+        Map<Long, Long> memberCounts = new HashMap<>();
+        if (!groups.isEmpty()) {
+            for (GroupMemberRepository.GroupSize size : groupMemberRepository.countMembersByGroupIdIn(groups.keySet())) {
+                memberCounts.put(size.getGroupId(), size.getMembers());
+            }
+        }
+        Map<Long, CustomRepeatConfig> customRepeats = customRepeatIds.isEmpty() ? Map.of()
+                : customRepeatConfigRepository.findAllWithDaysByIdIn(customRepeatIds).stream()
+                        .collect(Collectors.toMap(CustomRepeatConfig::getId, Function.identity()));
+
+        return reminders.stream()
+                .map(reminder -> toResponse(reminder, contacts, groups, memberCounts, customRepeats))
+                .collect(Collectors.toList());
+    }
+
+    private ReminderResponse toResponse(Reminder reminder, Map<Long, Contact> contacts, Map<Long, Group> groups,
+                                        Map<Long, Long> memberCounts, Map<Long, CustomRepeatConfig> customRepeats) {
+        ReminderResponse response = new ReminderResponse();
+        response.setId(String.valueOf(reminder.getId()));
+        response.setTitle(reminder.getTitle());
+        response.setType(reminder.getType() != null ? reminder.getType().name().toLowerCase() : null);
+        response.setMessage(reminder.getMessage());
+        response.setDateTime(reminder.getDateTime());
+        response.setStatus(reminder.getStatus() != null ? reminder.getStatus().name().toLowerCase() : null);
+        if (reminder.getChannels() != null) {
+            response.setChannels(
+                reminder.getChannels().stream()
+                    .map(Enum::name)
+                    .map(String::toLowerCase)
+                    .collect(Collectors.toList())
+            );
+        }
+        response.setRepeat(reminder.getRepeat() != null ? reminder.getRepeat().name().toLowerCase() : null);
+        response.setToleranceMinutes(reminder.getToleranceMinutes());
+
+        Contact contact = reminder.getContactId() != null ? contacts.get(reminder.getContactId()) : null;
+        if (contact != null) {
+            ContactRequest contactRequest = new ContactRequest();
+            contactRequest.setName(contact.getName());
+            contactRequest.setPhone(contact.getPhone());
+            contactRequest.setEmail(contact.getEmail());
+            response.setContact(contactRequest);
+        }
+
+        Group group = reminder.getGroupId() != null ? groups.get(reminder.getGroupId()) : null;
+        if (group != null) {
+            GroupResponse groupResponse = new GroupResponse();
+            groupResponse.setId(String.valueOf(group.getId()));
+            groupResponse.setName(group.getName());
+            groupResponse.setDescription(group.getDescription());
+            groupResponse.setMemberCount(memberCounts.getOrDefault(group.getId(), 0L).intValue());
+            groupResponse.setCreatedAt(group.getCreatedAt());
+            response.setGroup(groupResponse);
+        }
+
+        CustomRepeatConfig customRepeat = reminder.getCustomRepeatId() != null
+                ? customRepeats.get(reminder.getCustomRepeatId()) : null;
+        if (customRepeat != null) {
+            CustomRepeatRequest customRepeatRequest = new CustomRepeatRequest();
+            customRepeatRequest.setInterval(customRepeat.getInterval());
+            customRepeatRequest.setFrequency(customRepeat.getFrequency() != null ?
+                customRepeat.getFrequency().name().toLowerCase() : null);
+            if (customRepeat.getDaysOfWeek() != null) {
+                customRepeatRequest.setDaysOfWeek(
+                    customRepeat.getDaysOfWeek().stream()
+                        .map(Enum::name)
+                        .map(String::toLowerCase)
+                        .collect(Collectors.toList())
+                );
+            }
+            response.setCustomRepeat(customRepeatRequest);
+        }
+
+        return response;
+    }
+}
@@ -1,59 +1,349 @@
 package com.hatirlat.backend.service;
 
+import com.hatirlat.backend.config.SchedulerProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
 import com.hatirlat.backend.entity.Reminder;
 import com.hatirlat.backend.entity.ReminderStatus;
 import com.hatirlat.backend.repository.ReminderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ReminderScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
 
+    private static final String MODE_WHEEL = "wheel";
+    private static final String MODE_POLL = "poll";
+    private static final String MODE_ADAPTIVE = "adaptive";
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Autowired
     private ReminderRepository reminderRepository;
-    
+
+    @Autowired
+    private SchedulerProperties schedulerProperties;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
     @Autowired
-    private NotificationService notificationService;
+    private NotificationOutboxWriter notificationOutboxWriter;
+
+    @Autowired
+    private ChannelPipelines channelPipelines;
+
+    @Autowired
+    private Clock clock;
+
+    // Guards the wheel's loaded window so a refill and a concurrent save cannot both skip a reminder
+    private final Object windowLock = new Object();
+    private ReminderTimingWheel wheel;
+    private LocalDateTime loadedUntil;
+    private long loadedAfterId; // Keyset position within loadedUntil; below Long.MAX_VALUE while the wheel was full
+    private LocalDateTime lastSweep;
+    private volatile boolean heldBack;
+
+    // Adaptive mode sleeps on wakeLock until the next due time or an earlier save signals it
+    private final Object wakeLock = new Object();
+    private LocalDateTime signalledWakeAt;
+    private volatile boolean running;
+    private Thread wakeThread;
+
+    @PostConstruct
+    void start() {
+        schedulerMetrics.registerWheelSize(() -> wheel != null ? wheel.size() : 0);
+        if (schedulerProperties.getMode() == SchedulerProperties.Mode.ADAPTIVE && schedulerProperties.isBackgroundEnabled()) {
+            running = true;
+            wakeThread = new Thread(this::runAdaptive, "reminder-wakeup");
+            wakeThread.setDaemon(true);
+            wakeThread.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (wakeThread != null) {
+            wakeThread.interrupt();
+        }
+    }
 
     /**
-     * Scheduled job that runs every minute to check for scheduled reminders
-     * that need to be sent.
+     * One pass of the adaptive scheduler: looks up the earliest SCHEDULED occurrence (a MIN over the
+     * (status, next_fire_at) index), claims everything due if it has passed, and returns when to look
+     * again. That is exactly the next occurrence, but never later than
+     * {@code scheduler.idle-recheck-seconds}, so reminders saved on other nodes are still picked up.
+     * When nothing could be claimed (a channel is saturated or another node holds the lease), it backs
+     * off for one tick instead of spinning.
+     */
+    public LocalDateTime wakeUp() {
+        synchronized (wakeLock) {
+            // Saves committed from here on are either seen by the query below or signal again
+            signalledWakeAt = null;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        schedulerMetrics.recordQuery(MODE_ADAPTIVE, "next-due");
+        LocalDateTime nextDue = reminderRepository.findEarliestFireAtAfter(ReminderStatus.SCHEDULED, KEYSET_START);
+        if (nextDue != null && !nextDue.isAfter(now)) {
+            int claimed = drainDue(MODE_ADAPTIVE);
+            return claimed > 0 && !heldBack ? now : now.plus(Duration.ofMillis(schedulerProperties.getTickMs()));
+        }
+        LocalDateTime latest = now.plusSeconds(schedulerProperties.getIdleRecheckSeconds());
+        return nextDue == null || nextDue.isAfter(latest) ? latest : nextDue;
+    }
+
+    /**
+     * Advances the timing wheel once per tick and claims the reminders that fell due. The database is
+     * only queried when the loaded window needs to be extended, when something fired, while reminders are
+     * held back by a saturated channel, or once per lease period to pick up reminders whose lease expired
+     * on a crashed node.
+     */
+    @Scheduled(fixedRateString = "${scheduler.tick-ms:1000}")
+    public void tick() {
+        if (schedulerProperties.getMode() != SchedulerProperties.Mode.WHEEL) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        refillIfNeeded(now);
+
+        List<Long> dueIds = wheel.advance(toEpochMillis(now));
+        // The first tick claims the overdue backlog straight from the database instead of loading it into the wheel
+        boolean sweepDue = lastSweep == null
+                || !now.isBefore(lastSweep.plusSeconds(schedulerProperties.getLeaseSeconds()));
+        if (dueIds.isEmpty() && !sweepDue && !heldBack) {
+            return;
+        }
+        lastSweep = now;
+        drainDue(MODE_WHEEL);
+    }
+
+    @Scheduled(fixedRateString = "${scheduler.poll-rate-ms:60000}")
+    public void poll() {
+        if (schedulerProperties.getMode() == SchedulerProperties.Mode.POLL) {
+            processScheduledReminders();
+        }
+    }
+
+    /**
+     * Legacy polling pass that checks for scheduled reminders that need to be sent.
+     * Kept as {@code scheduler.mode=POLL} so its lag and query load can be compared with the wheel.
      */
-    @Scheduled(fixedRate = 60000) // Run every minute (60,000 milliseconds)
     public void processScheduledReminders() {
-        log.info("Checking for scheduled reminders at: {}", LocalDateTime.now());
-        
-        // Find all scheduled reminders that should be sent now or before
-        List<Reminder> scheduledReminders = reminderRepository.findByStatusAndDateTimeBefore(
-            ReminderStatus.SCHEDULED, 
-            LocalDateTime.now()
-        );
-        
-        for (Reminder reminder : scheduledReminders) {
+        log.info("Checking for scheduled reminders at: {}", LocalDateTime.now(clock));
+        drainDue(MODE_POLL);
+    }
+
+    /**
+     * Keeps the wheel in step with a reminder that was created or changed. Runs after commit when
+     * called inside a transaction, so the wheel never fires a row other sessions cannot see yet.
+     */
+    public void onReminderSaved(Reminder reminder) {
+        if (reminder == null || reminder.getId() == null) {
+            return;
+        }
+        Long id = reminder.getId();
+        ReminderStatus status = reminder.getStatus();
+        LocalDateTime fireAt = reminder.getNextFireAt() != null ? reminder.getNextFireAt() : reminder.getDateTime();
+        afterCommit(() -> {
+            rearm(id, status, fireAt);
+            if (status == ReminderStatus.SCHEDULED && fireAt != null) {
+                signalWakeUp(fireAt);
+            }
+        });
+    }
+
+    public void onReminderDeleted(Long id) {
+        afterCommit(() -> {
+            synchronized (windowLock) {
+                if (wheel != null) {
+                    wheel.cancel(id);
+                }
+            }
+        });
+    }
+
+    private void rearm(Long id, ReminderStatus status, LocalDateTime fireAt) {
+        synchronized (windowLock) {
+            if (wheel == null) {
+                // Not loaded yet; the initial refill will pick the reminder up
+                return;
+            }
+            if (status == ReminderStatus.SCHEDULED && fireAt != null && !fireAt.isAfter(loadedUntil)) {
+                wheel.schedule(id, toEpochMillis(fireAt));
+            } else {
+                wheel.cancel(id);
+            }
+        }
+    }
+
+    private void signalWakeUp(LocalDateTime fireAt) {
+        synchronized (wakeLock) {
+            if (signalledWakeAt == null || fireAt.isBefore(signalledWakeAt)) {
+                signalledWakeAt = fireAt;
+                wakeLock.notifyAll();
+            }
+        }
+    }
+
+    private void runAdaptive() {
+        while (running) {
             try {
-                // Send the notification
-                notificationService.sendNotification(reminder);
-                
-                // Update the status to SENT
-                reminder.setStatus(ReminderStatus.SENT);
-                reminderRepository.save(reminder);
-                
-                log.info("Reminder processed and status updated: {}", reminder.getTitle());
-            } catch (Exception e) {
-                log.error("Error processing reminder: {}, Error: {}", reminder.getTitle(), e.getMessage());
-                
-                // Update the status to FAILED
-                reminder.setStatus(ReminderStatus.FAILED);
-                reminderRepository.save(reminder);
-            }
-        }
-    }
-}
\ No newline at end of file
+                sleepUntil(wakeUp());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Adaptive scheduler pass failed, retrying after one tick", e);
+                try {
+                    Thread.sleep(schedulerProperties.getTickMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sleepUntil(LocalDateTime target) throws InterruptedException {
+        synchronized (wakeLock) {
+            while (running) {
+                LocalDateTime until = signalledWakeAt != null && signalledWakeAt.isBefore(target) ? signalledWakeAt : target;
+                long nanos = Duration.between(LocalDateTime.now(clock), until).toNanos();
+                if (nanos <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(wakeLock, nanos);
+            }
+        }
+    }
+
+    /**
+     * Loads the reminders of the coming window into the wheel, but never past the wheel's horizon or beyond
+     * {@code scheduler.wheel-capacity} entries. A window cut short by the capacity resumes from its last key
+     * once enough of the wheel has fired. Overdue reminders are left to {@link #drainDue}, which claims them
+     * from the database batch by batch.
+     */
+    private void refillIfNeeded(LocalDateTime now) {
+        int windowSeconds = schedulerProperties.getWindowSeconds();
+        synchronized (windowLock) {
+            if (loadedUntil != null && now.isBefore(loadedUntil.minusSeconds(windowSeconds / 2))) {
+                return;
+            }
+            if (wheel == null) {
+                wheel = new ReminderTimingWheel(schedulerProperties.getTickMs(), toEpochMillis(now));
+                loadedUntil = now;
+                loadedAfterId = Long.MAX_VALUE;
+            }
+
+            LocalDateTime horizon = LocalDateTime.ofInstant(Instant.ofEpochMilli(wheel.getHorizonMs()), clock.getZone());
+            LocalDateTime window = now.plusSeconds(windowSeconds);
+            LocalDateTime to = window.isAfter(horizon) ? horizon : window;
+            LocalDateTime afterFireAt = loadedUntil;
+            long afterId = loadedAfterId;
+            int pageSize = schedulerProperties.getPageSize();
+            int room = schedulerProperties.getWheelCapacity() - wheel.size();
+            int loaded = 0;
+            boolean more = true;
+            while (more && loaded < room) {
+                int limit = Math.min(pageSize, room - loaded);
+                schedulerMetrics.recordQuery(MODE_WHEEL, "refill");
+                List<ReminderRepository.ScheduleEntry> page = reminderRepository.findScheduleEntriesPage(
+                        ReminderStatus.SCHEDULED, afterFireAt, afterId, to, PageRequest.of(0, limit));
+                for (ReminderRepository.ScheduleEntry entry : page) {
+                    if (!wheel.schedule(entry.getId(), toEpochMillis(entry.getFireAt()))) {
+                        log.warn("Reminder {} lies beyond the timing wheel horizon", entry.getId());
+                    }
+                }
+                if (!page.isEmpty()) {
+                    ReminderRepository.ScheduleEntry last = page.get(page.size() - 1);
+                    afterFireAt = last.getFireAt();
+                    afterId = last.getId();
+                }
+                loaded += page.size();
+                more = page.size() >= limit;
+            }
+            if (more) {
+                log.warn("Timing wheel is full at {} reminders, loaded up to {} of the window", wheel.size(), afterFireAt);
+                loadedUntil = afterFireAt;
+                loadedAfterId = afterId;
+            } else {
+                loadedUntil = to;
+                loadedAfterId = Long.MAX_VALUE;
+            }
+            log.debug("Timing wheel refilled with {} reminders up to {}", loaded, loadedUntil);
+        }
+    }
+
+    /**
+     * Claims due reminders batch by batch and hands each batch to the notification outbox, until a
+     * claim comes back short. Other nodes draining at the same time receive disjoint batches. Delivery
+     * happens later in {@link NotificationOutboxRelay}. While a channel's pipeline queue is full,
+     * reminders using that channel stay due and are retried on every tick until the queue drains.
+     */
+    private int drainDue(String mode) {
+        int batchSize = schedulerProperties.getClaimBatchSize();
+        int claimed = 0;
+        DispatchResult result;
+        do {
+            Set<NotificationChannel> saturated = channelPipelines.saturatedChannels();
+            heldBack = !saturated.isEmpty();
+            if (saturated.size() == NotificationChannel.values().length) {
+                log.debug("Every channel is saturated, not claiming");
+                return claimed;
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            schedulerMetrics.recordQuery(mode, "claim");
+            Instant start = clock.instant();
+            result = notificationOutboxWriter.claimAndEnqueue(
+                    schedulerProperties.getNodeId(),
+                    now,
+                    now.plusSeconds(schedulerProperties.getLeaseSeconds()),
+                    batchSize,
+                    saturated
+            );
+            claimed += result.size();
+            if (!result.isEmpty()) {
+                schedulerMetrics.recordBatch(mode, Duration.between(start, clock.instant()));
+                schedulerMetrics.recordQueries(mode, "status", result.getStatusStatements());
+                log.info("Enqueued {} deliveries for {} reminders", result.getEnqueued(), result.size());
+                // Recurring reminders whose next occurrence is already inside the loaded window go straight back on the wheel
+                result.getRearmed().forEach((id, next) -> rearm(id, ReminderStatus.SCHEDULED, next));
+            }
+        } while (result.size() >= batchSize);
+        return claimed;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -6,11 +6,12 @@ import com.hatirlat.backend.exception.ResourceNotFoundException;
 import com.hatirlat.backend.repository.ContactRepository;
 import com.hatirlat.backend.repository.CustomRepeatConfigRepository;
 import com.hatirlat.backend.repository.GroupRepository;
-import com.hatirlat.backend.repository.MemberRepository;
 import com.hatirlat.backend.repository.ReminderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,27 +29,30 @@ public class ReminderService {
     @Autowired
     private GroupRepository groupRepository;
     
-    @Autowired
-    private MemberRepository memberRepository;
-    
     @Autowired
     private ContactRepository contactRepository;
     
     @Autowired
     private CustomRepeatConfigRepository customRepeatConfigRepository;
 
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private ReminderResponseAssembler reminderResponseAssembler;
+
     @Transactional(readOnly = true)
     public List<ReminderResponse> getAllReminders() {
         // In a real implementation, you'd filter by the authenticated user
-        List<Reminder> reminders = reminderRepository.findAll();
-        return reminders.stream().map(this::convertToResponse).collect(Collectors.toList());
+        List<Reminder> reminders = reminderRepository.findAllWithChannels();
+        return reminderResponseAssembler.toResponses(reminders);
     }
 
     @Transactional(readOnly = true)
     public ReminderResponse getReminderById(String id) {
         // Find by ID and convert to response
         return reminderRepository.findById(Long.parseLong(id))
-                .map(this::convertToResponse)
+                .map(reminderResponseAssembler::toResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("Reminder", id));
     }
 
@@ -64,6 +68,8 @@ public class ReminderService {
         reminder.setStatus(parseEnumSafely(request.getStatus(), ReminderStatus.class, ReminderStatus.SCHEDULED));
         reminder.setChannels(convertChannelStringsToEnums(request.getChannels()));
         reminder.setRepeat(parseEnumSafely(request.getRepeat(), RepeatType.class, RepeatType.NONE));
+        reminder.setToleranceMinutes(request.getToleranceMinutes());
+        reminder.setOwnerId(currentUserId());
 
         // Set contact ID if provided
         if (request.getContact() != null) {
@@ -110,7 +116,8 @@ public class ReminderService {
         }
 
         Reminder savedReminder = reminderRepository.save(reminder);
-        return convertToResponse(savedReminder);
+        reminderScheduler.onReminderSaved(savedReminder);
+        return reminderResponseAssembler.toResponse(savedReminder);
     }
 
     @Transactional
@@ -122,9 +129,11 @@ public class ReminderService {
         existingReminder.setType(parseEnumSafely(request.getType(), ReminderType.class, existingReminder.getType()));
         existingReminder.setMessage(request.getMessage());
         existingReminder.setDateTime(request.getDateTime());
+        existingReminder.setNextFireAt(request.getDateTime()); // An edited start time restarts the recurrence
         existingReminder.setStatus(parseEnumSafely(request.getStatus(), ReminderStatus.class, existingReminder.getStatus()));
         existingReminder.setChannels(convertChannelStringsToEnums(request.getChannels()));
         existingReminder.setRepeat(parseEnumSafely(request.getRepeat(), RepeatType.class, existingReminder.getRepeat()));
+        existingReminder.setToleranceMinutes(request.getToleranceMinutes());
 
         // Update contact if provided
         if (request.getContact() != null) {
@@ -172,7 +181,8 @@ public class ReminderService {
         }
 
         Reminder updatedReminder = reminderRepository.save(existingReminder);
-        return convertToResponse(updatedReminder);
+        reminderScheduler.onReminderSaved(updatedReminder);
+        return reminderResponseAssembler.toResponse(updatedReminder);
     }
 
     @Transactional
@@ -183,7 +193,8 @@ public class ReminderService {
         ReminderStatus newStatus = parseEnumSafely(status, ReminderStatus.class, ReminderStatus.SCHEDULED);
         reminder.setStatus(newStatus);
         Reminder updatedReminder = reminderRepository.save(reminder);
-        return convertToResponse(updatedReminder);
+        reminderScheduler.onReminderSaved(updatedReminder);
+        return reminderResponseAssembler.toResponse(updatedReminder);
     }
 
     @Transactional
@@ -192,9 +203,18 @@ public class ReminderService {
             throw new ResourceNotFoundException("Reminder", id);
         }
         reminderRepository.deleteById(Long.parseLong(id));
+        reminderScheduler.onReminderDeleted(Long.parseLong(id));
         return true;
     }
 
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            return null;
+        }
+        return ((User) authentication.getPrincipal()).getId();
+    }
+
     private <T extends Enum<T>> T parseEnumSafely(String value, Class<T> enumClass, T defaultValue) {
         if (value == null || value.trim().isEmpty()) {
             return defaultValue;
@@ -214,73 +234,4 @@ public class ReminderService {
                 .filter(java.util.Objects::nonNull) // Filter out any invalid enum values
                 .collect(Collectors.toList());
     }
-
-    private ReminderResponse convertToResponse(Reminder reminder) {
-        ReminderResponse response = new ReminderResponse();
-        response.setId(String.valueOf(reminder.getId()));
-        response.setTitle(reminder.getTitle());
-        response.setType(reminder.getType() != null ? reminder.getType().name().toLowerCase() : null);
-        response.setMessage(reminder.getMessage());
-        response.setDateTime(reminder.getDateTime());
-        response.setStatus(reminder.getStatus() != null ? reminder.getStatus().name().toLowerCase() : null);
-        if (reminder.getChannels() != null) {
-            response.setChannels(
-                reminder.getChannels().stream()
-                    .map(Enum::name)
-                    .map(String::toLowerCase)
-                    .collect(Collectors.toList())
-            );
-        }
-        response.setRepeat(reminder.getRepeat() != null ? reminder.getRepeat().name().toLowerCase() : null);
-
-        // Convert contact using contact ID
-        if (reminder.getContactId() != null) {
-            Contact contact = contactRepository.findById(reminder.getContactId()).orElse(null);
-            if (contact != null) {
-                ContactRequest contactRequest = new ContactRequest();
-                contactRequest.setName(contact.getName());
-                contactRequest.setPhone(contact.getPhone());
-                contactRequest.setEmail(contact.getEmail());
-                response.setContact(contactRequest);
-            }
-        }
-
-        // Convert group using group ID
-        if (reminder.getGroupId() != null) {
-            Group group = groupRepository.findById(reminder.getGroupId()).orElse(null);
-            if (group != null) {
-                GroupResponse groupResponse = new GroupResponse();
-                groupResponse.setId(String.valueOf(group.getId()));
-                groupResponse.setName(group.getName());
-                groupResponse.setDescription(group.getDescription());
-                // Count members by querying the GroupMember repository
-                List<Member> members = memberRepository.findMembersByGroupId(group.getId());
-                groupResponse.setMemberCount(members != null ? members.size() : 0);
-                groupResponse.setCreatedAt(group.getCreatedAt());
-                response.setGroup(groupResponse);
-            }
-        }
-
-        // Convert custom repeat using custom repeat ID
-        if (reminder.getCustomRepeatId() != null) {
-            CustomRepeatConfig customRepeat = customRepeatConfigRepository.findById(reminder.getCustomRepeatId()).orElse(null);
-            if (customRepeat != null) {
-                CustomRepeatRequest customRepeatRequest = new CustomRepeatRequest();
-                customRepeatRequest.setInterval(customRepeat.getInterval());
-                customRepeatRequest.setFrequency(customRepeat.getFrequency() != null ? 
-                    customRepeat.getFrequency().name().toLowerCase() : null);
-                if (customRepeat.getDaysOfWeek() != null) {
-                    customRepeatRequest.setDaysOfWeek(
-                        customRepeat.getDaysOfWeek().stream()
-                            .map(Enum::name)
-                            .map(String::toLowerCase)
-                            .collect(Collectors.toList())
-                    );
-                }
-                response.setCustomRepeat(customRepeatRequest);
-            }
-        }
-
-        return response;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.ReminderStatus;
+import com.hatirlat.backend.repository.ReminderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReminderStatusUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderStatusUpdater.class);
+
+    static final int REARM_CHUNK_SIZE = 500;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    /**
+     * Applies a batch's status transitions in one transaction with at most one UPDATE per target
+     * status, releasing the leases held by {@code nodeId} at the same time. Recurring reminders are
+     * re-armed in the same transaction with one UPDATE per {@value #REARM_CHUNK_SIZE} rows, whatever
+     * their next occurrences. Rows whose lease was taken over by another node are left alone.
+     *
+     * @return the number of UPDATE statements issued
+     */
+    @Transactional
+    public int apply(String nodeId, DispatchResult result) {
+        int statements = 0;
+        statements += complete(nodeId, result.getSentIds(), ReminderStatus.SENT);
+        statements += complete(nodeId, result.getFailedIds(), ReminderStatus.FAILED);
+        statements += rearm(nodeId, result.getRearmed());
+        return statements;
+    }
+
+    private int complete(String nodeId, List<Long> ids, ReminderStatus status) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = reminderRepository.completeClaims(ids, status, nodeId);
+        if (updated < ids.size()) {
+            log.warn("{} of {} reminders were no longer leased to {} when marking them {}",
+                    ids.size() - updated, ids.size(), nodeId, status);
+        }
+        return 1;
+    }
+
+    private int rearm(String nodeId, Map<Long, LocalDateTime> rearmed) {
+        if (rearmed.isEmpty()) {
+            return 0;
+        }
+        // Recurring reminders rarely share their next occurrence, so every row carries its own in one CASE
+        // UPDATE; chunking only keeps each statement's parameter count within what drivers accept
+        int statements = 0;
+        int updated = 0;
+        Map<Long, LocalDateTime> chunk = new LinkedHashMap<>();
+        for (Map.Entry<Long, LocalDateTime> entry : rearmed.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == REARM_CHUNK_SIZE) {
+                updated += reminderRepository.rearmClaims(chunk, nodeId);
+                statements++;
+                chunk = new LinkedHashMap<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            updated += reminderRepository.rearmClaims(chunk, nodeId);
+            statements++;
+        }
+        if (updated < rearmed.size()) {
+            log.warn("{} of {} recurring reminders were no longer leased to {} when re-arming them",
+                    rearmed.size() - updated, rearmed.size(), nodeId);
+        }
+        return statements;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.hatirlat.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel holding the reminders that fall due within the scheduler's loading window.
+ * Level 0 buckets are one tick wide; every higher level spans a full revolution of the level below it,
+ * so entries cascade down as their bucket comes up and fire on the first tick at or after their deadline.
+ * Cancellation is lazy: a stale entry stays in its bucket and is dropped when that bucket is reached.
+ */
+public class ReminderTimingWheel {
+
+    private static final int[] LEVEL_SIZES = {60, 60, 24};
+
+    private final long tickMs;
+    private final List<Level> levels = new ArrayList<>();
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private final List<Entry> expired = new ArrayList<>();
+    private long currentTimeMs;
+
+    public ReminderTimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.currentTimeMs = startMs - (startMs % tickMs);
+        long levelTickMs = tickMs;
+        for (int size : LEVEL_SIZES) {
+            levels.add(new Level(levelTickMs, size));
+            levelTickMs *= size;
+        }
+    }
+
+    /**
+     * Arms the reminder to fire at the given deadline, replacing any earlier deadline for the same id.
+     * Deadlines that have already passed fire on the next {@link #advance(long)}.
+     *
+     * @return false if the deadline lies beyond the wheel's horizon and was not armed
+     */
+    public synchronized boolean schedule(long id, long deadlineMs) {
+        long rounded = roundUp(deadlineMs);
+        Entry entry = new Entry(id, rounded);
+        if (!place(entry)) {
+            deadlines.remove(id);
+            return false;
+        }
+        deadlines.put(id, rounded);
+        return true;
+    }
+
+    public synchronized void cancel(long id) {
+        deadlines.remove(id);
+    }
+
+    /**
+     * Moves the wheel forward tick by tick up to the given time and returns the ids that fell due.
+     */
+    public synchronized List<Long> advance(long nowMs) {
+        while (currentTimeMs + tickMs <= nowMs) {
+            currentTimeMs += tickMs;
+            // Cascade from the coarsest level first so entries landing on this tick fire in the same step
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                Level level = levels.get(i);
+                if (currentTimeMs % level.tickMs != 0) {
+                    continue;
+                }
+                List<Entry> bucket = level.bucketFor(currentTimeMs);
+                if (bucket.isEmpty()) {
+                    continue;
+                }
+                List<Entry> cascading = new ArrayList<>(bucket);
+                bucket.clear();
+                for (Entry entry : cascading) {
+                    if (isLive(entry)) {
+                        place(entry);
+                    }
+                }
+            }
+        }
+
+        List<Long> due = new ArrayList<>();
+        for (Entry entry : expired) {
+            if (isLive(entry)) {
+                deadlines.remove(entry.id);
+                due.add(entry.id);
+            }
+        }
+        expired.clear();
+        return due;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    public synchronized long getCurrentTimeMs() {
+        return currentTimeMs;
+    }
+
+    /**
+     * Latest deadline the wheel can hold right now.
+     */
+    public synchronized long getHorizonMs() {
+        Level top = levels.get(levels.size() - 1);
+        return currentTimeMs - (currentTimeMs % top.tickMs) + top.spanMs - 1;
+    }
+
+    private boolean place(Entry entry) {
+        if (entry.deadlineMs <= currentTimeMs) {
+            expired.add(entry);
+            return true;
+        }
+        for (Level level : levels) {
+            long levelStart = currentTimeMs - (currentTimeMs % level.tickMs);
+            if (entry.deadlineMs < levelStart + level.spanMs) {
+                level.bucketFor(entry.deadlineMs).add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isLive(Entry entry) {
+        Long deadline = deadlines.get(entry.id);
+        return deadline != null && deadline == entry.deadlineMs;
+    }
+
+    private long roundUp(long deadlineMs) {
+        long remainder = deadlineMs % tickMs;
+        return remainder == 0 ? deadlineMs : deadlineMs - remainder + tickMs;
+    }
+
+    private static final class Level {
+        private final long tickMs;
+        private final long spanMs;
+        private final List<List<Entry>> buckets;
+
+        private Level(long tickMs, int size) {
+            this.tickMs = tickMs;
+            this.spanMs = tickMs * size;
+            this.buckets = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                buckets.add(new ArrayList<>());
+            }
+        }
+
+        private List<Entry> bucketFor(long timeMs) {
+            return buckets.get((int) ((timeMs / tickMs) % buckets.size()));
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadlineMs;
+
+        private Entry(long id, long deadlineMs) {
+            this.id = id;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
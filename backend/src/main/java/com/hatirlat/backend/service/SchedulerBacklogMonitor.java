@@ -0,0 +1,95 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.SchedulerProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.OutboxStatus;
+import com.hatirlat.backend.entity.ReminderStatus;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how far the scheduler is behind: due reminders nobody has claimed yet and outbox rows that
+ * are not delivered yet. The backlog gauges are refreshed on a fixed delay so that metric scrapes never
+ * reach the database; {@link #snapshot()} queries live for the actuator endpoint.
+ */
+@Service
+public class SchedulerBacklogMonitor {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private ChannelPipelines channelPipelines;
+
+    @Autowired
+    private SchedulerProperties schedulerProperties;
+
+    @Autowired
+    private SchedulerMetrics schedulerMetrics;
+
+    @Autowired
+    private Clock clock;
+
+    private final AtomicLong dueBacklog = new AtomicLong();
+    private final AtomicLong outboxBacklog = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        schedulerMetrics.registerBacklog("due", dueBacklog::get);
+        schedulerMetrics.registerBacklog("outbox", outboxBacklog::get);
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.backlog-refresh-ms:15000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        dueBacklog.set(reminderRepository.countByStatusAndNextFireAtLessThanEqual(ReminderStatus.SCHEDULED, LocalDateTime.now(clock)));
+        outboxBacklog.set(notificationOutboxRepository.countByStatus(OutboxStatus.PENDING));
+    }
+
+    /**
+     * Current scheduler state: the next and the oldest due occurrence, how many reminders and deliveries
+     * are waiting, how many deliveries are leased to a relay, and this node's channel queues.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> snapshot() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime oldestScheduled = reminderRepository.findEarliestFireAtAfter(ReminderStatus.SCHEDULED, BEGINNING);
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("nodeId", schedulerProperties.getNodeId());
+        snapshot.put("mode", schedulerProperties.getMode());
+        snapshot.put("nextDueAt", reminderRepository.findEarliestFireAtAfter(ReminderStatus.SCHEDULED, now));
+        snapshot.put("dueBacklog", reminderRepository.countByStatusAndNextFireAtLessThanEqual(ReminderStatus.SCHEDULED, now));
+        snapshot.put("oldestDueAt", oldestScheduled != null && !oldestScheduled.isAfter(now) ? oldestScheduled : null);
+        snapshot.put("pendingDeliveries", notificationOutboxRepository.countByStatus(OutboxStatus.PENDING));
+        snapshot.put("inFlightDeliveries",
+                notificationOutboxRepository.countByStatusAndLeaseUntilAfter(OutboxStatus.PENDING, now));
+        snapshot.put("oldestUnsentOccurrence", notificationOutboxRepository.findOldestOccurrence(OutboxStatus.PENDING));
+
+        Map<NotificationChannel, Integer> queueDepth = new EnumMap<>(NotificationChannel.class);
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            ChannelPipeline pipeline = channelPipelines.get(channel);
+            queueDepth.put(channel, pipeline != null ? pipeline.depth() : 0);
+        }
+        snapshot.put("queueDepth", queueDepth);
+        snapshot.put("saturatedChannels", channelPipelines.saturatedChannels());
+        return snapshot;
+    }
+}
@@ -0,0 +1,174 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.PlanTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the reminder scheduler and the delivery pipelines. Scheduler meters are tagged
+ * with the trigger mode so the timing wheel and the legacy poller can be compared on the same dashboard;
+ * pipeline meters are tagged with their channel. Firing lag is also tagged with the owner's plan tier,
+ * to check the fair-share weights under load.
+ */
+@Component
+public class SchedulerMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public void recordFiringLag(String mode, PlanTier tier, Duration lag) {
+        Timer.builder("reminder.scheduler.firing.lag")
+                .description("Time between a reminder's scheduled occurrence and its dispatch")
+                .tag("mode", mode)
+                .tag("tier", tier != null ? tier.name() : PlanTier.FREE.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry)
+                .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    public void recordBatch(String mode, Duration duration) {
+        Timer.builder("reminder.scheduler.batch.duration")
+                .description("Time taken to claim one batch of due reminders and write it to the outbox")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    public void recordQuery(String mode, String query) {
+        recordQueries(mode, query, 1);
+    }
+
+    public void recordQueries(String mode, String query, int count) {
+        Counter.builder("reminder.scheduler.db.queries")
+                .description("Database queries issued by the scheduler")
+                .tag("mode", mode)
+                .tag("query", query)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    public void registerWheelSize(Supplier<Number> size) {
+        Gauge.builder("reminder.scheduler.wheel.size", size)
+                .description("Reminders currently armed in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gauge for a backlog the {@link SchedulerBacklogMonitor} refreshes periodically, so scraping it
+     * never queries the database.
+     */
+    public void registerBacklog(String backlog, Supplier<Number> size) {
+        Gauge.builder("reminder.scheduler.backlog", size)
+                .description("Due reminders not yet claimed, or outbox rows not yet delivered")
+                .tag("backlog", backlog)
+                .register(meterRegistry);
+    }
+
+    public void registerQueueDepth(NotificationChannel channel, Supplier<Number> depth) {
+        Gauge.builder("reminder.dispatch.queue.depth", depth)
+                .description("Deliveries waiting in a channel pipeline's queue")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+    }
+
+    public void registerInFlight(Supplier<Number> inFlight) {
+        Gauge.builder("reminder.dispatch.in-flight", inFlight)
+                .description("Sends awaiting a provider across all channel pipelines")
+                .register(meterRegistry);
+    }
+
+    public void recordQueueWait(NotificationChannel channel, Duration wait) {
+        Timer.builder("reminder.dispatch.queue.wait")
+                .description("Time a delivery spent queued before a channel worker picked it up")
+                .tag("channel", channel.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(wait);
+    }
+
+    public void recordSendLatency(NotificationChannel channel, boolean success, Duration latency) {
+        Timer.builder("reminder.dispatch.send.latency")
+                .description("Time a channel provider took to accept or reject one delivery")
+                .tag("channel", channel.name())
+                .tag("outcome", success ? "sent" : "failed")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(latency);
+    }
+
+    public void recordThrottle(String provider, Duration delay) {
+        Timer.builder("reminder.dispatch.throttle")
+                .description("Time a delivery was parked waiting for its provider's rate limit")
+                .tag("provider", provider)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(delay);
+    }
+
+    public void recordFailover(NotificationChannel channel, String from, String to) {
+        Counter.builder("reminder.dispatch.failovers")
+                .description("Sends moved to the next provider of the channel after a provider failed them")
+                .tag("channel", channel.name())
+                .tag("from", from)
+                .tag("to", to)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Counts hedged sends: {@code fired} when the first provider was slower than its p95 and the next one
+     * was tried as well, {@code won} when that second send answered first.
+     */
+    public void recordHedge(NotificationChannel channel, String outcome) {
+        Counter.builder("reminder.dispatch.hedges")
+                .description("Sends also started on the next provider because the first one was slow")
+                .tag("channel", channel.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordDuplicate(NotificationChannel channel, String state) {
+        Counter.builder("reminder.dispatch.duplicates")
+                .description("Deliveries not sent because their key was already in flight or delivered")
+                .tag("channel", channel.name())
+                .tag("state", state)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordDelivery(NotificationChannel channel, boolean success) {
+        Counter.builder("reminder.dispatch.deliveries")
+                .description("Deliveries attempted by a channel pipeline")
+                .tag("channel", channel.name())
+                .tag("outcome", success ? "sent" : "failed")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void registerReceiptBuffer(Supplier<Number> size) {
+        Gauge.builder("reminder.receipts.buffered", size)
+                .description("Delivery receipts waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public void recordReceiptsDropped(String reason, int count) {
+        Counter.builder("reminder.receipts.dropped")
+                .description("Delivery receipts never written, because the buffer was full or the insert failed")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment(count);
+    }
+}
@@ -0,0 +1,175 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.TemplateProperties;
+import com.hatirlat.backend.entity.Group;
+import com.hatirlat.backend.entity.MessageLocale;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.GroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns a reminder's title and message into the text each recipient receives. Templates are parsed once
+ * into a {@link CompiledTemplate} and cached by template id and full text: an edited reminder compiles its
+ * new text once and the old entry ages out of the least-recently-used cache.
+ * {@link #prepare} is called once per occurrence and formats the date, time, title and group name for
+ * each locale, so a fan-out to thousands of members renders each of them without parsing or formatting
+ * anything. Reminders without a message get the built-in body of the recipient's locale.
+ */
+@Component
+public class TemplateEngine {
+
+    private static final Map<MessageLocale, DateTimeFormatter> DATE_FORMATS = new EnumMap<>(Map.of(
+            MessageLocale.TR, DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.forLanguageTag("tr")),
+            MessageLocale.EN, DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH)));
+    private static final Map<MessageLocale, DateTimeFormatter> TIME_FORMATS = new EnumMap<>(Map.of(
+            MessageLocale.TR, DateTimeFormatter.ofPattern("HH:mm", Locale.forLanguageTag("tr")),
+            MessageLocale.EN, DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH)));
+    private static final Map<MessageLocale, String> DEFAULT_BODIES = new EnumMap<>(Map.of(
+            MessageLocale.TR, "Hat\u0131rlatma: {title}, {date} {time}",
+            MessageLocale.EN, "Reminder: {title} on {date} at {time}"));
+
+    @Autowired
+    private TemplateProperties templateProperties;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    // Hits only read the map and stamp the entry; trimming the least recently used entries is left to the
+    // rare miss that overfills the cache
+    private final Map<TemplateKey, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object trimLock = new Object();
+
+    /**
+     * The compiled template of {@code source}, parsed only if this text of {@code templateId} is not
+     * cached yet.
+     */
+    public CompiledTemplate compile(String templateId, String source) {
+        TemplateKey key = new TemplateKey(templateId, source != null ? source : "");
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            entry = cache.computeIfAbsent(key, missing -> new CacheEntry(CompiledTemplate.parse(missing.source),
+                    clock.incrementAndGet()));
+            if (cache.size() > maxSize()) {
+                trim();
+            }
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.template;
+    }
+
+    /**
+     * Evicts the least recently used eighth of the entries, so that a full cache is trimmed once per many
+     * misses rather than on each.
+     */
+    private void trim() {
+        synchronized (trimLock) {
+            int max = maxSize();
+            if (cache.size() <= max) {
+                return;
+            }
+            // Sorted on a snapshot of the stamps, which hits keep moving while the cache is trimmed
+            List<Map.Entry<TemplateKey, CacheEntry>> entries = new ArrayList<>(cache.entrySet());
+            long[] stamps = new long[entries.size()];
+            Integer[] order = new Integer[entries.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = entries.get(i).getValue().lastUsed;
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> stamps[i]));
+            int evict = Math.min(entries.size() - max + max / 8, entries.size() - 1);
+            for (int i = 0; i < evict; i++) {
+                Map.Entry<TemplateKey, CacheEntry> eldest = entries.get(order[i]);
+                cache.remove(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    private int maxSize() {
+        return Math.max(1, templateProperties.getCacheSize());
+    }
+
+    /**
+     * Compiles the reminder's subject and body and formats the values of its current occurrence.
+     */
+    public ReminderMessage prepare(Reminder reminder) {
+        String id = "reminder-" + reminder.getId();
+        CompiledTemplate subject = compile(id + "-subject", reminder.getTitle());
+        boolean hasMessage = reminder.getMessage() != null && !reminder.getMessage().isBlank();
+        CompiledTemplate message = hasMessage ? compile(id + "-body", reminder.getMessage()) : null;
+
+        Map<MessageLocale, CompiledTemplate> bodies = new EnumMap<>(MessageLocale.class);
+        boolean usesGroup = subject.uses(CompiledTemplate.Placeholder.GROUP);
+        for (MessageLocale locale : MessageLocale.values()) {
+            CompiledTemplate body = message != null ? message
+                    : compile("default-body-" + locale.name().toLowerCase(), DEFAULT_BODIES.get(locale));
+            bodies.put(locale, body);
+            usesGroup |= body.uses(CompiledTemplate.Placeholder.GROUP);
+        }
+        String group = usesGroup && reminder.getGroupId() != null
+                ? groupRepository.findById(reminder.getGroupId()).map(Group::getName).orElse(null)
+                : null;
+
+        Map<MessageLocale, String[]> values = new EnumMap<>(MessageLocale.class);
+        LocalDateTime occurrence = reminder.getNextFireAt();
+        for (MessageLocale locale : MessageLocale.values()) {
+            String[] formatted = new String[CompiledTemplate.Placeholder.values().length];
+            formatted[CompiledTemplate.Placeholder.GROUP.ordinal()] = group;
+            formatted[CompiledTemplate.Placeholder.TITLE.ordinal()] = reminder.getTitle();
+            if (occurrence != null) {
+                formatted[CompiledTemplate.Placeholder.DATE.ordinal()] = DATE_FORMATS.get(locale).format(occurrence);
+                formatted[CompiledTemplate.Placeholder.TIME.ordinal()] = TIME_FORMATS.get(locale).format(occurrence);
+            }
+            values.put(locale, formatted);
+        }
+        return new ReminderMessage(subject, bodies, values, templateProperties.getDefaultLocale());
+    }
+
+    /**
+     * Cache key holding the full template text, so that an edited template never shares an entry with its
+     * earlier version.
+     */
+    private static final class TemplateKey {
+        private final String templateId;
+        private final String source;
+
+        private TemplateKey(String templateId, String source) {
+            this.templateId = templateId;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TemplateKey key && key.templateId.equals(templateId) && key.source.equals(source);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(templateId, source);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final CompiledTemplate template;
+        private volatile long lastUsed;
+
+        private CacheEntry(CompiledTemplate template, long lastUsed) {
+            this.template = template;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hatirlat.backend.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that hands out reservations instead of blocking. Every call takes a token, letting the
+ * bucket go into debt when it is empty, and returns how long the caller has to wait before using it.
+ * Callers that wait out their reservation therefore never exceed the rate, and no thread is held while
+ * they wait.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double ratePerSecond;
+    private final double capacity;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double ratePerSecond, int capacity) {
+        this(ratePerSecond, capacity, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int capacity, LongSupplier nanoTime) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.nanoTime = nanoTime;
+        this.tokens = this.capacity;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return nanoseconds until the token is available, 0 if it can be used right away
+     */
+    public long reserve() {
+        return reserve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Takes one token, unless it would only be due after {@code maxWaitNanos}.
+     *
+     * @return nanoseconds until the token is available, 0 if it can be used right away, or -1 if no token
+     * was taken
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerSecond / NANOS_PER_SECOND);
+        refilledAt = now;
+        double left = tokens - 1;
+        long waitNanos = left >= 0 ? 0 : (long) Math.ceil(-left * NANOS_PER_SECOND / ratePerSecond);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens = left;
+        return waitNanos;
+    }
+
+    /**
+     * Gives back a reserved token that was never used, such as the token of a send that was rejected or
+     * cancelled before reaching the provider.
+     */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+}
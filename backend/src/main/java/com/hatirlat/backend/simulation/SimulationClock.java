@@ -0,0 +1,53 @@
+package com.hatirlat.backend.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Virtual clock of the {@code simulation} profile. Time stands still until the runner advances it, so
+ * hours of schedule can be replayed in seconds and every run sees the same timestamps.
+ */
+public class SimulationClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant instant;
+
+    public SimulationClock(LocalDateTime start, ZoneId zone) {
+        this.zone = zone;
+        this.instant = start.atZone(zone).toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * A fixed copy in another zone; it does not follow later advances.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : Clock.fixed(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.ofInstant(instant, zone);
+    }
+
+    /**
+     * Moves the clock forward to {@code time}; virtual time never runs backwards.
+     */
+    public synchronized void advanceTo(LocalDateTime time) {
+        Instant target = time.atZone(zone).toInstant();
+        if (target.isAfter(instant)) {
+            instant = target;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hatirlat.backend.simulation;
+
+import com.hatirlat.backend.config.SimulationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.ZoneId;
+
+@Configuration
+@Profile("simulation")
+public class SimulationConfig {
+
+    @Bean
+    public SimulationClock clock(SimulationProperties simulationProperties) {
+        return new SimulationClock(simulationProperties.getStart(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,83 @@
+package com.hatirlat.backend.simulation;
+
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of one simulation run. Lag is measured in virtual time, from a reminder's occurrence to the
+ * relay pass that recorded its send. Throughput is measured against the wall clock.
+ */
+public class SimulationReport {
+
+    private final int reminders;
+    private final int firings;
+    private final int deliveries;
+    private final long statements;
+    private final int passes;
+    private final Duration virtualDuration;
+    private final Duration wallDuration;
+    private final long[] lagMillis;
+
+    public SimulationReport(int reminders, List<NotificationOutboxRepository.SendTime> sendTimes, long statements,
+                            int passes, Duration virtualDuration, Duration wallDuration) {
+        this.reminders = reminders;
+        this.deliveries = sendTimes.size();
+        this.statements = statements;
+        this.passes = passes;
+        this.virtualDuration = virtualDuration;
+        this.wallDuration = wallDuration;
+        Set<String> occurrences = new HashSet<>();
+        this.lagMillis = new long[sendTimes.size()];
+        for (int i = 0; i < lagMillis.length; i++) {
+            NotificationOutboxRepository.SendTime sendTime = sendTimes.get(i);
+            occurrences.add(sendTime.getReminderId() + "|" + sendTime.getOccurrence());
+            lagMillis[i] = Duration.between(sendTime.getOccurrence(), sendTime.getSentAt()).toMillis();
+        }
+        Arrays.sort(lagMillis);
+        this.firings = occurrences.size();
+    }
+
+    public int getFirings() {
+        return firings;
+    }
+
+    public int getDeliveries() {
+        return deliveries;
+    }
+
+    public double sendsPerSecond() {
+        double seconds = wallDuration.toNanos() / 1e9;
+        return seconds > 0 ? deliveries / seconds : 0;
+    }
+
+    /**
+     * Statements per fired occurrence: claim, outbox insert, relay lease and write-back included.
+     */
+    public double statementsPerFiring() {
+        return firings > 0 ? (double) statements / firings : 0;
+    }
+
+    /**
+     * Nearest-rank percentile of the firing lag.
+     */
+    public Duration lagPercentile(double percentile) {
+        if (lagMillis.length == 0) {
+            return Duration.ZERO;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * lagMillis.length);
+        return Duration.ofMillis(lagMillis[Math.min(lagMillis.length, Math.max(1, rank)) - 1]);
+    }
+
+    public String summary() {
+        return String.format("Simulated %s of %d reminders in %d ms (%d scheduler passes): %d firings, %d deliveries, "
+                        + "%.1f sends/s, lag p50=%d ms p95=%d ms p99=%d ms max=%d ms, %d statements (%.2f per firing)",
+                virtualDuration, reminders, wallDuration.toMillis(), passes, firings, deliveries, sendsPerSecond(),
+                lagPercentile(50).toMillis(), lagPercentile(95).toMillis(), lagPercentile(99).toMillis(),
+                lagPercentile(100).toMillis(), statements, statementsPerFiring());
+    }
+}
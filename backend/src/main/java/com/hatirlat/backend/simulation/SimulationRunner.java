@@ -0,0 +1,158 @@
+package com.hatirlat.backend.simulation;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.SimulationProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.service.ChannelPipeline;
+import com.hatirlat.backend.service.ChannelPipelines;
+import com.hatirlat.backend.service.NotificationOutboxRelay;
+import com.hatirlat.backend.service.ReminderScheduler;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capacity test of the dispatch path in virtual time ({@code --spring.profiles.active=simulation}).
+ * Seeds a workload, then alternates scheduler and relay passes on the real services, repositories and
+ * channel pipelines. Sends go through {@code NotificationService} to the configured
+ * {@code outbox.channels.*.provider}, by default the {@code LoggingChannelProvider} beans
+ * ({@code email-log}, {@code sms-log}, {@code whatsapp-log}), which accept every message at once.
+ * Between passes the virtual clock jumps to the time the scheduler asked to wake up at, or by one relay
+ * poll while deliveries are in flight, so a day of reminders replays as fast as the database allows.
+ * Logs sends per second, firing lag percentiles and JDBC statements per fired occurrence, then shuts
+ * the application down.
+ */
+@Component
+@Profile("simulation")
+public class SimulationRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationRunner.class);
+    private static final long PIPELINE_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private SimulationProperties simulationProperties;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private SimulationClock clock;
+
+    @Autowired
+    private WorkloadGenerator workloadGenerator;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @Autowired
+    private ChannelPipelines channelPipelines;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(String... args) {
+        LocalDateTime start = clock.now();
+        LocalDateTime end = start.plusHours(simulationProperties.getHorizonHours());
+        int reminders = workloadGenerator.seed(start, end);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        int passes = drive(end);
+        Duration wall = Duration.ofNanos(System.nanoTime() - started);
+        long statements = statistics.getPrepareStatementCount();
+
+        SimulationReport report = new SimulationReport(reminders, notificationOutboxRepository.findSendTimes(),
+                statements, passes, Duration.between(start, end), wall);
+        log.info(report.summary());
+        if (simulationProperties.isExitOnFinish()) {
+            applicationContext.close();
+        }
+    }
+
+    /**
+     * Runs scheduler and relay passes until the virtual clock reaches {@code end}.
+     *
+     * @return the number of passes
+     */
+    int drive(LocalDateTime end) {
+        int passes = 0;
+        while (true) {
+            LocalDateTime now = clock.now();
+            LocalDateTime wakeAt = reminderScheduler.wakeUp();
+            boolean relayed = relayUntilIdle();
+            passes++;
+            if (!now.isBefore(end)) {
+                return passes;
+            }
+            LocalDateTime next = wakeAt;
+            LocalDateTime nextPoll = now.plus(Duration.ofMillis(outboxProperties.getPollMs()));
+            if (relayed && nextPoll.isBefore(next)) {
+                // Rows sent now may have retries or smoothed siblings due before the next reminder
+                next = nextPoll;
+            }
+            clock.advanceTo(next.isAfter(end) ? end : next);
+        }
+    }
+
+    /**
+     * Relays every row available at the current virtual time and writes back the outcomes.
+     *
+     * @return whether anything was relayed
+     */
+    private boolean relayUntilIdle() {
+        boolean relayed = false;
+        int queued;
+        do {
+            queued = 0;
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                queued += notificationOutboxRelay.fill(channel);
+            }
+            awaitPipelines();
+            notificationOutboxRelay.flushCompleted();
+            relayed |= queued > 0;
+        } while (queued > 0);
+        return relayed;
+    }
+
+    private void awaitPipelines() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PIPELINE_TIMEOUT_SECONDS);
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            ChannelPipeline pipeline = channelPipelines.get(channel);
+            while (pipeline.pending() > 0) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException(channel + " pipeline did not finish its deliveries within "
+                            + PIPELINE_TIMEOUT_SECONDS + "s");
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the " + channel + " pipeline", e);
+                }
+            }
+        }
+    }
+}
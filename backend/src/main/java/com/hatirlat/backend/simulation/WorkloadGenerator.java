@@ -0,0 +1,115 @@
+package com.hatirlat.backend.simulation;
+
+import com.hatirlat.backend.config.SimulationProperties;
+import com.hatirlat.backend.entity.Contact;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.entity.ReminderStatus;
+import com.hatirlat.backend.entity.ReminderType;
+import com.hatirlat.backend.entity.RepeatType;
+import com.hatirlat.backend.repository.ContactRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the simulation database with personal reminders spread over the simulated stretch of time.
+ * Most reminders are set on a full quarter hour, so they fire in same-minute cohorts the way real
+ * users' reminders do. The rest are uniform to the second. The repeat types and channels follow the
+ * shares in {@link SimulationProperties}. The same seed always produces the same workload.
+ */
+@Component
+@Profile("simulation")
+public class WorkloadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadGenerator.class);
+    private static final int SAVE_BATCH = 1000;
+
+    @Autowired
+    private SimulationProperties simulationProperties;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    /**
+     * Seeds contacts and reminders due between {@code start} and {@code end}.
+     *
+     * @return the number of reminders seeded
+     */
+    public int seed(LocalDateTime start, LocalDateTime end) {
+        Random random = new Random(simulationProperties.getSeed());
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, simulationProperties.getContacts()); i++) {
+            contacts.add(new Contact("Contact " + i, String.format("+9055%08d", i), "contact" + i + "@example.com"));
+        }
+        contacts = contactRepository.saveAll(contacts);
+
+        long horizonSeconds = Math.max(1, Duration.between(start, end).getSeconds());
+        List<Reminder> batch = new ArrayList<>(SAVE_BATCH);
+        int count = simulationProperties.getReminders();
+        for (int i = 0; i < count; i++) {
+            Reminder reminder = new Reminder();
+            reminder.setTitle("Reminder " + i);
+            reminder.setMessage("Simulated reminder " + i);
+            reminder.setType(ReminderType.PERSONAL);
+            reminder.setStatus(ReminderStatus.SCHEDULED);
+            reminder.setContactId(contacts.get(random.nextInt(contacts.size())).getId());
+            reminder.setOwnerId(1L + random.nextInt(Math.max(1, simulationProperties.getOwners())));
+            reminder.setDateTime(fireTime(random, start, horizonSeconds));
+            reminder.setRepeat(repeatType(random));
+            reminder.setChannels(channels(random));
+            batch.add(reminder);
+            if (batch.size() == SAVE_BATCH) {
+                reminderRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        reminderRepository.saveAll(batch);
+        log.info("Seeded {} reminders for {} contacts between {} and {}", count, contacts.size(), start, end);
+        return count;
+    }
+
+    private LocalDateTime fireTime(Random random, LocalDateTime start, long horizonSeconds) {
+        LocalDateTime time = start.plusSeconds(random.nextLong(horizonSeconds));
+        if (random.nextDouble() < simulationProperties.getRoundTimeShare()) {
+            time = time.truncatedTo(ChronoUnit.HOURS).plusMinutes(time.getMinute() / 15 * 15L);
+        }
+        return time.isBefore(start) ? start : time;
+    }
+
+    private RepeatType repeatType(Random random) {
+        double draw = random.nextDouble();
+        if (draw < simulationProperties.getHourlyShare()) {
+            return RepeatType.HOURLY;
+        }
+        draw -= simulationProperties.getHourlyShare();
+        if (draw < simulationProperties.getDailyShare()) {
+            return RepeatType.DAILY;
+        }
+        draw -= simulationProperties.getDailyShare();
+        return draw < simulationProperties.getWeeklyShare() ? RepeatType.WEEKLY : RepeatType.NONE;
+    }
+
+    private List<NotificationChannel> channels(Random random) {
+        if (random.nextDouble() < simulationProperties.getMultiChannelShare()) {
+            return new ArrayList<>(List.of(NotificationChannel.EMAIL, NotificationChannel.SMS));
+        }
+        double draw = random.nextDouble();
+        NotificationChannel channel = draw < 0.6 ? NotificationChannel.EMAIL
+                : draw < 0.85 ? NotificationChannel.SMS : NotificationChannel.WHATSAPP;
+        return new ArrayList<>(List.of(channel));
+    }
+}
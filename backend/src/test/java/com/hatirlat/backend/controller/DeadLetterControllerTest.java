@@ -0,0 +1,50 @@
+package com.hatirlat.backend.controller;
+
+import com.hatirlat.backend.dto.*;
+import com.hatirlat.backend.service.DeadLetterService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterControllerTest {
+
+    @Mock
+    private DeadLetterService deadLetterService;
+
+    @InjectMocks
+    private DeadLetterController deadLetterController;
+
+    @Test
+    void getDeadLetters_Empty_ReturnsMessage() {
+        when(deadLetterService.getDeadLetters("sms", 0, 50)).thenReturn(List.of());
+
+        ResponseEntity<BaseResponse<List<DeadLetterResponse>>> response = deadLetterController.getDeadLetters("sms", 0, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getData().isEmpty());
+        assertEquals("No dead letters found", response.getBody().getMessage());
+    }
+
+    @Test
+    void replay_ReturnsReplayedCount() {
+        DeadLetterReplayRequest request = new DeadLetterReplayRequest();
+        request.setIds(List.of(1L, 2L));
+        when(deadLetterService.replay(request)).thenReturn(2);
+
+        ResponseEntity<BaseResponse<Integer>> response = deadLetterController.replay(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Integer.valueOf(2), response.getBody().getData());
+        verify(deadLetterService, times(1)).replay(request);
+    }
+}
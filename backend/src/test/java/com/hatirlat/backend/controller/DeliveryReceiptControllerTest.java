@@ -0,0 +1,51 @@
+package com.hatirlat.backend.controller;
+
+import com.hatirlat.backend.dto.*;
+import com.hatirlat.backend.service.DeliveryReceiptService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryReceiptControllerTest {
+
+    @Mock
+    private DeliveryReceiptService deliveryReceiptService;
+
+    @InjectMocks
+    private DeliveryReceiptController deliveryReceiptController;
+
+    @Test
+    void getByReminder_ReturnsReceipts() {
+        DeliveryReceiptResponse receipt = new DeliveryReceiptResponse();
+        receipt.setId("1");
+        when(deliveryReceiptService.getByReminder("7", 0, 50)).thenReturn(List.of(receipt));
+
+        ResponseEntity<BaseResponse<List<DeliveryReceiptResponse>>> response = deliveryReceiptController.getByReminder("7", 0, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getData().size());
+        assertEquals("Delivery receipts retrieved successfully", response.getBody().getMessage());
+    }
+
+    @Test
+    void getByRecipient_Empty_ReturnsMessage() {
+        when(deliveryReceiptService.getByRecipient("+905550000001", 0, 50)).thenReturn(List.of());
+
+        ResponseEntity<BaseResponse<List<DeliveryReceiptResponse>>> response =
+                deliveryReceiptController.getByRecipient("+905550000001", 0, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getData().isEmpty());
+        assertEquals("No delivery receipts found", response.getBody().getMessage());
+    }
+}
@@ -0,0 +1,147 @@
+package com.hatirlat.backend.provider;
+
+import com.hatirlat.backend.config.SmtpProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SmtpChannelProviderTest {
+
+    private static final LocalDateTime OCCURRENCE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("hatirlat", "secret"));
+
+    @Spy
+    private JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+
+    @Spy
+    private SmtpProperties smtpProperties = new SmtpProperties();
+
+    @InjectMocks
+    private SmtpChannelProvider smtpChannelProvider;
+
+    @BeforeEach
+    void setUp() {
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        mailSender.setUsername("hatirlat");
+        mailSender.setPassword("secret");
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "true");
+        smtpProperties.setConnections(2);
+        smtpProperties.setBatchSize(20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        smtpChannelProvider.stop();
+    }
+
+    @Test
+    void send_GroupReminder_ReusesPooledConnections() throws Exception {
+        smtpChannelProvider.start();
+        List<CompletableFuture<DeliveryResult>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(smtpChannelProvider.send(delivery("member" + i + "@example.com", "Team sync", "Room 4 at 10:00")));
+        }
+
+        for (CompletableFuture<DeliveryResult> result : results) {
+            assertNotNull(result.get(10, TimeUnit.SECONDS).getMessageId());
+        }
+        assertTrue(greenMail.waitForIncomingEmail(5000, 100));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Team sync", received.getSubject());
+        assertEquals(1, received.getAllRecipients().length);
+        // A hundred messages over at most one session per connection
+        assertTrue(smtpChannelProvider.getConnectionsOpened() <= 2);
+    }
+
+    @Test
+    void send_PersonalisedGroupReminder_SharesOneMessage() throws Exception {
+        smtpProperties.setConnections(1);
+        smtpChannelProvider.start();
+        List<CompletableFuture<DeliveryResult>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // What TemplateEngine renders for "Merhaba {name}" to each member of the group
+            results.add(smtpChannelProvider.send(delivery("member" + i + "@example.com", "Team sync",
+                    "Merhaba Member " + i)));
+        }
+
+        for (CompletableFuture<DeliveryResult> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        verify(mailSender, times(1)).createMimeMessage();
+        assertTrue(greenMail.waitForIncomingEmail(5000, 20));
+        for (MimeMessage received : greenMail.getReceivedMessages()) {
+            String recipient = received.getAllRecipients()[0].toString();
+            String member = recipient.substring("member".length(), recipient.indexOf('@'));
+            assertEquals("Merhaba Member " + member, GreenMailUtil.getBody(received).trim());
+        }
+    }
+
+    @Test
+    void send_RenewsConnectionAfterMaxMessages() throws Exception {
+        smtpProperties.setConnections(1);
+        smtpProperties.setMaxMessagesPerConnection(5);
+        smtpChannelProvider.start();
+        List<CompletableFuture<DeliveryResult>> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            results.add(smtpChannelProvider.send(delivery("user" + i + "@example.com", "Reminder " + i, "Body " + i)));
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, greenMail.getReceivedMessages().length);
+        assertEquals(3, smtpChannelProvider.getConnectionsOpened());
+    }
+
+    @Test
+    void send_InvalidAddress_FailsOnlyThatMessage() throws Exception {
+        smtpChannelProvider.start();
+
+        CompletableFuture<DeliveryResult> invalid = smtpChannelProvider.send(delivery("missing-domain@", "Hi", "Body"));
+        CompletableFuture<DeliveryResult> valid = smtpChannelProvider.send(delivery("ok@example.com", "Hi", "Body"));
+
+        assertThrows(ExecutionException.class, () -> invalid.get(10, TimeUnit.SECONDS));
+        assertNotNull(valid.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void send_AfterStop_FailsImmediately() {
+        smtpChannelProvider.start();
+        smtpChannelProvider.stop();
+
+        assertTrue(smtpChannelProvider.send(delivery("ok@example.com", "Hi", "Body")).isCompletedExceptionally());
+    }
+
+    private static NotificationOutbox delivery(String recipient, String subject, String body) {
+        return new NotificationOutbox(1L, OCCURRENCE, NotificationChannel.EMAIL, recipient, subject, body,
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,197 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.simulation.SimulationClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChannelPipelineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private SchedulerMetrics schedulerMetrics;
+
+    private final SimulationClock clock = new SimulationClock(START, ZoneOffset.UTC);
+
+    private ChannelPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void workers_TimeQueueWaitAndSendsWithTheClock() throws InterruptedException {
+        Queue<CompletableFuture<Object>> awaiting = new ConcurrentLinkedQueue<>();
+        Function<NotificationOutbox, CompletableFuture<?>> sender = delivery -> {
+            CompletableFuture<Object> answer = new CompletableFuture<>();
+            awaiting.add(answer);
+            return answer;
+        };
+        pipeline = new ChannelPipeline(NotificationChannel.EMAIL, 10, 1, 10, sender, schedulerMetrics, clock);
+
+        pipeline.offer(delivery(1L));
+        clock.advanceTo(START.plusSeconds(3));
+        pipeline.start();
+        awaitSends(awaiting, 1);
+        clock.advanceTo(START.plusSeconds(5));
+        awaiting.peek().complete(null);
+        awaitOutcomes(1);
+
+        verify(schedulerMetrics).recordQueueWait(NotificationChannel.EMAIL, Duration.ofSeconds(3));
+        verify(schedulerMetrics).recordSendLatency(NotificationChannel.EMAIL, true, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void offer_BeyondCapacity_IsRejectedAndReportsFull() {
+        pipeline = new ChannelPipeline(NotificationChannel.SMS, 2, 1, 10, delivery -> accepted(), schedulerMetrics, clock);
+
+        assertTrue(pipeline.offer(delivery(1L)));
+        assertTrue(pipeline.offer(delivery(2L)));
+        assertFalse(pipeline.offer(delivery(3L)));
+        assertTrue(pipeline.isFull());
+        assertEquals(2, pipeline.depth());
+    }
+
+    @Test
+    void workers_DeliverQueuedRowsAndBufferOutcomes() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(3);
+        Function<NotificationOutbox, CompletableFuture<?>> sender = delivery -> {
+            done.countDown();
+            if (delivery.getId() == 2L) {
+                return CompletableFuture.failedFuture(new IllegalStateException("provider down"));
+            }
+            return accepted();
+        };
+        pipeline = new ChannelPipeline(NotificationChannel.EMAIL, 10, 2, 10, sender, schedulerMetrics, clock);
+        pipeline.start();
+
+        pipeline.offer(delivery(1L));
+        pipeline.offer(delivery(2L));
+        pipeline.offer(delivery(3L));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        List<ChannelPipeline.Outcome> outcomes = awaitOutcomes(3);
+        assertEquals(1, outcomes.stream().filter(outcome -> outcome.getFailure() != null).count());
+        assertEquals(0, pipeline.depth());
+    }
+
+    @Test
+    void workers_CapSendsAwaitingTheProvider() throws InterruptedException {
+        Queue<CompletableFuture<Object>> awaiting = new ConcurrentLinkedQueue<>();
+        Function<NotificationOutbox, CompletableFuture<?>> sender = delivery -> {
+            CompletableFuture<Object> answer = new CompletableFuture<>();
+            awaiting.add(answer);
+            return answer;
+        };
+        pipeline = new ChannelPipeline(NotificationChannel.EMAIL, 10, 1, 2, sender, schedulerMetrics, clock);
+        pipeline.start();
+        for (long id = 1; id <= 4; id++) {
+            pipeline.offer(delivery(id));
+        }
+
+        awaitSends(awaiting, 2);
+        Thread.sleep(100);
+        // One worker, yet two sends are out; the other two wait in the queue for a slot
+        assertEquals(2, awaiting.size());
+        assertEquals(2, pipeline.depth());
+        assertEquals(4, pipeline.pending());
+
+        awaiting.peek().complete(null);
+        awaitSends(awaiting, 3);
+        awaiting.forEach(answer -> answer.complete(null));
+        awaitSends(awaiting, 4);
+        awaiting.forEach(answer -> answer.complete(null));
+
+        awaitOutcomes(4);
+        assertEquals(0, pipeline.pending());
+    }
+
+    @Test
+    void workers_SharedSlots_CapSendsAcrossPipelines() throws InterruptedException {
+        Queue<CompletableFuture<Object>> awaiting = new ConcurrentLinkedQueue<>();
+        Function<NotificationOutbox, CompletableFuture<?>> sender = delivery -> {
+            CompletableFuture<Object> answer = new CompletableFuture<>();
+            awaiting.add(answer);
+            return answer;
+        };
+        Semaphore shared = new Semaphore(1);
+        pipeline = new ChannelPipeline(NotificationChannel.EMAIL, 10, 1, 10, shared, sender, schedulerMetrics, clock);
+        ChannelPipeline sms = new ChannelPipeline(NotificationChannel.SMS, 10, 1, 10, shared, sender, schedulerMetrics,
+                clock);
+        try {
+            pipeline.start();
+            sms.start();
+            pipeline.offer(delivery(1L));
+            sms.offer(delivery(2L));
+
+            awaitSends(awaiting, 1);
+            Thread.sleep(100);
+            // Each channel allows ten, but the shared slot lets only one send out at a time
+            assertEquals(1, awaiting.size());
+
+            awaiting.peek().complete(null);
+            awaitSends(awaiting, 2);
+            awaiting.forEach(answer -> answer.complete(null));
+            awaitOutcomes(1);
+            assertEquals(0, pipeline.pending() + sms.pending());
+            assertEquals(1, shared.availablePermits());
+        } finally {
+            sms.stop();
+        }
+    }
+
+    private void awaitSends(Queue<?> awaiting, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (awaiting.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, awaiting.size());
+    }
+
+    private static CompletableFuture<?> accepted() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private List<ChannelPipeline.Outcome> awaitOutcomes(int expected) throws InterruptedException {
+        List<ChannelPipeline.Outcome> outcomes = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outcomes.size() < expected && System.nanoTime() < deadline) {
+            pipeline.drainCompleted(outcomes);
+            Thread.sleep(10);
+        }
+        assertEquals(expected, outcomes.size());
+        return outcomes;
+    }
+
+    private NotificationOutbox delivery(Long id) {
+        NotificationOutbox delivery = new NotificationOutbox(id, LocalDateTime.now(), NotificationChannel.EMAIL,
+                "user" + id + "@example.com", "Title", "Body", LocalDateTime.now());
+        delivery.setId(id);
+        return delivery;
+    }
+}
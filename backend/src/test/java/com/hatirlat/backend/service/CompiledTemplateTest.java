@@ -0,0 +1,40 @@
+package com.hatirlat.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTemplateTest {
+
+    private static final String[] VALUES = {null, "Backend", "Standup", "7 Ocak 2030", "09:00"};
+
+    @Test
+    void render_FillsEveryPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.parse("Hi {name}, {title} of {group} is on {date} at {time}.");
+
+        assertEquals("Hi Ayse, Standup of Backend is on 7 Ocak 2030 at 09:00.", template.render("Ayse", VALUES));
+        assertTrue(template.uses(CompiledTemplate.Placeholder.GROUP));
+    }
+
+    @Test
+    void render_NoPlaceholders_ReturnsTheSourceItself() {
+        String source = "Daily standup";
+
+        assertSame(source, CompiledTemplate.parse(source).render("Ayse", VALUES));
+    }
+
+    @Test
+    void parse_UnknownOrUnclosedBraces_StayText() {
+        CompiledTemplate template = CompiledTemplate.parse("{NAME} {unknown} {name");
+
+        assertEquals("Ayse {unknown} {name", template.render("Ayse", VALUES));
+        assertFalse(template.uses(CompiledTemplate.Placeholder.DATE));
+    }
+
+    @Test
+    void render_MissingValues_RenderEmpty() {
+        CompiledTemplate template = CompiledTemplate.parse("[{name}][{group}]");
+
+        assertEquals("[][]", template.render(null, new String[CompiledTemplate.Placeholder.values().length]));
+    }
+}
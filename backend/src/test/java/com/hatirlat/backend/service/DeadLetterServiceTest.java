@@ -0,0 +1,114 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.dto.DeadLetterReplayRequest;
+import com.hatirlat.backend.dto.DeadLetterResponse;
+import com.hatirlat.backend.entity.DeadLetter;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.OutboxStatus;
+import com.hatirlat.backend.entity.PlanTier;
+import com.hatirlat.backend.exception.ValidationException;
+import com.hatirlat.backend.repository.DeadLetterRepository;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private DeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private FairShareTagger fairShareTagger;
+
+    @Spy
+    private Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+
+    @InjectMocks
+    private DeadLetterService deadLetterService;
+
+    @Test
+    void replay_GivenIds_EnqueuesFreshDeliveriesAndRemovesDeadLetters() {
+        DeadLetter deadLetter = deadLetter(7L, NotificationChannel.SMS);
+        DeadLetterReplayRequest request = new DeadLetterReplayRequest();
+        request.setIds(List.of(7L));
+        when(deadLetterRepository.findAllById(List.of(7L))).thenReturn(List.of(deadLetter));
+
+        int replayed = deadLetterService.replay(request);
+
+        assertEquals(1, replayed);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NotificationOutbox>> rows = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxRepository).saveAll(rows.capture());
+        NotificationOutbox row = rows.getValue().get(0);
+        assertEquals(OutboxStatus.PENDING, row.getStatus());
+        assertEquals(0, row.getAttempts());
+        assertEquals(NOW, row.getAvailableAt());
+        assertEquals("+905550000001", row.getRecipient());
+        assertEquals(PlanTier.PREMIUM, row.getTier());
+        verify(fairShareTagger).tag(eq(rows.getValue()), any(), eq(NOW));
+        verify(deadLetterRepository).deleteAllInBatch(List.of(deadLetter));
+    }
+
+    @Test
+    void replay_ByChannel_TakesTheOldestUpToLimit() {
+        DeadLetterReplayRequest request = new DeadLetterReplayRequest();
+        request.setChannel("whatsapp");
+        request.setLimit(10_000);
+        when(deadLetterRepository.findByChannelOrderByIdAsc(NotificationChannel.WHATSAPP,
+                PageRequest.of(0, DeadLetterService.MAX_PAGE_SIZE))).thenReturn(List.of());
+
+        assertEquals(0, deadLetterService.replay(request));
+        verifyNoInteractions(notificationOutboxRepository);
+    }
+
+    @Test
+    void getDeadLetters_UnknownChannel_Throws() {
+        assertThrows(ValidationException.class, () -> deadLetterService.getDeadLetters("pigeon", 0, 50));
+    }
+
+    @Test
+    void getDeadLetters_ReturnsResponses() {
+        when(deadLetterRepository.findAllByOrderByIdAsc(PageRequest.of(0, 50)))
+                .thenReturn(List.of(deadLetter(7L, NotificationChannel.SMS)));
+
+        List<DeadLetterResponse> responses = deadLetterService.getDeadLetters(null, 0, 50);
+
+        assertEquals(1, responses.size());
+        assertEquals("7", responses.get(0).getId());
+        assertEquals("sms", responses.get(0).getChannel());
+        assertEquals("gateway down", responses.get(0).getLastError());
+    }
+
+    private static DeadLetter deadLetter(Long id, NotificationChannel channel) {
+        NotificationOutbox delivery = new NotificationOutbox(3L, NOW.minusHours(1), channel, "+905550000001",
+                "Title", "Body", NOW.minusHours(1));
+        delivery.setId(40L);
+        delivery.setTier(PlanTier.PREMIUM);
+        delivery.setAttempts(7);
+        DeadLetter deadLetter = new DeadLetter(delivery, "gateway down", NOW.minusMinutes(5));
+        deadLetter.setId(id);
+        return deadLetter;
+    }
+}
@@ -0,0 +1,95 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryDedupeStoreTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
+
+    @InjectMocks
+    private DeliveryDedupeStore deliveryDedupeStore;
+
+    @Test
+    void deliveryKey_SameTupleGivesSameKey() {
+        NotificationOutbox first = delivery(NotificationChannel.SMS, "+905550000001");
+        NotificationOutbox reclaimed = delivery(NotificationChannel.SMS, "+905550000001");
+        NotificationOutbox otherChannel = delivery(NotificationChannel.WHATSAPP, "+905550000001");
+
+        assertEquals(first.getDeliveryKey(), reclaimed.getDeliveryKey());
+        assertNotEquals(first.getDeliveryKey(), otherChannel.getDeliveryKey());
+    }
+
+    @Test
+    void acquire_KeyHeldByAnotherAttempt_IsInFlight() {
+        UUID key = UUID.randomUUID();
+
+        assertEquals(DeliveryDedupeStore.Acquisition.ACQUIRED, deliveryDedupeStore.acquire(key));
+        assertEquals(DeliveryDedupeStore.Acquisition.IN_FLIGHT, deliveryDedupeStore.acquire(key));
+    }
+
+    @Test
+    void acquire_DeliveredKey_IsNotSentAgain() {
+        UUID key = UUID.randomUUID();
+        deliveryDedupeStore.acquire(key);
+
+        deliveryDedupeStore.markDelivered(key);
+
+        assertEquals(DeliveryDedupeStore.Acquisition.DELIVERED, deliveryDedupeStore.acquire(key));
+    }
+
+    @Test
+    void release_FailedAttempt_CanBeRetried() {
+        UUID key = UUID.randomUUID();
+        deliveryDedupeStore.acquire(key);
+
+        deliveryDedupeStore.release(key);
+
+        assertEquals(DeliveryDedupeStore.Acquisition.ACQUIRED, deliveryDedupeStore.acquire(key));
+    }
+
+    @Test
+    void release_DeliveredKey_IsKept() {
+        UUID key = UUID.randomUUID();
+        deliveryDedupeStore.markDelivered(key);
+
+        deliveryDedupeStore.release(key);
+
+        assertEquals(DeliveryDedupeStore.Acquisition.DELIVERED, deliveryDedupeStore.acquire(key));
+    }
+
+    @Test
+    void purgeExpired_DropsKeysPastTheirRetention() {
+        outboxProperties.setLeaseSeconds(0);
+        outboxProperties.setDedupeRetentionMinutes(0);
+        deliveryDedupeStore.acquire(UUID.randomUUID());
+        deliveryDedupeStore.markDelivered(UUID.randomUUID());
+
+        deliveryDedupeStore.purgeExpired();
+
+        assertEquals(0, deliveryDedupeStore.size());
+    }
+
+    private NotificationOutbox delivery(NotificationChannel channel, String recipient) {
+        return new NotificationOutbox(1L, NINE, channel, recipient, "Standup", "Daily standup", NINE);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.dto.DeliveryReceiptResponse;
+import com.hatirlat.backend.entity.DeliveryReceipt;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.ValidationException;
+import com.hatirlat.backend.repository.DeliveryReceiptRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryReceiptServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private DeliveryReceiptRepository deliveryReceiptRepository;
+
+    @InjectMocks
+    private DeliveryReceiptService deliveryReceiptService;
+
+    @Test
+    void getByReminder_ReturnsReceiptsNewestFirst() {
+        UUID digestId = UUID.randomUUID();
+        when(deliveryReceiptRepository.findByReminderIdOrderByDeliveredAtDescIdDesc(7L, PageRequest.of(0, 50)))
+                .thenReturn(List.of(receipt(12L, digestId)));
+
+        List<DeliveryReceiptResponse> receipts = deliveryReceiptService.getByReminder("7", 0, 50);
+
+        assertEquals(1, receipts.size());
+        DeliveryReceiptResponse receipt = receipts.get(0);
+        assertEquals("12", receipt.getId());
+        assertEquals("7", receipt.getReminderId());
+        assertEquals("email", receipt.getChannel());
+        assertEquals("email-log", receipt.getProvider());
+        assertEquals("m-1", receipt.getMessageId());
+        assertEquals(digestId.toString(), receipt.getDigestId());
+        assertEquals(NOW, receipt.getDeliveredAt());
+    }
+
+    @Test
+    void getByReminder_InvalidId_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> deliveryReceiptService.getByReminder("abc", 0, 50));
+        verifyNoInteractions(deliveryReceiptRepository);
+    }
+
+    @Test
+    void getByRecipient_ClampsPageSize() {
+        when(deliveryReceiptRepository.findByRecipientOrderByDeliveredAtDescIdDesc(eq("ayse@example.com"), any()))
+                .thenReturn(List.of());
+
+        assertTrue(deliveryReceiptService.getByRecipient(" ayse@example.com ", -1, 10_000).isEmpty());
+
+        verify(deliveryReceiptRepository).findByRecipientOrderByDeliveredAtDescIdDesc("ayse@example.com",
+                PageRequest.of(0, DeliveryReceiptService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void getByRecipient_Blank_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> deliveryReceiptService.getByRecipient(" ", 0, 50));
+    }
+
+    private static DeliveryReceipt receipt(Long id, UUID digestId) {
+        NotificationOutbox delivery = new NotificationOutbox(7L, NOW.minusMinutes(1), NotificationChannel.EMAIL,
+                "ayse@example.com", "Standup", "Daily standup", NOW.minusMinutes(1));
+        DeliveryReceipt receipt = new DeliveryReceipt(delivery, "email-log", "m-1", digestId, NOW);
+        ReflectionTestUtils.setField(receipt, "id", id);
+        return receipt;
+    }
+}
@@ -0,0 +1,139 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.ReceiptProperties;
+import com.hatirlat.backend.entity.DeliveryReceipt;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryReceiptWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SchedulerMetrics schedulerMetrics;
+
+    @Spy
+    private ReceiptProperties receiptProperties = new ReceiptProperties();
+
+    @InjectMocks
+    private DeliveryReceiptWriter deliveryReceiptWriter;
+
+    @BeforeEach
+    void setUp() {
+        // Long enough that the timer never flushes during a test
+        receiptProperties.setFlushMs(60_000);
+        receiptProperties.setBatchSize(10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        deliveryReceiptWriter.stop();
+    }
+
+    @Test
+    void record_FullBatch_IsWrittenWithoutWaitingForTheTimer() {
+        receiptProperties.setBatchSize(2);
+        deliveryReceiptWriter.start();
+
+        deliveryReceiptWriter.record(receipt(1L));
+        deliveryReceiptWriter.record(receipt(2L));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, timeout(2000)).update(sql.capture(), args.capture());
+        assertTrue(sql.getValue().startsWith("INSERT INTO delivery_receipts"));
+        assertEquals(2, rows(sql.getValue()));
+        assertEquals(22, args.getValue().length);
+    }
+
+    @Test
+    void stop_WritesWhatIsStillBuffered() throws InterruptedException {
+        deliveryReceiptWriter.start();
+        deliveryReceiptWriter.record(receipt(1L));
+        deliveryReceiptWriter.record(receipt(2L));
+        deliveryReceiptWriter.record(receipt(3L));
+        verifyNoInteractions(jdbcTemplate);
+
+        deliveryReceiptWriter.stop();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(sql.capture(), args.capture());
+        assertEquals(3, rows(sql.getValue()));
+        List<Object> values = Arrays.asList(args.getValue());
+        assertEquals(Long.valueOf(1L), values.get(0));
+        assertEquals("SMS", values.get(2));
+        assertEquals("sms-log", values.get(4));
+        assertEquals(NOW, values.get(10));
+        assertEquals(Long.valueOf(3L), values.get(22));
+    }
+
+    @Test
+    void record_BufferFull_DropsInsteadOfBlocking() {
+        receiptProperties.setBufferCapacity(1);
+        deliveryReceiptWriter.start();
+
+        deliveryReceiptWriter.record(receipt(1L));
+        deliveryReceiptWriter.record(receipt(2L));
+
+        verify(schedulerMetrics).recordReceiptsDropped("buffer_full", 1);
+        assertEquals(1, deliveryReceiptWriter.flush());
+    }
+
+    @Test
+    void flush_InsertFails_DropsTheBatchAndCountsIt() {
+        deliveryReceiptWriter.start();
+        when(jdbcTemplate.update(any(String.class), any(Object[].class))).thenThrow(new QueryTimeoutException("timeout"));
+        deliveryReceiptWriter.record(receipt(1L));
+        deliveryReceiptWriter.record(receipt(2L));
+
+        assertEquals(0, deliveryReceiptWriter.flush());
+
+        verify(schedulerMetrics).recordReceiptsDropped("insert_failed", 2);
+        assertEquals(0, deliveryReceiptWriter.flush());
+    }
+
+    @Test
+    void record_Disabled_KeepsNothing() {
+        receiptProperties.setEnabled(false);
+        deliveryReceiptWriter.start();
+
+        deliveryReceiptWriter.record(receipt(1L));
+
+        assertEquals(0, deliveryReceiptWriter.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static int rows(String sql) {
+        return sql.split("\\), \\(").length;
+    }
+
+    private static DeliveryReceipt receipt(Long reminderId) {
+        NotificationOutbox delivery = new NotificationOutbox(reminderId, NOW.minusMinutes(1), NotificationChannel.SMS,
+                "+90555000000" + reminderId, "Standup", "Daily standup", NOW.minusMinutes(1));
+        return new DeliveryReceipt(delivery, "sms-log", "m-" + reminderId, null, NOW);
+    }
+}
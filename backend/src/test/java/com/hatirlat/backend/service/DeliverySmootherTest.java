@@ -0,0 +1,157 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliverySmootherTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0, 0);
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private DeliverySmoother deliverySmoother;
+
+    @BeforeEach
+    void setUp() {
+        // The SMS provider's quota is two sends per second; email's provider has none
+        lenient().when(notificationService.sendRate(NotificationChannel.SMS)).thenReturn(2.0);
+    }
+
+    @Test
+    void schedule_WithoutDeadline_LeavesDeliveryOnTime() {
+        NotificationOutbox delivery = delivery(NotificationChannel.SMS, NINE);
+
+        deliverySmoother.schedule(delivery, null);
+
+        assertEquals(NINE, delivery.getAvailableAt());
+    }
+
+    @Test
+    void schedule_SmallCohort_StaysOnTime() {
+        NotificationOutbox first = delivery(NotificationChannel.SMS, NINE);
+        NotificationOutbox second = delivery(NotificationChannel.SMS, NINE);
+
+        deliverySmoother.schedule(first, NINE.plusMinutes(2));
+        deliverySmoother.schedule(second, NINE.plusMinutes(2));
+
+        assertEquals(NINE, first.getAvailableAt());
+        assertEquals(NINE, second.getAvailableAt());
+    }
+
+    @Test
+    void schedule_LargeCohort_IsSpreadAtTheChannelRate() {
+        List<NotificationOutbox> cohort = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            NotificationOutbox delivery = delivery(NotificationChannel.SMS, NINE);
+            deliverySmoother.schedule(delivery, NINE.plusMinutes(2));
+            cohort.add(delivery);
+        }
+
+        assertEquals(NINE, cohort.get(1).getAvailableAt());
+        assertEquals(NINE.plusSeconds(1), cohort.get(2).getAvailableAt());
+        assertEquals(NINE.plusSeconds(1), cohort.get(3).getAvailableAt());
+        assertEquals(NINE.plusSeconds(2), cohort.get(5).getAvailableAt());
+    }
+
+    @Test
+    void schedule_OnTimeLoad_PushesTolerantDeliveriesBack() {
+        deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE), null);
+        deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE), null);
+        NotificationOutbox tolerant = delivery(NotificationChannel.SMS, NINE);
+
+        deliverySmoother.schedule(tolerant, NINE.plusMinutes(1));
+
+        assertEquals(NINE.plusSeconds(1), tolerant.getAvailableAt());
+    }
+
+    @Test
+    void schedule_WindowFullyBooked_NeverPassesTheDeadline() {
+        LocalDateTime deadline = NINE.plusSeconds(2);
+        for (int i = 0; i < 20; i++) {
+            NotificationOutbox delivery = delivery(NotificationChannel.SMS, NINE);
+            deliverySmoother.schedule(delivery, deadline);
+            assertFalse(delivery.getAvailableAt().isAfter(deadline));
+        }
+    }
+
+    @Test
+    void schedule_HourLongWindow_FillsItSecondBySecond() {
+        LocalDateTime deadline = NINE.plusMinutes(60);
+        NotificationOutbox last = null;
+        for (int i = 0; i < 7200; i++) {
+            last = delivery(NotificationChannel.SMS, NINE);
+            deliverySmoother.schedule(last, deadline);
+        }
+
+        // Two per second fill the whole hour without skipping a second
+        assertEquals(NINE.plusSeconds(3599), last.getAvailableAt());
+    }
+
+    @Test
+    void schedule_WindowFullyBooked_SpreadsOverflowOverTheWindow() {
+        LocalDateTime deadline = NINE.plusSeconds(2);
+        for (int i = 0; i < 6; i++) {
+            deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE), deadline);
+        }
+        List<LocalDateTime> overflow = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            NotificationOutbox delivery = delivery(NotificationChannel.SMS, NINE);
+            deliverySmoother.schedule(delivery, deadline);
+            overflow.add(delivery.getAvailableAt());
+        }
+
+        assertEquals(List.of(NINE, NINE.plusSeconds(1), NINE.plusSeconds(2)), overflow);
+    }
+
+    @Test
+    void schedule_FreedGapBetweenFullRuns_IsFound() {
+        // On-time load fills seconds 0 and 2, leaving 1 free between two full runs
+        for (int i = 0; i < 2; i++) {
+            deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE.plusSeconds(2)), null);
+        }
+        for (int i = 0; i < 2; i++) {
+            deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE), null);
+        }
+        NotificationOutbox tolerant = delivery(NotificationChannel.SMS, NINE);
+
+        deliverySmoother.schedule(tolerant, NINE.plusMinutes(1));
+
+        assertEquals(NINE.plusSeconds(1), tolerant.getAvailableAt());
+    }
+
+    @Test
+    void schedule_ChannelsHaveSeparateBudgets() {
+        deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE), null);
+        deliverySmoother.schedule(delivery(NotificationChannel.SMS, NINE), null);
+        NotificationOutbox email = delivery(NotificationChannel.EMAIL, NINE);
+
+        deliverySmoother.schedule(email, NINE.plusMinutes(1));
+
+        assertEquals(NINE, email.getAvailableAt());
+    }
+
+    private NotificationOutbox delivery(NotificationChannel channel, LocalDateTime occurrence) {
+        return new NotificationOutbox(1L, occurrence, channel, "+905550000001", "Standup", "Daily standup", occurrence);
+    }
+}
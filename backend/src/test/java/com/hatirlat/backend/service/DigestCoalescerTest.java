@@ -0,0 +1,91 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class DigestCoalescerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0, 20);
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @InjectMocks
+    private DigestCoalescer digestCoalescer;
+
+    @Test
+    void hold_DigestChannel_WaitsForTheEndOfTheWindow() {
+        OutboxProperties.Channel sms = new OutboxProperties.Channel();
+        sms.setDigestWindowSeconds(60);
+        outboxProperties.getChannels().put(NotificationChannel.SMS, sms);
+        NotificationOutbox early = delivery(1L, 7L, "+905550000001", NotificationChannel.SMS);
+        NotificationOutbox late = delivery(2L, 7L, "+905550000001", NotificationChannel.SMS);
+        late.setAvailableAt(NOW.withSecond(59));
+
+        digestCoalescer.hold(early);
+        digestCoalescer.hold(late);
+
+        assertEquals(LocalDateTime.of(2030, 1, 7, 9, 1), early.getAvailableAt());
+        assertEquals(early.getAvailableAt(), late.getAvailableAt());
+    }
+
+    @Test
+    void hold_ChannelWithoutWindow_LeavesRowAlone() {
+        NotificationOutbox delivery = delivery(1L, 7L, "ayse@example.com", NotificationChannel.EMAIL);
+
+        digestCoalescer.hold(delivery);
+
+        assertEquals(NOW, delivery.getAvailableAt());
+    }
+
+    @Test
+    void coalesce_BurstToOneRecipient_BecomesOneDigestPerOwner() {
+        NotificationOutbox standup = delivery(1L, 7L, "ayse@example.com", NotificationChannel.EMAIL);
+        NotificationOutbox otherOwner = delivery(2L, 8L, "ayse@example.com", NotificationChannel.EMAIL);
+        NotificationOutbox review = delivery(3L, 7L, "ayse@example.com", NotificationChannel.EMAIL);
+        review.setSubject("Review");
+        review.setBody("Sprint review at 15:00");
+
+        List<NotificationOutbox> coalesced = digestCoalescer.coalesce(List.of(standup, otherOwner, review));
+
+        assertEquals(2, coalesced.size());
+        DeliveryDigest digest = assertInstanceOf(DeliveryDigest.class, coalesced.get(0));
+        assertEquals(List.of(standup, review), digest.getCovered());
+        assertEquals("2 reminders", digest.getSubject());
+        assertEquals("- Standup: Daily standup\n- Review: Sprint review at 15:00", digest.getBody());
+        assertEquals("ayse@example.com", digest.getRecipient());
+        assertSame(otherOwner, coalesced.get(1));
+    }
+
+    @Test
+    void coalesce_SameRowsInAnyOrder_GiveTheSameDigestKey() {
+        NotificationOutbox first = delivery(1L, 7L, "ayse@example.com", NotificationChannel.EMAIL);
+        NotificationOutbox second = delivery(2L, 7L, "ayse@example.com", NotificationChannel.EMAIL);
+
+        NotificationOutbox forward = digestCoalescer.coalesce(List.of(first, second)).get(0);
+        NotificationOutbox backward = digestCoalescer.coalesce(List.of(second, first)).get(0);
+
+        assertEquals(forward.getDeliveryKey(), backward.getDeliveryKey());
+        assertNotEquals(first.getDeliveryKey(), forward.getDeliveryKey());
+    }
+
+    private static NotificationOutbox delivery(Long reminderId, Long ownerId, String recipient, NotificationChannel channel) {
+        NotificationOutbox delivery = new NotificationOutbox(reminderId, NOW.withSecond(0), channel, recipient,
+                "Standup", "Daily standup", NOW);
+        delivery.setId(100L + reminderId);
+        delivery.setOwnerId(ownerId);
+        return delivery;
+    }
+}
@@ -0,0 +1,140 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.PlanTier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FairShareTaggerTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
+
+    @InjectMocks
+    private FairShareTagger fairShareTagger;
+
+    @Test
+    void tag_BulkOwner_DoesNotDelayAnotherOwnersSingleReminder() {
+        List<NotificationOutbox> bulk = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            bulk.add(delivery(i, 1L, PlanTier.FREE, NINE));
+        }
+        fairShareTagger.tag(bulk, NotificationOutbox::getOccurrence, NINE);
+
+        NotificationOutbox single = delivery(500L, 2L, PlanTier.FREE, NINE);
+        fairShareTagger.tag(List.of(single), NotificationOutbox::getOccurrence, NINE.plusSeconds(1));
+
+        long ahead = bulk.stream().filter(row -> row.getFairTag() < single.getFairTag()).count();
+        assertTrue(ahead <= 2, "single reminder should be relayed almost immediately, but " + ahead + " rows were ahead");
+    }
+
+    @Test
+    void tag_PremiumOwner_GetsItsWeightedShare() {
+        List<NotificationOutbox> rows = new ArrayList<>();
+        for (long i = 1; i <= 40; i++) {
+            rows.add(delivery(i, 1L, PlanTier.FREE, NINE));
+            rows.add(delivery(100 + i, 2L, PlanTier.PREMIUM, NINE));
+        }
+        fairShareTagger.tag(rows, NotificationOutbox::getOccurrence, NINE);
+
+        List<NotificationOutbox> firstTen = rows.stream()
+                .sorted(Comparator.comparingLong(NotificationOutbox::getFairTag))
+                .limit(10)
+                .toList();
+        long premium = firstTen.stream().filter(row -> row.getTier() == PlanTier.PREMIUM).count();
+        assertEquals(8, premium);
+    }
+
+    @Test
+    void tag_WithinOneOwner_EarliestDeadlineFirst() {
+        NotificationOutbox later = delivery(1L, 1L, PlanTier.FREE, NINE.plusMinutes(5));
+        NotificationOutbox sooner = delivery(2L, 1L, PlanTier.FREE, NINE);
+
+        fairShareTagger.tag(List.of(later, sooner), NotificationOutbox::getOccurrence, NINE);
+
+        assertTrue(sooner.getFairTag() < later.getFairTag());
+    }
+
+    @Test
+    void tag_ReminderWithoutOwner_IsItsOwnFlow() {
+        NotificationOutbox first = delivery(1L, null, PlanTier.FREE, NINE);
+        NotificationOutbox second = delivery(2L, null, PlanTier.FREE, NINE);
+
+        fairShareTagger.tag(List.of(first, second), NotificationOutbox::getOccurrence, NINE);
+
+        assertEquals(first.getFairTag(), second.getFairTag());
+    }
+
+    @Test
+    void tag_RolledBackTransaction_DoesNotAdvanceTheOwner() {
+        List<NotificationOutbox> bulk = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            bulk.add(delivery(i, 1L, PlanTier.FREE, NINE));
+        }
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> fairShareTagger.tag(bulk, NotificationOutbox::getOccurrence, NINE));
+
+        NotificationOutbox next = delivery(500L, 1L, PlanTier.FREE, NINE);
+        fairShareTagger.tag(List.of(next), NotificationOutbox::getOccurrence, NINE);
+
+        assertEquals(bulk.get(0).getFairTag(), next.getFairTag());
+    }
+
+    @Test
+    void tag_CommittedTransaction_AdvancesTheOwnerAcrossCalls() {
+        NotificationOutbox first = delivery(1L, 1L, PlanTier.FREE, NINE);
+        NotificationOutbox second = delivery(2L, 1L, PlanTier.FREE, NINE);
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            fairShareTagger.tag(List.of(first), NotificationOutbox::getOccurrence, NINE);
+            // A later page of the same transaction continues from the first page's tail
+            fairShareTagger.tag(List.of(second), NotificationOutbox::getOccurrence, NINE);
+        });
+
+        NotificationOutbox next = delivery(3L, 1L, PlanTier.FREE, NINE);
+        fairShareTagger.tag(List.of(next), NotificationOutbox::getOccurrence, NINE);
+
+        assertTrue(first.getFairTag() < second.getFairTag());
+        assertTrue(second.getFairTag() < next.getFairTag());
+    }
+
+    private static void inTransaction(int outcome, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(outcome);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private NotificationOutbox delivery(Long reminderId, Long ownerId, PlanTier tier, LocalDateTime occurrence) {
+        NotificationOutbox delivery = new NotificationOutbox(reminderId, occurrence, NotificationChannel.EMAIL,
+                "user" + reminderId + "@example.com", "Title", "Body", NINE);
+        delivery.setOwnerId(ownerId);
+        delivery.setTier(tier);
+        return delivery;
+    }
+}
@@ -0,0 +1,209 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.Member;
+import com.hatirlat.backend.entity.MemberStatus;
+import com.hatirlat.backend.entity.MessageLocale;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupFanOutTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0, 1);
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @InjectMocks
+    private GroupFanOut groupFanOut;
+
+    private Reminder reminder;
+
+    private ReminderMessage message;
+
+    @BeforeEach
+    void setUp() {
+        reminder = new Reminder();
+        reminder.setId(1L);
+        reminder.setGroupId(9L);
+        reminder.setTitle("Standup");
+        reminder.setMessage("Daily standup");
+        reminder.setNextFireAt(NOW.withSecond(0));
+        reminder.setChannels(List.of(NotificationChannel.EMAIL, NotificationChannel.SMS));
+        message = message("Standup", "Merhaba {name}", "Hi {name}");
+    }
+
+    @Test
+    void fanOut_LargeGroup_StreamsActiveMembersInKeysetPages() {
+        outboxProperties.setFanOutPageSize(1000);
+        List<Member> members = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            members.add(member(id, null, String.format("member%05d@example.com", id), null, null));
+        }
+        stubMembers(members);
+        List<Integer> pageSizes = new ArrayList<>();
+
+        int written = groupFanOut.fanOut(reminder, message, Set.of(), NOW, page -> pageSizes.add(page.size()));
+
+        assertEquals(10_000, written);
+        // Ten full pages of addresses, then an empty one that ends the scan
+        assertEquals(10, pageSizes.size());
+        assertTrue(pageSizes.stream().allMatch(size -> size == 1000));
+        verify(memberRepository, times(11)).findEmailRecipientsAfter(eq(9L), eq(MemberStatus.ACTIVE), any(), any(Pageable.class));
+        verify(memberRepository).findEmailRecipientsAfter(eq(9L), eq(MemberStatus.ACTIVE), eq("member09000@example.com"),
+                any(Pageable.class));
+        // Nobody has a phone number, so the SMS scan ends after one empty page
+        verify(memberRepository, times(1)).findPhoneRecipientsAfter(eq(9L), eq(MemberStatus.ACTIVE), eq(""), any(Pageable.class));
+    }
+
+    @Test
+    void fanOut_SkipsExcludedAndDuplicateAddresses() {
+        stubMembers(List.of(
+                member(2L, null, "ayse@example.com", "+905550000001", null),
+                member(3L, null, "mehmet@example.com", null, null),
+                member(4L, null, "mehmet@example.com", " ", null)));
+        List<NotificationOutbox> rows = new ArrayList<>();
+
+        int written = groupFanOut.fanOut(reminder, message, Set.of("EMAIL:ayse@example.com"), NOW, rows::addAll);
+
+        assertEquals(2, written);
+        assertEquals(List.of("+905550000001", "mehmet@example.com"),
+                rows.stream().map(NotificationOutbox::getRecipient).sorted().collect(Collectors.toList()));
+        assertTrue(rows.stream().allMatch(row -> row.getReminderId() == 1L && row.getOccurrence().equals(NOW.withSecond(0))));
+    }
+
+    @Test
+    void fanOut_AddressSharedAcrossPages_IsWrittenOnce() {
+        outboxProperties.setFanOutPageSize(2);
+        reminder.setChannels(List.of(NotificationChannel.EMAIL));
+        // By id the shared address falls on the first and the second page
+        stubMembers(List.of(
+                member(1L, "Ayse", "family@example.com", null, null),
+                member(2L, "Can", "can@example.com", null, null),
+                member(3L, "Deniz", "deniz@example.com", null, null),
+                member(4L, "Mehmet", "family@example.com", null, null),
+                member(5L, "Zeynep", "zeynep@example.com", null, null)));
+        List<NotificationOutbox> rows = new ArrayList<>();
+
+        int written = groupFanOut.fanOut(reminder, message, Set.of(), NOW, rows::addAll);
+
+        assertEquals(4, written);
+        assertEquals(List.of("can@example.com", "deniz@example.com", "family@example.com", "zeynep@example.com"),
+                rows.stream().map(NotificationOutbox::getRecipient).collect(Collectors.toList()));
+        // The lowest-id member at the address is the one addressed
+        assertEquals("Merhaba Ayse", rows.get(2).getBody());
+    }
+
+    @Test
+    void fanOut_RendersEachMemberInTheirOwnLocale() {
+        stubMembers(List.of(
+                member(2L, "Ayse", "ayse@example.com", "+905550000001", null),
+                member(3L, "John", "john@example.com", null, MessageLocale.EN)));
+        List<NotificationOutbox> rows = new ArrayList<>();
+
+        groupFanOut.fanOut(reminder, message, Set.of(), NOW, rows::addAll);
+
+        assertEquals(List.of("Merhaba Ayse", "Hi John", "Merhaba Ayse"),
+                rows.stream().map(NotificationOutbox::getBody).collect(Collectors.toList()));
+        assertTrue(rows.stream().allMatch(row -> row.getSubject().equals("Standup")));
+    }
+
+    @Test
+    void fanOut_NotAGroupReminder_ReadsNothing() {
+        reminder.setGroupId(null);
+
+        assertEquals(0, groupFanOut.fanOut(reminder, message, Set.of(), NOW, page -> fail("no page expected")));
+        verifyNoInteractions(memberRepository);
+    }
+
+    static ReminderMessage message(String subject, String trBody, String enBody) {
+        Map<MessageLocale, CompiledTemplate> bodies = new EnumMap<>(MessageLocale.class);
+        bodies.put(MessageLocale.TR, CompiledTemplate.parse(trBody));
+        bodies.put(MessageLocale.EN, CompiledTemplate.parse(enBody));
+        Map<MessageLocale, String[]> values = new EnumMap<>(MessageLocale.class);
+        values.put(MessageLocale.TR, new String[CompiledTemplate.Placeholder.values().length]);
+        values.put(MessageLocale.EN, new String[CompiledTemplate.Placeholder.values().length]);
+        return new ReminderMessage(CompiledTemplate.parse(subject), bodies, values, MessageLocale.TR);
+    }
+
+    /**
+     * Answers both keyset queries from {@code members} as the database would: non-null addresses after
+     * the given one, ordered by address and then id.
+     */
+    private void stubMembers(List<Member> members) {
+        lenient().when(memberRepository.findEmailRecipientsAfter(eq(9L), eq(MemberStatus.ACTIVE), any(), any(Pageable.class)))
+                .thenAnswer(invocation -> page(members, Member::getEmail, invocation.getArgument(2), invocation.getArgument(3)));
+        lenient().when(memberRepository.findPhoneRecipientsAfter(eq(9L), eq(MemberStatus.ACTIVE), any(), any(Pageable.class)))
+                .thenAnswer(invocation -> page(members, Member::getPhone, invocation.getArgument(2), invocation.getArgument(3)));
+    }
+
+    private static List<MemberRepository.Recipient> page(List<Member> members, Function<Member, String> address,
+                                                         String afterAddress, Pageable page) {
+        return members.stream()
+                .filter(member -> address.apply(member) != null && address.apply(member).compareTo(afterAddress) > 0)
+                .sorted(Comparator.comparing(address).thenComparing(Member::getId))
+                .limit(page.getPageSize())
+                .map(member -> recipient(member, address.apply(member)))
+                .collect(Collectors.toList());
+    }
+
+    private static Member member(Long id, String name, String email, String phone, MessageLocale locale) {
+        Member member = new Member(name, email, phone);
+        member.setId(id);
+        member.setLocale(locale);
+        return member;
+    }
+
+    private static MemberRepository.Recipient recipient(Member member, String address) {
+        return new MemberRepository.Recipient() {
+            @Override
+            public Long getId() {
+                return member.getId();
+            }
+
+            @Override
+            public String getName() {
+                return member.getName();
+            }
+
+            @Override
+            public String getAddress() {
+                return address;
+            }
+
+            @Override
+            public MessageLocale getLocale() {
+                return member.getLocale();
+            }
+        };
+    }
+}
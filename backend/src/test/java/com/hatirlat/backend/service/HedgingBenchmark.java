@@ -0,0 +1,139 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.ProviderProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.provider.ChannelProvider;
+import com.hatirlat.backend.provider.DeliveryResult;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Send latency over a primary SMS provider where one send in 25 takes 80 ms instead of 2 ms, with and
+ * without hedging on a 2 ms secondary. Compare the p99 of the sample-time histograms: hedging at the
+ * primary's p95 should cut it well below the 80 ms tail. Not part of the test run; start it from
+ * {@link #main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HedgingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedge;
+
+    private NotificationService notificationService;
+    private StubProvider primary;
+    private StubProvider secondary;
+
+    @Setup
+    public void setUp() {
+        primary = new StubProvider("sms-a", 25);
+        secondary = new StubProvider("sms-b", 0);
+        OutboxProperties outboxProperties = new OutboxProperties();
+        OutboxProperties.Channel sms = new OutboxProperties.Channel();
+        sms.setProvider("sms-a");
+        sms.setFailoverProviders(List.of("sms-b"));
+        sms.setHedge(hedge);
+        sms.setHedgeDelayMs(20);
+        outboxProperties.getChannels().put(NotificationChannel.SMS, sms);
+
+        notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "providers", List.of(primary, secondary));
+        ReflectionTestUtils.setField(notificationService, "outboxProperties", outboxProperties);
+        ReflectionTestUtils.setField(notificationService, "circuitBreakerRegistry", CircuitBreakerRegistry.ofDefaults());
+        ReflectionTestUtils.setField(notificationService, "timeLimiterRegistry", TimeLimiterRegistry.of(
+                TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build()));
+        ReflectionTestUtils.setField(notificationService, "bulkheadRegistry", BulkheadRegistry.ofDefaults());
+        ReflectionTestUtils.setField(notificationService, "providerProperties", new ProviderProperties());
+        ReflectionTestUtils.setField(notificationService, "schedulerMetrics", Mockito.mock(SchedulerMetrics.class));
+        notificationService.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        notificationService.stop();
+        primary.stop();
+        secondary.stop();
+    }
+
+    @Benchmark
+    public DeliveryResult send() throws Exception {
+        return notificationService.deliver(new NotificationOutbox(1L, LocalDateTime.now(), NotificationChannel.SMS,
+                "recipient", "Benchmark Reminder", "Benchmark message", LocalDateTime.now())).get(1, TimeUnit.SECONDS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HedgingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * SMS provider answering after 2 ms, or after 80 ms for every {@code slowEvery}th send.
+     */
+    private static final class StubProvider implements ChannelProvider {
+        private final String name;
+        private final int slowEvery;
+        private final AtomicInteger sends = new AtomicInteger();
+        private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+        private StubProvider(String name, int slowEvery) {
+            this.name = name;
+            this.slowEvery = slowEvery;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public NotificationChannel getChannel() {
+            return NotificationChannel.SMS;
+        }
+
+        @Override
+        public CompletableFuture<DeliveryResult> send(NotificationOutbox delivery) {
+            int send = sends.incrementAndGet();
+            long latencyMs = slowEvery > 0 && send % slowEvery == 0 ? 80 : 2;
+            CompletableFuture<DeliveryResult> result = new CompletableFuture<>();
+            timer.schedule(() -> result.complete(new DeliveryResult(name, null)), latencyMs, TimeUnit.MILLISECONDS);
+            return result;
+        }
+
+        private void stop() {
+            timer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.hatirlat.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyWindowTest {
+
+    @Test
+    void percentileNanos_TooFewSamples_IsUnknown() {
+        LatencyWindow window = new LatencyWindow(100, 0.95, 20);
+
+        for (int i = 0; i < 19; i++) {
+            window.record(1_000);
+        }
+
+        assertEquals(-1, window.percentileNanos());
+        window.record(1_000);
+        assertEquals(1_000, window.percentileNanos());
+    }
+
+    @Test
+    void percentileNanos_IgnoresTheSlowestFivePercent() {
+        LatencyWindow window = new LatencyWindow(100, 0.95, 20);
+
+        for (int i = 1; i <= 100; i++) {
+            window.record(i % 20 == 0 ? 1_000_000 : i);
+        }
+
+        assertTrue(window.percentileNanos() < 1_000_000);
+    }
+
+    @Test
+    void percentileNanos_OnlyKeepsRecentSamples() {
+        LatencyWindow window = new LatencyWindow(16, 0.95, 4);
+
+        for (int i = 0; i < 16; i++) {
+            window.record(5_000_000);
+        }
+        for (int i = 0; i < 16; i++) {
+            window.record(2_000);
+        }
+
+        assertEquals(2_000, window.percentileNanos());
+    }
+
+    @Test
+    void recordSince_TimesTheSendWithTheWindowsOwnClock() {
+        long[] now = {1_000_000};
+        LatencyWindow window = new LatencyWindow(16, 0.95, 1, () -> now[0]);
+
+        long start = window.start();
+        now[0] += 7_000_000;
+        window.recordSince(start);
+
+        assertEquals(7_000_000, window.percentileNanos());
+    }
+}
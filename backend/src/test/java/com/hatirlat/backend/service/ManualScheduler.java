@@ -0,0 +1,151 @@
+package com.hatirlat.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler on a virtual clock: scheduled tasks only run when the test calls {@link #advance}, on the
+ * test's own thread, so timer-driven behaviour is asserted without sleeping. {@link #nanoTime} is the
+ * matching time source.
+ */
+final class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final PriorityQueue<Task<?>> tasks =
+            new PriorityQueue<>(Comparator.<Task<?>>comparingLong(task -> task.due).thenComparingLong(task -> task.order));
+    private long nanos = 1_000_000_000L;
+    private long scheduled;
+    private boolean shutdown;
+
+    synchronized long nanoTime() {
+        return nanos;
+    }
+
+    /**
+     * Moves the clock forward, running every task that falls due on the way in due order.
+     */
+    void advance(Duration duration) {
+        long until;
+        synchronized (this) {
+            until = nanos + duration.toNanos();
+        }
+        while (true) {
+            Task<?> next;
+            synchronized (this) {
+                next = tasks.peek();
+                if (next == null || next.due > until) {
+                    nanos = until;
+                    return;
+                }
+                tasks.poll();
+                nanos = Math.max(nanos, next.due);
+            }
+            next.run();
+        }
+    }
+
+    synchronized int pendingTasks() {
+        return tasks.size();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return enqueue(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(callable, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        command.run();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        tasks.clear();
+    }
+
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        List<Runnable> pending = new ArrayList<>(tasks);
+        shutdown();
+        return pending;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    private synchronized <V> Task<V> enqueue(Callable<V> callable, long delay, TimeUnit unit) {
+        Task<V> task = new Task<>(callable, nanos + Math.max(0, unit.toNanos(delay)), scheduled++);
+        if (!shutdown) {
+            tasks.add(task);
+        }
+        return task;
+    }
+
+    private final class Task<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        private final long due;
+        private final long order;
+
+        private Task(Callable<V> callable, long due, long order) {
+            super(callable);
+            this.due = due;
+            this.order = order;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(due - nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            synchronized (ManualScheduler.this) {
+                tasks.remove(this);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -99,6 +99,18 @@ class MemberServiceTest {
         verify(groupMemberRepository, times(1)).save(any(GroupMember.class));
     }
 
+    @Test
+    void addMemberToGroup_WithLocale_StoresItForMessages() {
+        memberRequest.setLocale("en");
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+        when(memberRepository.save(any(Member.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MemberResponse response = memberService.addMemberToGroup("1", memberRequest);
+
+        assertEquals("en", response.getLocale());
+        verify(memberRepository).save(argThat(saved -> saved.getLocale() == MessageLocale.EN));
+    }
+
     @Test
     void addMemberToGroup_NonExistingGroup_ReturnsNull() {
         when(groupRepository.findById(999L)).thenReturn(Optional.empty());
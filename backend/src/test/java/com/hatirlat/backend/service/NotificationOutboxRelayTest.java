@@ -0,0 +1,171 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.SchedulerProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.exception.DuplicateDeliveryException;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxRelayTest {
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private ChannelPipelines channelPipelines;
+
+    @Mock
+    private ChannelPipeline emailPipeline;
+
+    @Mock
+    private NotificationOutboxUpdater notificationOutboxUpdater;
+
+    @Spy
+    private DigestCoalescer digestCoalescer = new DigestCoalescer();
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Spy
+    private SchedulerProperties schedulerProperties = new SchedulerProperties();
+
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
+
+    @InjectMocks
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @Test
+    void fill_ClaimsNoMoreThanTheQueueCanTake() {
+        NotificationOutbox first = delivery(1L);
+        NotificationOutbox second = delivery(2L);
+        when(channelPipelines.get(NotificationChannel.EMAIL)).thenReturn(emailPipeline);
+        when(emailPipeline.remainingCapacity()).thenReturn(2);
+        when(notificationOutboxRepository.claimPending(eq(schedulerProperties.getNodeId()), eq(NotificationChannel.EMAIL),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(2))).thenReturn(List.of(first, second));
+        when(emailPipeline.offer(any(NotificationOutbox.class))).thenReturn(true);
+
+        int queued = notificationOutboxRelay.fill(NotificationChannel.EMAIL);
+
+        assertEquals(2, queued);
+        verify(emailPipeline).offer(first);
+        verify(emailPipeline).offer(second);
+    }
+
+    @Test
+    void fill_FullQueue_DoesNotQueryTheOutbox() {
+        when(channelPipelines.get(NotificationChannel.EMAIL)).thenReturn(emailPipeline);
+        when(emailPipeline.remainingCapacity()).thenReturn(0);
+
+        assertEquals(0, notificationOutboxRelay.fill(NotificationChannel.EMAIL));
+
+        verifyNoInteractions(notificationOutboxRepository);
+    }
+
+    @Test
+    void fill_DigestWindow_SendsOneMessagePerRecipient() {
+        OutboxProperties.Channel email = new OutboxProperties.Channel();
+        email.setDigestWindowSeconds(60);
+        outboxProperties.getChannels().put(NotificationChannel.EMAIL, email);
+        NotificationOutbox first = delivery(1L);
+        NotificationOutbox other = delivery(2L);
+        NotificationOutbox second = delivery(3L);
+        second.setRecipient(first.getRecipient());
+        when(channelPipelines.get(NotificationChannel.EMAIL)).thenReturn(emailPipeline);
+        when(emailPipeline.remainingCapacity()).thenReturn(10);
+        when(notificationOutboxRepository.claimPending(eq(schedulerProperties.getNodeId()), eq(NotificationChannel.EMAIL),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(10))).thenReturn(List.of(first, other, second));
+        when(emailPipeline.offer(any(NotificationOutbox.class))).thenReturn(true);
+
+        assertEquals(2, notificationOutboxRelay.fill(NotificationChannel.EMAIL));
+
+        ArgumentCaptor<NotificationOutbox> offered = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(emailPipeline, times(2)).offer(offered.capture());
+        DeliveryDigest digest = assertInstanceOf(DeliveryDigest.class, offered.getAllValues().get(0));
+        assertEquals(List.of(first, second), digest.getCovered());
+        assertSame(other, offered.getAllValues().get(1));
+    }
+
+    @Test
+    void flushCompleted_Digest_WritesEveryCoveredRowWithTheDigestId() {
+        NotificationOutbox first = delivery(1L);
+        NotificationOutbox second = delivery(2L);
+        second.setRecipient(first.getRecipient());
+        NotificationOutbox digest = digestCoalescer.coalesce(List.of(first, second)).get(0);
+        when(channelPipelines.drainCompleted()).thenReturn(List.of(new ChannelPipeline.Outcome(digest, null)));
+
+        assertEquals(2, notificationOutboxRelay.flushCompleted());
+
+        verify(notificationOutboxUpdater).apply(eq(schedulerProperties.getNodeId()), eq(List.of(first, second)), anyList(),
+                any(LocalDateTime.class));
+        assertEquals(digest.getDeliveryKey(), first.getDigestId());
+        assertEquals(digest.getDeliveryKey(), second.getDigestId());
+    }
+
+    @Test
+    void flushCompleted_WritesAllOutcomesInOneBatch() {
+        NotificationOutbox ok = delivery(1L);
+        NotificationOutbox broken = delivery(2L);
+        RuntimeException failure = new RuntimeException("provider down");
+        when(channelPipelines.drainCompleted()).thenReturn(List.of(
+                new ChannelPipeline.Outcome(ok, null), new ChannelPipeline.Outcome(broken, failure)));
+
+        assertEquals(2, notificationOutboxRelay.flushCompleted());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Throwable>> failures = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxUpdater, times(1)).apply(eq(schedulerProperties.getNodeId()), eq(List.of(ok, broken)),
+                failures.capture(), any(LocalDateTime.class));
+        assertNull(failures.getValue().get(0));
+        assertSame(failure, failures.getValue().get(1));
+    }
+
+    @Test
+    void flushCompleted_NothingFinished_WritesNothing() {
+        when(channelPipelines.drainCompleted()).thenReturn(List.of());
+
+        assertEquals(0, notificationOutboxRelay.flushCompleted());
+
+        verify(notificationOutboxUpdater, never()).apply(anyString(), anyList(), anyList(), any());
+    }
+
+    @Test
+    void flushCompleted_DuplicateOfInFlightDelivery_IsNotWrittenBack() {
+        NotificationOutbox ok = delivery(1L);
+        NotificationOutbox duplicate = delivery(2L);
+        when(channelPipelines.drainCompleted()).thenReturn(List.of(new ChannelPipeline.Outcome(ok, null),
+                new ChannelPipeline.Outcome(duplicate, new DuplicateDeliveryException("in flight"))));
+
+        assertEquals(1, notificationOutboxRelay.flushCompleted());
+
+        verify(notificationOutboxUpdater).apply(eq(schedulerProperties.getNodeId()), eq(List.of(ok)), anyList(),
+                any(LocalDateTime.class));
+    }
+
+    private NotificationOutbox delivery(Long id) {
+        NotificationOutbox delivery = new NotificationOutbox(10L + id, LocalDateTime.now().minusSeconds(1),
+                NotificationChannel.EMAIL, "user" + id + "@example.com", "Title", "Body", LocalDateTime.now());
+        delivery.setId(id);
+        return delivery;
+    }
+}
@@ -0,0 +1,160 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.DeadLetter;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.repository.DeadLetterRepository;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxUpdaterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private DeadLetterRepository deadLetterRepository;
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
+
+    @InjectMocks
+    private NotificationOutboxUpdater notificationOutboxUpdater;
+
+    @Test
+    void apply_LargeBatch_UsesOneStatementPerOutcome() {
+        List<NotificationOutbox> batch = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        RuntimeException down = new RuntimeException("provider down");
+        for (long id = 1; id <= 500; id++) {
+            batch.add(delivery(id, 0));
+            failures.add(id % 5 == 0 ? down : null);
+        }
+
+        int statements = notificationOutboxUpdater.apply("node-a", batch, failures, NOW);
+
+        assertEquals(2, statements);
+        verify(notificationOutboxRepository).markSent(argThat(ids -> ids.size() == 400), eq(NOW), eq("node-a"));
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(notificationOutboxRepository).scheduleRetry(argThat(ids -> ids.size() == 100), retryAt.capture(),
+                anyLong(), eq("provider down"), eq("node-a"));
+        // First retry after half to all of the base delay
+        int base = outboxProperties.getRetryDelaySeconds();
+        assertFalse(retryAt.getValue().isBefore(NOW.plusSeconds(base / 2)));
+        assertFalse(retryAt.getValue().isAfter(NOW.plusSeconds(base)));
+        verifyNoInteractions(reminderRepository, deadLetterRepository);
+    }
+
+    @Test
+    void apply_RowsSentInADigest_RecordItOncePerDigest() {
+        UUID digestId = UUID.randomUUID();
+        NotificationOutbox first = delivery(1L, 0);
+        NotificationOutbox second = delivery(2L, 0);
+        first.setDigestId(digestId);
+        second.setDigestId(digestId);
+
+        int statements = notificationOutboxUpdater.apply("node-a", List.of(first, second, delivery(3L, 0)),
+                Arrays.asList(null, null, null), NOW);
+
+        assertEquals(2, statements);
+        InOrder inOrder = inOrder(notificationOutboxRepository);
+        // Recorded while node-a still holds the rows, before markSent releases them
+        inOrder.verify(notificationOutboxRepository).recordDigest(List.of(1L, 2L), digestId, "node-a");
+        inOrder.verify(notificationOutboxRepository).markSent(List.of(1L, 2L, 3L), NOW, "node-a");
+    }
+
+    @Test
+    void apply_LaterAttempts_BackOffExponentiallyBehindFreshRows() {
+        outboxProperties.setRetryDelaySeconds(10);
+        outboxProperties.setRetryMaxDelaySeconds(60);
+        RuntimeException down = new RuntimeException("provider down");
+
+        notificationOutboxUpdater.apply("node-a", List.of(delivery(1L, 2), delivery(2L, 6)),
+                Arrays.asList(down, down), NOW);
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<Long> fairTag = ArgumentCaptor.forClass(Long.class);
+        verify(notificationOutboxRepository, times(2)).scheduleRetry(any(), retryAt.capture(), fairTag.capture(),
+                eq("provider down"), eq("node-a"));
+        // Third failure: 10s doubled twice, jittered into [20s, 40s]
+        assertFalse(retryAt.getAllValues().get(0).isBefore(NOW.plusSeconds(20)));
+        assertFalse(retryAt.getAllValues().get(0).isAfter(NOW.plusSeconds(40)));
+        // Seventh failure: capped at 60s, jittered into [30s, 60s]
+        assertFalse(retryAt.getAllValues().get(1).isBefore(NOW.plusSeconds(30)));
+        assertFalse(retryAt.getAllValues().get(1).isAfter(NOW.plusSeconds(60)));
+        assertEquals(retryAt.getAllValues().get(0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                fairTag.getAllValues().get(0).longValue());
+    }
+
+    @Test
+    void apply_LastAttemptFails_MovesRowToDeadLetters() {
+        NotificationOutbox exhausted = delivery(1L, outboxProperties.getMaxAttempts() - 1);
+        when(notificationOutboxRepository.findIdsClaimedBy(List.of(1L), "node-a")).thenReturn(List.of(1L));
+
+        notificationOutboxUpdater.apply("node-a", List.of(exhausted),
+                Arrays.asList(new RuntimeException("invalid number")), NOW);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DeadLetter>> deadLetters = ArgumentCaptor.forClass(List.class);
+        verify(deadLetterRepository).saveAll(deadLetters.capture());
+        DeadLetter deadLetter = deadLetters.getValue().get(0);
+        assertEquals(Long.valueOf(1L), deadLetter.getOutboxId());
+        assertEquals("invalid number", deadLetter.getLastError());
+        assertEquals(outboxProperties.getMaxAttempts(), deadLetter.getAttempts());
+        verify(notificationOutboxRepository).deleteClaimed(Set.of(1L), "node-a");
+        verify(reminderRepository).markDeliveryFailed(Set.of(exhausted.getReminderId()));
+        verify(notificationOutboxRepository, never()).scheduleRetry(any(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void apply_LastAttemptFailsAfterLeaseWasTakenOver_LeavesRowAlone() {
+        NotificationOutbox exhausted = delivery(1L, outboxProperties.getMaxAttempts() - 1);
+        when(notificationOutboxRepository.findIdsClaimedBy(List.of(1L), "node-a")).thenReturn(List.of());
+
+        notificationOutboxUpdater.apply("node-a", List.of(exhausted),
+                Arrays.asList(new RuntimeException("invalid number")), NOW);
+
+        verifyNoInteractions(deadLetterRepository, reminderRepository);
+        verify(notificationOutboxRepository, never()).deleteClaimed(any(), any());
+    }
+
+    private NotificationOutbox delivery(Long id, int attempts) {
+        NotificationOutbox delivery = new NotificationOutbox(100L + id, NOW.minusMinutes(1), NotificationChannel.SMS,
+                "+90555000" + id, "Title", "Body", NOW.minusMinutes(1));
+        delivery.setId(id);
+        delivery.setAttempts(attempts);
+        return delivery;
+    }
+}
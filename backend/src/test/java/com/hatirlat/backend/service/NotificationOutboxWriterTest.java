@@ -0,0 +1,198 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.Contact;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.NotificationOutbox;
+import com.hatirlat.backend.entity.PlanTier;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.entity.ReminderStatus;
+import com.hatirlat.backend.repository.ContactRepository;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import com.hatirlat.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 9, 0, 1);
+    private static final LocalDateTime LEASE = NOW.plusMinutes(2);
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private GroupFanOut groupFanOut;
+
+    @Mock
+    private DigestCoalescer digestCoalescer;
+
+    @Mock
+    private TemplateEngine templateEngine;
+
+    @Mock
+    private RecurrenceEngine recurrenceEngine;
+
+    @Mock
+    private ReminderStatusUpdater reminderStatusUpdater;
+
+    @Mock
+    private DeliverySmoother deliverySmoother;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FairShareTagger fairShareTagger;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private NotificationOutboxWriter notificationOutboxWriter;
+
+    private Reminder reminder;
+
+    @BeforeEach
+    void setUp() {
+        reminder = new Reminder();
+        reminder.setId(1L);
+        reminder.setTitle("Standup");
+        reminder.setMessage("Daily standup");
+        reminder.setStatus(ReminderStatus.SCHEDULED);
+        reminder.setDateTime(NOW.withSecond(0));
+        reminder.setNextFireAt(NOW.withSecond(0));
+        reminder.setChannels(List.of(NotificationChannel.EMAIL, NotificationChannel.SMS));
+        lenient().when(templateEngine.prepare(any(Reminder.class)))
+                .thenReturn(GroupFanOutTest.message("Standup", "Merhaba {name}", "Hi {name}"));
+    }
+
+    @Test
+    void claimAndEnqueue_NothingDue_WritesNothing() {
+        when(reminderRepository.claimDue("node-a", NOW, LEASE, 100, Set.of())).thenReturn(List.of());
+
+        DispatchResult result = notificationOutboxWriter.claimAndEnqueue("node-a", NOW, LEASE, 100, Set.of());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(notificationOutboxRepository, reminderStatusUpdater);
+    }
+
+    @Test
+    void claimAndEnqueue_GroupReminder_WritesContactRowsAndFannedOutPages() {
+        reminder.setContactId(5L);
+        reminder.setGroupId(9L);
+        Contact contact = new Contact("Ayse", "+905550000001", "ayse@example.com");
+        contact.setId(5L);
+        NotificationOutbox member = new NotificationOutbox(1L, reminder.getNextFireAt(), NotificationChannel.EMAIL,
+                "mehmet@example.com", "Standup", "Daily standup", NOW);
+        when(reminderRepository.claimDue("node-a", NOW, LEASE, 100, Set.of())).thenReturn(List.of(reminder));
+        when(recurrenceEngine.nextOccurrences(anyList(), eq(NOW))).thenReturn(Map.of());
+        when(contactRepository.findAllById(Set.of(5L))).thenReturn(List.of(contact));
+        when(groupFanOut.fanOut(eq(reminder), any(), any(), eq(NOW), any())).thenAnswer(invocation -> {
+            // The contact's addresses are excluded from the group's rows
+            assertEquals(Set.of("EMAIL:ayse@example.com", "SMS:+905550000001"), invocation.getArgument(2));
+            Consumer<List<NotificationOutbox>> sink = invocation.getArgument(4);
+            sink.accept(List.of(member));
+            return 1;
+        });
+
+        DispatchResult result = notificationOutboxWriter.claimAndEnqueue("node-a", NOW, LEASE, 100, Set.of());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NotificationOutbox>> rows = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxRepository, times(2)).saveAll(rows.capture());
+        // The member's page is written and released as soon as it is fanned out
+        assertEquals(List.of(member), rows.getAllValues().get(0));
+        verify(entityManager).detach(member);
+        // ayse by email and sms once each
+        assertEquals(2, rows.getAllValues().get(1).size());
+        assertTrue(rows.getValue().stream().allMatch(row -> row.getOccurrence().equals(reminder.getNextFireAt())));
+        assertEquals(3, result.getEnqueued());
+        assertEquals(List.of(1L), result.getSentIds());
+        verify(reminderStatusUpdater).apply("node-a", result);
+    }
+
+    @Test
+    void claimAndEnqueue_RecurringReminder_IsRearmedInSameCall() {
+        LocalDateTime next = reminder.getNextFireAt().plusDays(1);
+        when(reminderRepository.claimDue("node-a", NOW, LEASE, 100, Set.of())).thenReturn(List.of(reminder));
+        when(recurrenceEngine.nextOccurrences(anyList(), eq(NOW))).thenReturn(Map.of(1L, next));
+
+        DispatchResult result = notificationOutboxWriter.claimAndEnqueue("node-a", NOW, LEASE, 100, Set.of());
+
+        assertEquals(Map.of(1L, next), result.getRearmed());
+        assertTrue(result.getSentIds().isEmpty());
+        verify(reminderStatusUpdater).apply(eq("node-a"), any(DispatchResult.class));
+    }
+
+    @Test
+    void claimAndEnqueue_ToleranceWindow_SpreadsAfterOnTimeDeliveries() {
+        Reminder tolerant = new Reminder();
+        tolerant.setId(2L);
+        tolerant.setNextFireAt(NOW.withSecond(0));
+        tolerant.setToleranceMinutes(2);
+        tolerant.setChannels(List.of(NotificationChannel.EMAIL));
+        tolerant.setContactId(5L);
+        reminder.setContactId(5L);
+        Contact contact = new Contact("Ayse", "+905550000001", "ayse@example.com");
+        contact.setId(5L);
+        when(reminderRepository.claimDue("node-a", NOW, LEASE, 100, Set.of())).thenReturn(List.of(tolerant, reminder));
+        when(recurrenceEngine.nextOccurrences(anyList(), eq(NOW))).thenReturn(Map.of());
+        when(contactRepository.findAllById(Set.of(5L))).thenReturn(List.of(contact));
+
+        notificationOutboxWriter.claimAndEnqueue("node-a", NOW, LEASE, 100, Set.of());
+
+        InOrder inOrder = inOrder(deliverySmoother);
+        inOrder.verify(deliverySmoother, times(2)).schedule(any(NotificationOutbox.class), isNull());
+        inOrder.verify(deliverySmoother).schedule(any(NotificationOutbox.class), eq(NOW.withSecond(0).plusMinutes(2)));
+    }
+
+    @Test
+    void claimAndEnqueue_PremiumOwner_RowsCarryTierAndAreTagged() {
+        reminder.setOwnerId(3L);
+        reminder.setContactId(5L);
+        Contact contact = new Contact("Ayse", "+905550000001", "ayse@example.com");
+        contact.setId(5L);
+        when(reminderRepository.claimDue("node-a", NOW, LEASE, 100, Set.of())).thenReturn(List.of(reminder));
+        when(recurrenceEngine.nextOccurrences(anyList(), eq(NOW))).thenReturn(Map.of());
+        when(contactRepository.findAllById(Set.of(5L))).thenReturn(List.of(contact));
+        when(userRepository.findPremiumIds(Set.of(3L))).thenReturn(Set.of(3L));
+
+        notificationOutboxWriter.claimAndEnqueue("node-a", NOW, LEASE, 100, Set.of());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NotificationOutbox>> rows = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutboxRepository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertTrue(rows.getValue().stream().allMatch(row -> row.getTier() == PlanTier.PREMIUM && row.getOwnerId() == 3L));
+        // Contacts are addressed by name in the default locale
+        assertTrue(rows.getValue().stream().allMatch(row -> row.getBody().equals("Merhaba Ayse")));
+        verify(fairShareTagger).tag(eq(rows.getValue()), any(), eq(NOW));
+    }
+}
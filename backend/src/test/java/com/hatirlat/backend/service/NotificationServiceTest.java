@@ -1,50 +1,430 @@
 package com.hatirlat.backend.service;
 
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.config.ProviderProperties;
 import com.hatirlat.backend.entity.*;
-import org.junit.jupiter.api.BeforeEach;
+import com.hatirlat.backend.provider.ChannelProvider;
+import com.hatirlat.backend.provider.DeliveryResult;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceTest {
 
+    @Mock
+    private ChannelProvider emailProvider;
+
+    @Mock
+    private ChannelProvider smtpProvider;
+
+    @Mock
+    private ChannelProvider smsProvider;
+
+    @Mock
+    private ChannelProvider whatsAppProvider;
+
+    @Mock
+    private ChannelProvider smsBackupProvider;
+
+    @Spy
+    private List<ChannelProvider> providers = new ArrayList<>();
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Spy
+    private CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(2)
+            .minimumNumberOfCalls(2)
+            .failureRateThreshold(50)
+            .build());
+
+    @Spy
+    private TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+            .timeoutDuration(Duration.ofMillis(100))
+            .build());
+
+    @Spy
+    private BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(2)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+
+    @Spy
+    private ProviderProperties providerProperties = new ProviderProperties();
+
+    @Mock
+    private SchedulerMetrics schedulerMetrics;
+
     @InjectMocks
     private NotificationService notificationService;
 
-    private Reminder reminder;
+    @AfterEach
+    void tearDown() {
+        notificationService.stop();
+    }
 
-    @BeforeEach
-    void setUp() {
-        reminder = new Reminder();
-        reminder.setTitle("Test Reminder");
-        reminder.setMessage("Test message");
-        reminder.setChannels(Arrays.asList(NotificationChannel.EMAIL, NotificationChannel.SMS));
+    @Test
+    void deliver_UsesTheConfiguredProviderOfTheChannel() throws Exception {
+        register(emailProvider, "email-log", NotificationChannel.EMAIL);
+        register(smtpProvider, "smtp", NotificationChannel.EMAIL);
+        OutboxProperties.Channel email = new OutboxProperties.Channel();
+        email.setProvider("smtp");
+        outboxProperties.getChannels().put(NotificationChannel.EMAIL, email);
+        when(smtpProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("smtp", "m-1")));
+        notificationService.start();
+
+        DeliveryResult result = notificationService.deliver(delivery(NotificationChannel.EMAIL)).get(1, TimeUnit.SECONDS);
+
+        assertEquals("m-1", result.getMessageId());
+        verify(emailProvider, never()).send(any());
     }
 
     @Test
-    void sendNotification_WithMultipleChannels_SendsAllNotifications() {
-        // Since the method is a dummy implementation that just prints to console,
-        // we can't directly test the internal workings, but we can ensure it doesn't throw exceptions
-        assertDoesNotThrow(() -> {
-            notificationService.sendNotification(reminder);
-        });
+    void deliver_ProviderNeverAnswers_TimesOut() {
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        when(smsProvider.send(any())).thenReturn(new CompletableFuture<>());
+        notificationService.start();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> notificationService.deliver(delivery(NotificationChannel.SMS)).get(2, TimeUnit.SECONDS));
+
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+    }
+
+    @Test
+    void deliver_RepeatedFailures_OpenOnlyThatProvidersCircuit() throws Exception {
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        register(emailProvider, "email-log", NotificationChannel.EMAIL);
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.failedFuture(new IOException("gateway down")));
+        when(emailProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("email-log", null)));
+        notificationService.start();
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<DeliveryResult> failed = notificationService.deliver(delivery(NotificationChannel.SMS));
+            assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+        }
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> notificationService.deliver(delivery(NotificationChannel.SMS)).get(1, TimeUnit.SECONDS));
+
+        assertInstanceOf(CallNotPermittedException.class, rejected.getCause());
+        verify(smsProvider, times(2)).send(any());
+        assertEquals("email-log", notificationService.deliver(delivery(NotificationChannel.EMAIL))
+                .get(1, TimeUnit.SECONDS).getProvider());
+    }
+
+    @Test
+    void deliver_HangingProvider_FillsOnlyItsOwnBulkhead() throws Exception {
+        register(whatsAppProvider, "whatsapp-log", NotificationChannel.WHATSAPP);
+        register(emailProvider, "email-log", NotificationChannel.EMAIL);
+        when(whatsAppProvider.send(any())).thenReturn(new CompletableFuture<>());
+        when(emailProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("email-log", null)));
+        notificationService.start();
+
+        notificationService.deliver(delivery(NotificationChannel.WHATSAPP));
+        notificationService.deliver(delivery(NotificationChannel.WHATSAPP));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> notificationService.deliver(delivery(NotificationChannel.WHATSAPP)).get(50, TimeUnit.MILLISECONDS));
+
+        assertInstanceOf(BulkheadFullException.class, rejected.getCause());
+        verify(whatsAppProvider, times(2)).send(any());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("email-log", notificationService.deliver(delivery(NotificationChannel.EMAIL))
+                    .get(1, TimeUnit.SECONDS).getProvider());
+        }
+    }
+
+    @Test
+    void deliver_ChannelWithoutProvider_Fails() {
+        notificationService.start();
+
+        CompletableFuture<DeliveryResult> result = notificationService.deliver(delivery(NotificationChannel.WHATSAPP));
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void deliver_OverTheQuota_ParksInsteadOfFailing() {
+        ManualScheduler timers = manualTimers();
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        limit("sms-log", 20, 0);
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-log", null)));
+        notificationService.start();
+
+        List<CompletableFuture<DeliveryResult>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(notificationService.deliver(delivery(NotificationChannel.SMS)));
+        }
+
+        // One token up front; the other four sends are parked rather than failed
+        assertTrue(results.get(0).isDone());
+        assertTrue(results.subList(1, 5).stream().noneMatch(CompletableFuture::isDone));
+        verify(smsProvider, times(1)).send(any());
+        // At 20 per second the next token is due 50 ms later
+        timers.advance(Duration.ofMillis(50));
+        assertTrue(results.get(1).isDone());
+        assertFalse(results.get(2).isDone());
+        timers.advance(Duration.ofMillis(150));
+        assertTrue(results.stream().allMatch(result -> result.isDone() && !result.isCompletedExceptionally()));
+        verify(smsProvider, times(5)).send(any());
+        verify(schedulerMetrics, times(5)).recordThrottle(eq("sms-log"), any());
+    }
+
+    @Test
+    void deliver_TokenDueAfterHalfTheLease_FailsOverInsteadOfParking() {
+        ManualScheduler timers = manualTimers();
+        failover().setHedge(false);
+        outboxProperties.setLeaseSeconds(2);
+        limit("sms-log", 1, 0);
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-log", null)));
+        when(smsBackupProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-backup", "b-1")));
+        notificationService.start();
+
+        CompletableFuture<DeliveryResult> first = notificationService.deliver(delivery(NotificationChannel.SMS));
+        CompletableFuture<DeliveryResult> second = notificationService.deliver(delivery(NotificationChannel.SMS));
+        CompletableFuture<DeliveryResult> third = notificationService.deliver(delivery(NotificationChannel.SMS));
+
+        // The second token is due after exactly the longest park, the third only after two seconds
+        assertEquals("sms-log", first.getNow(null).getProvider());
+        assertFalse(second.isDone());
+        assertEquals("sms-backup", third.getNow(null).getProvider());
+        timers.advance(Duration.ofSeconds(1));
+        assertEquals("sms-log", second.getNow(null).getProvider());
+        verify(smsProvider, times(2)).send(any());
+    }
+
+    @Test
+    void deliver_BulkheadFull_RefundsTheToken() {
+        ManualScheduler timers = manualTimers();
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        limit("sms-log", 100, 0);
+        when(smsProvider.send(any())).thenAnswer(invocation -> new CompletableFuture<>());
+        notificationService.start();
+
+        notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofMillis(10));
+        notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofMillis(10));
+        CompletableFuture<DeliveryResult> rejected = notificationService.deliver(delivery(NotificationChannel.SMS));
+        CompletableFuture<DeliveryResult> next = notificationService.deliver(delivery(NotificationChannel.SMS));
+
+        assertTrue(rejected.isCompletedExceptionally());
+        // The rejected send gave its token back, so the next one is not parked behind it
+        assertTrue(next.isDone());
+        verify(smsProvider, times(2)).send(any());
     }
 
     @Test
-    void sendNotification_WithNullChannels_SendsNoNotifications() {
-        Reminder reminderWithoutChannels = new Reminder();
-        reminderWithoutChannels.setTitle("Test Reminder");
-        reminderWithoutChannels.setMessage("Test message");
-        reminderWithoutChannels.setChannels(null);
+    void deliver_CancelledWhileParked_RefundsTheToken() {
+        ManualScheduler timers = manualTimers();
+        failover().setHedgeDelayMs(10);
+        limit("sms-log", 10, 0);
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-log", "p-1")));
+        when(smsBackupProvider.send(any())).thenReturn(
+                CompletableFuture.completedFuture(new DeliveryResult("sms-backup", "b-1")), new CompletableFuture<>());
+        notificationService.start();
 
-        assertDoesNotThrow(() -> {
-            notificationService.sendNotification(reminderWithoutChannels);
+        notificationService.deliver(delivery(NotificationChannel.SMS));
+        // Parked for 100 ms, then cancelled when the next provider answers at 10 ms
+        CompletableFuture<DeliveryResult> hedged = notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofMillis(10));
+        assertEquals("sms-backup", hedged.getNow(null).getProvider());
+
+        CompletableFuture<DeliveryResult> next = notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofMillis(90));
+
+        // Without the refund the next token would only be due at 200 ms
+        assertEquals("sms-log", next.getNow(null).getProvider());
+        verify(smsProvider, times(2)).send(any());
+    }
+
+    @Test
+    void sendRate_IsTheFirstProvidersShareOfItsQuota() {
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        register(emailProvider, "email-log", NotificationChannel.EMAIL);
+        limit("sms-log", 20, 0);
+        notificationService.start();
+
+        assertEquals(20 * providerProperties.getTargetUtilization(), notificationService.sendRate(NotificationChannel.SMS), 1e-9);
+        assertEquals(0, notificationService.sendRate(NotificationChannel.EMAIL));
+        assertEquals(0, notificationService.sendRate(NotificationChannel.WHATSAPP));
+    }
+
+    @Test
+    void deliver_PerSenderQuota_OnlyParksThatSender() {
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        limit("sms-log", 1000, 1);
+        when(smsProvider.senderOf(any())).thenAnswer(invocation ->
+                "sender-" + invocation.<NotificationOutbox>getArgument(0).getOwnerId());
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-log", null)));
+        notificationService.start();
+
+        CompletableFuture<DeliveryResult> first = notificationService.deliver(delivery(NotificationChannel.SMS, 1L));
+        CompletableFuture<DeliveryResult> second = notificationService.deliver(delivery(NotificationChannel.SMS, 1L));
+        CompletableFuture<DeliveryResult> other = notificationService.deliver(delivery(NotificationChannel.SMS, 2L));
+
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        assertTrue(other.isDone());
+    }
+
+    @Test
+    void deliver_PrimaryFails_FailsOverToTheNextProvider() throws Exception {
+        failover();
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.failedFuture(new IOException("gateway down")));
+        when(smsBackupProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-backup", "b-1")));
+        notificationService.start();
+
+        DeliveryResult result = notificationService.deliver(delivery(NotificationChannel.SMS)).get(1, TimeUnit.SECONDS);
+
+        assertEquals("sms-backup", result.getProvider());
+        verify(schedulerMetrics).recordFailover(NotificationChannel.SMS, "sms-log", "sms-backup");
+    }
+
+    @Test
+    void deliver_EveryProviderFails_FailsWithTheLastError() {
+        failover();
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.failedFuture(new IOException("gateway down")));
+        when(smsBackupProvider.send(any())).thenReturn(CompletableFuture.failedFuture(new IOException("rejected")));
+        notificationService.start();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> notificationService.deliver(delivery(NotificationChannel.SMS)).get(1, TimeUnit.SECONDS));
+
+        assertEquals("rejected", failure.getCause().getMessage());
+    }
+
+    @Test
+    void deliver_Hedged_SlowPrimaryLosesToTheNextProviderAndIsCancelled() throws Exception {
+        ManualScheduler timers = manualTimers();
+        failover().setHedgeDelayMs(10);
+        CompletableFuture<DeliveryResult> slow = new CompletableFuture<>();
+        when(smsProvider.send(any())).thenReturn(slow);
+        when(smsBackupProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-backup", "b-1")));
+        notificationService.start();
+
+        CompletableFuture<DeliveryResult> result = notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofMillis(9));
+        verify(smsBackupProvider, never()).send(any());
+        timers.advance(Duration.ofMillis(1));
+
+        assertEquals("sms-backup", result.getNow(null).getProvider());
+        assertTrue(slow.isCancelled());
+        verify(schedulerMetrics).recordHedge(NotificationChannel.SMS, "fired");
+        verify(schedulerMetrics).recordHedge(NotificationChannel.SMS, "won");
+    }
+
+    @Test
+    void deliver_Hedged_FastPrimaryNeverTouchesTheNextProvider() {
+        ManualScheduler timers = manualTimers();
+        failover().setHedgeDelayMs(200);
+        when(smsProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-log", "p-1")));
+        notificationService.start();
+
+        CompletableFuture<DeliveryResult> result = notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofSeconds(1));
+
+        assertEquals("sms-log", result.getNow(null).getProvider());
+        verify(smsBackupProvider, never()).send(any());
+        verify(schedulerMetrics, never()).recordHedge(any(), any());
+    }
+
+    @Test
+    void deliver_Hedged_FiresAtThePrimarysRecentP95() {
+        ManualScheduler timers = manualTimers();
+        failover().setHedgeDelayMs(500);
+        List<CompletableFuture<DeliveryResult>> primarySends = new ArrayList<>();
+        when(smsProvider.send(any())).thenAnswer(invocation -> {
+            CompletableFuture<DeliveryResult> sent = new CompletableFuture<>();
+            primarySends.add(sent);
+            return sent;
         });
+        when(smsBackupProvider.send(any())).thenReturn(CompletableFuture.completedFuture(new DeliveryResult("sms-backup", "b-1")));
+        notificationService.start();
+        // Twenty sends answered after 5 ms give the primary a p95
+        for (int i = 0; i < 20; i++) {
+            notificationService.deliver(delivery(NotificationChannel.SMS));
+            timers.advance(Duration.ofMillis(5));
+            primarySends.get(i).complete(new DeliveryResult("sms-log", "p-" + i));
+        }
+
+        CompletableFuture<DeliveryResult> result = notificationService.deliver(delivery(NotificationChannel.SMS));
+        timers.advance(Duration.ofMillis(4));
+        assertFalse(result.isDone());
+        timers.advance(Duration.ofMillis(1));
+
+        // Hedged after 5 ms instead of the 500 ms default
+        assertEquals("sms-backup", result.getNow(null).getProvider());
+        assertTrue(primarySends.get(20).isCancelled());
+        verify(schedulerMetrics, times(1)).recordHedge(NotificationChannel.SMS, "fired");
+    }
+
+    private ManualScheduler manualTimers() {
+        ManualScheduler timers = new ManualScheduler();
+        notificationService.useTimers(timers::nanoTime, provider -> timers);
+        return timers;
+    }
+
+    private OutboxProperties.Channel failover() {
+        register(smsProvider, "sms-log", NotificationChannel.SMS);
+        register(smsBackupProvider, "sms-backup", NotificationChannel.SMS);
+        OutboxProperties.Channel sms = new OutboxProperties.Channel();
+        sms.setProvider("sms-log");
+        sms.setFailoverProviders(List.of("sms-backup"));
+        sms.setHedge(true);
+        outboxProperties.getChannels().put(NotificationChannel.SMS, sms);
+        return sms;
+    }
+
+    private void limit(String provider, double quotaPerSecond, double perSenderQuotaPerSecond) {
+        ProviderProperties.RateLimit limit = new ProviderProperties.RateLimit();
+        limit.setQuotaPerSecond(quotaPerSecond);
+        limit.setPerSenderQuotaPerSecond(perSenderQuotaPerSecond);
+        providerProperties.setTargetUtilization(1);
+        providerProperties.getRateLimits().put(provider, limit);
+    }
+
+    private void register(ChannelProvider provider, String name, NotificationChannel channel) {
+        lenient().when(provider.getName()).thenReturn(name);
+        when(provider.getChannel()).thenReturn(channel);
+        providers.add(provider);
+    }
+
+    private NotificationOutbox delivery(NotificationChannel channel) {
+        return new NotificationOutbox(1L, LocalDateTime.now(), channel, "recipient", "Test Reminder", "Test message",
+                LocalDateTime.now());
+    }
+
+    private NotificationOutbox delivery(NotificationChannel channel, Long ownerId) {
+        NotificationOutbox delivery = delivery(channel);
+        delivery.setOwnerId(ownerId);
+        return delivery;
     }
-}
\ No newline at end of file
+}
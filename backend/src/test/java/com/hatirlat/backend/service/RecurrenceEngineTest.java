@@ -0,0 +1,154 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.CustomRepeatConfig;
+import com.hatirlat.backend.entity.DayOfWeek;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.entity.RepeatFrequency;
+import com.hatirlat.backend.entity.RepeatType;
+import com.hatirlat.backend.repository.CustomRepeatConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurrenceEngineTest {
+
+    // A Monday
+    private static final LocalDateTime ANCHOR = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private CustomRepeatConfigRepository customRepeatConfigRepository;
+
+    @InjectMocks
+    private RecurrenceEngine recurrenceEngine;
+
+    @Test
+    void nextOccurrence_None_ReturnsNull() {
+        assertNull(recurrenceEngine.nextOccurrence(RepeatType.NONE, null, ANCHOR, ANCHOR, ANCHOR.plusSeconds(5)));
+    }
+
+    @Test
+    void nextOccurrence_Daily_ReturnsSameTimeNextDay() {
+        LocalDateTime next = recurrenceEngine.nextOccurrence(RepeatType.DAILY, null, ANCHOR, ANCHOR, ANCHOR.plusSeconds(5));
+
+        assertEquals(ANCHOR.plusDays(1), next);
+    }
+
+    @Test
+    void nextOccurrence_HourlyAfterOutage_SkipsMissedOccurrences() {
+        LocalDateTime now = ANCHOR.plusHours(5).plusMinutes(20);
+
+        LocalDateTime next = recurrenceEngine.nextOccurrence(RepeatType.HOURLY, null, ANCHOR, ANCHOR, now);
+
+        assertEquals(ANCHOR.plusHours(6), next);
+    }
+
+    @Test
+    void nextOccurrence_Weekly_StaysOnAnchorWeekday() {
+        LocalDateTime fired = ANCHOR.plusWeeks(3);
+
+        LocalDateTime next = recurrenceEngine.nextOccurrence(RepeatType.WEEKLY, null, ANCHOR, fired, fired.plusMinutes(1));
+
+        assertEquals(ANCHOR.plusWeeks(4), next);
+    }
+
+    @Test
+    void nextOccurrence_CustomEveryThreeDays() {
+        CustomRepeatConfig config = config(3, RepeatFrequency.DAY);
+
+        LocalDateTime next = recurrenceEngine.nextOccurrence(RepeatType.CUSTOM, config, ANCHOR, ANCHOR, ANCHOR.plusSeconds(1));
+
+        assertEquals(ANCHOR.plusDays(3), next);
+    }
+
+    @Test
+    void nextOccurrence_CustomMonthly_DoesNotDriftAfterShortMonth() {
+        LocalDateTime endOfJanuary = LocalDateTime.of(2030, 1, 31, 9, 0);
+        CustomRepeatConfig config = config(1, RepeatFrequency.MONTH);
+
+        LocalDateTime february = recurrenceEngine.nextOccurrence(
+                RepeatType.CUSTOM, config, endOfJanuary, endOfJanuary, endOfJanuary.plusSeconds(1));
+        LocalDateTime march = recurrenceEngine.nextOccurrence(
+                RepeatType.CUSTOM, config, endOfJanuary, february, february.plusSeconds(1));
+
+        assertEquals(LocalDateTime.of(2030, 2, 28, 9, 0), february);
+        assertEquals(LocalDateTime.of(2030, 3, 31, 9, 0), march);
+    }
+
+    @Test
+    void nextOccurrence_CustomWeekdays_MovesToNextSelectedDayInWeek() {
+        CustomRepeatConfig config = config(1, RepeatFrequency.WEEK);
+        config.setDaysOfWeek(List.of(DayOfWeek.MON, DayOfWeek.WED, DayOfWeek.FRI));
+
+        LocalDateTime wednesday = recurrenceEngine.nextOccurrence(
+                RepeatType.CUSTOM, config, ANCHOR, ANCHOR, ANCHOR.plusSeconds(1));
+        LocalDateTime nextMonday = recurrenceEngine.nextOccurrence(
+                RepeatType.CUSTOM, config, ANCHOR, ANCHOR.plusDays(4), ANCHOR.plusDays(4).plusSeconds(1));
+
+        assertEquals(ANCHOR.plusDays(2), wednesday);
+        assertEquals(ANCHOR.plusWeeks(1), nextMonday);
+    }
+
+    @Test
+    void nextOccurrence_CustomEveryOtherWeek_SkipsInactiveWeek() {
+        CustomRepeatConfig config = config(2, RepeatFrequency.WEEK);
+        config.setDaysOfWeek(List.of(DayOfWeek.MON, DayOfWeek.THU));
+        LocalDateTime thursday = ANCHOR.plusDays(3);
+
+        LocalDateTime next = recurrenceEngine.nextOccurrence(
+                RepeatType.CUSTOM, config, ANCHOR, thursday, thursday.plusSeconds(1));
+
+        assertEquals(ANCHOR.plusWeeks(2), next);
+    }
+
+    @Test
+    void nextOccurrences_LoadsCustomConfigsOnceForBatch() {
+        CustomRepeatConfig config = config(2, RepeatFrequency.DAY);
+        config.setId(5L);
+        Reminder daily = reminder(1L, RepeatType.DAILY, null);
+        Reminder custom = reminder(2L, RepeatType.CUSTOM, 5L);
+        Reminder customToo = reminder(3L, RepeatType.CUSTOM, 5L);
+        Reminder oneOff = reminder(4L, RepeatType.NONE, null);
+        when(customRepeatConfigRepository.findAllWithDaysByIdIn(Set.of(5L))).thenReturn(List.of(config));
+
+        Map<Long, LocalDateTime> next = recurrenceEngine.nextOccurrences(
+                List.of(daily, custom, customToo, oneOff), ANCHOR.plusSeconds(1));
+
+        assertEquals(Map.of(1L, ANCHOR.plusDays(1), 2L, ANCHOR.plusDays(2), 3L, ANCHOR.plusDays(2)), next);
+        verify(customRepeatConfigRepository, times(1)).findAllWithDaysByIdIn(any());
+    }
+
+    @Test
+    void nextOccurrences_NoCustomReminders_DoesNotQuery() {
+        recurrenceEngine.nextOccurrences(List.of(reminder(1L, RepeatType.HOURLY, null)), ANCHOR.plusSeconds(1));
+
+        verifyNoInteractions(customRepeatConfigRepository);
+    }
+
+    private CustomRepeatConfig config(int interval, RepeatFrequency frequency) {
+        CustomRepeatConfig config = new CustomRepeatConfig();
+        config.setInterval(interval);
+        config.setFrequency(frequency);
+        return config;
+    }
+
+    private Reminder reminder(Long id, RepeatType repeat, Long customRepeatId) {
+        Reminder reminder = new Reminder();
+        reminder.setId(id);
+        reminder.setRepeat(repeat);
+        reminder.setCustomRepeatId(customRepeatId);
+        reminder.setDateTime(ANCHOR);
+        reminder.setNextFireAt(ANCHOR);
+        return reminder;
+    }
+}
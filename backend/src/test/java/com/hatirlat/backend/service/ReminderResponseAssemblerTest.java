@@ -0,0 +1,159 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.dto.ReminderResponse;
+import com.hatirlat.backend.entity.Contact;
+import com.hatirlat.backend.entity.CustomRepeatConfig;
+import com.hatirlat.backend.entity.DayOfWeek;
+import com.hatirlat.backend.entity.Group;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.RepeatFrequency;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.ContactRepository;
+import com.hatirlat.backend.repository.CustomRepeatConfigRepository;
+import com.hatirlat.backend.repository.GroupMemberRepository;
+import com.hatirlat.backend.repository.GroupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderResponseAssemblerTest {
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private GroupMemberRepository groupMemberRepository;
+
+    @Mock
+    private CustomRepeatConfigRepository customRepeatConfigRepository;
+
+    @InjectMocks
+    private ReminderResponseAssembler reminderResponseAssembler;
+
+    @Test
+    void toResponses_LoadsEachKindOnceForTheWholePage() {
+        List<Reminder> reminders = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            // Contacts 1-10, groups 1-5 and custom repeat 7 are shared across the page
+            reminders.add(reminder(id, id % 10 + 1, id % 5 + 1, id % 2 == 0 ? 7L : null));
+        }
+        List<Contact> contacts = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            contacts.add(contact(id));
+        }
+        List<Group> groups = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            groups.add(group(id));
+        }
+        when(contactRepository.findAllById(anyCollection())).thenReturn(contacts);
+        when(groupRepository.findAllById(anyCollection())).thenReturn(groups);
+        when(groupMemberRepository.countMembersByGroupIdIn(anyCollection()))
+                .thenReturn(List.of(groupSize(1L, 3), groupSize(2L, 12)));
+        when(customRepeatConfigRepository.findAllWithDaysByIdIn(Set.of(7L))).thenReturn(List.of(customRepeat(7L)));
+
+        List<ReminderResponse> responses = reminderResponseAssembler.toResponses(reminders);
+
+        assertEquals(100, responses.size());
+        assertEquals("1", responses.get(0).getId());
+        assertEquals("Contact 2", responses.get(0).getContact().getName());
+        assertEquals("2", responses.get(0).getGroup().getId());
+        assertEquals(12, (int) responses.get(0).getGroup().getMemberCount());
+        assertNull(responses.get(0).getCustomRepeat());
+        assertEquals(List.of("mon", "wed"), responses.get(1).getCustomRepeat().getDaysOfWeek());
+        // A group without members has no count row
+        assertEquals(0, (int) responses.get(3).getGroup().getMemberCount());
+        verify(contactRepository).findAllById(ids(10));
+        verify(groupRepository).findAllById(ids(5));
+        verify(groupMemberRepository).countMembersByGroupIdIn(ids(5));
+        verifyNoMoreInteractions(contactRepository, groupRepository, groupMemberRepository, customRepeatConfigRepository);
+    }
+
+    @Test
+    void toResponse_MissingReferences_AreLeftOut() {
+        Reminder reminder = reminder(1L, 5L, 9L, null);
+        when(contactRepository.findAllById(Set.of(5L))).thenReturn(List.of());
+        when(groupRepository.findAllById(Set.of(9L))).thenReturn(List.of());
+
+        ReminderResponse response = reminderResponseAssembler.toResponse(reminder);
+
+        assertNull(response.getContact());
+        assertNull(response.getGroup());
+        assertEquals(List.of("email"), response.getChannels());
+        // No group was found, so there is nothing to count
+        verifyNoInteractions(groupMemberRepository, customRepeatConfigRepository);
+    }
+
+    @Test
+    void toResponses_NoReferences_RunsNoQueries() {
+        assertEquals(1, reminderResponseAssembler.toResponses(List.of(reminder(1L, null, null, null))).size());
+
+        verifyNoInteractions(contactRepository, groupRepository, groupMemberRepository, customRepeatConfigRepository);
+    }
+
+    private static Set<Long> ids(long count) {
+        return LongStream.rangeClosed(1, count).boxed().collect(Collectors.toSet());
+    }
+
+    private static Reminder reminder(Long id, Long contactId, Long groupId, Long customRepeatId) {
+        Reminder reminder = new Reminder();
+        reminder.setId(id);
+        reminder.setTitle("Reminder " + id);
+        reminder.setChannels(List.of(NotificationChannel.EMAIL));
+        reminder.setContactId(contactId);
+        reminder.setGroupId(groupId);
+        reminder.setCustomRepeatId(customRepeatId);
+        return reminder;
+    }
+
+    private static Contact contact(Long id) {
+        Contact contact = new Contact("Contact " + id, "+90555000000" + id, "contact" + id + "@example.com");
+        contact.setId(id);
+        return contact;
+    }
+
+    private static Group group(Long id) {
+        Group group = new Group();
+        group.setId(id);
+        group.setName("Group " + id);
+        return group;
+    }
+
+    private static CustomRepeatConfig customRepeat(Long id) {
+        CustomRepeatConfig customRepeat = new CustomRepeatConfig();
+        customRepeat.setId(id);
+        customRepeat.setInterval(1);
+        customRepeat.setFrequency(RepeatFrequency.WEEK);
+        customRepeat.setDaysOfWeek(List.of(DayOfWeek.MON, DayOfWeek.WED));
+        return customRepeat;
+    }
+
+    private static GroupMemberRepository.GroupSize groupSize(Long groupId, long members) {
+        return new GroupMemberRepository.GroupSize() {
+            @Override
+            public Long getGroupId() {
+                return groupId;
+            }
+
+            @Override
+            public long getMembers() {
+                return members;
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.hatirlat.backend.service;
 
+import com.hatirlat.backend.config.SchedulerProperties;
 import com.hatirlat.backend.entity.NotificationChannel;
 import com.hatirlat.backend.entity.Reminder;
 import com.hatirlat.backend.entity.ReminderStatus;
@@ -11,14 +12,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +39,19 @@ class ReminderSchedulerTest {
     private ReminderRepository reminderRepository;
 
     @Mock
-    private NotificationService notificationService;
+    private NotificationOutboxWriter notificationOutboxWriter;
+
+    @Mock
+    private ChannelPipelines channelPipelines;
+
+    @Mock
+    private SchedulerMetrics schedulerMetrics;
+
+    @Spy
+    private SchedulerProperties schedulerProperties = new SchedulerProperties();
+
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
 
     @InjectMocks
     private ReminderScheduler reminderScheduler;
@@ -45,60 +68,333 @@ class ReminderSchedulerTest {
         scheduledReminder.setStatus(ReminderStatus.SCHEDULED);
         scheduledReminder.setChannels(Arrays.asList(NotificationChannel.EMAIL));
         scheduledReminder.setType(ReminderType.PERSONAL);
+        schedulerProperties.setMode(SchedulerProperties.Mode.WHEEL);
+
+        lenient().when(notificationOutboxWriter.claimAndEnqueue(anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class), anyInt(), anySet())).thenReturn(new DispatchResult());
     }
 
     @Test
-    void processScheduledReminders_WithScheduledReminders_SendsNotifications() {
-        List<Reminder> scheduledReminders = Arrays.asList(scheduledReminder);
-        when(reminderRepository.findByStatusAndDateTimeBefore(
-                eq(ReminderStatus.SCHEDULED), 
-                any(LocalDateTime.class)
-        )).thenReturn(scheduledReminders);
+    void processScheduledReminders_WithDueReminders_EnqueuesThem() {
+        when(notificationOutboxWriter.claimAndEnqueue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anySet()))
+                .thenReturn(sentResult(1L));
 
         reminderScheduler.processScheduledReminders();
 
-        verify(notificationService, times(1)).sendNotification(scheduledReminder);
-        ArgumentCaptor<Reminder> reminderCaptor = ArgumentCaptor.forClass(Reminder.class);
-        verify(reminderRepository, times(1)).save(reminderCaptor.capture());
-        assertEquals(ReminderStatus.SENT, reminderCaptor.getValue().getStatus());
+        verify(notificationOutboxWriter, times(1)).claimAndEnqueue(
+                eq(schedulerProperties.getNodeId()), any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anySet());
+        verify(schedulerMetrics).recordQueries("poll", "status", 1);
+        verify(schedulerMetrics).recordBatch(eq("poll"), any(Duration.class));
+        verify(reminderRepository, never()).save(any(Reminder.class));
     }
 
     @Test
-    void processScheduledReminders_WithNoScheduledReminders_DoesNothing() {
-        when(reminderRepository.findByStatusAndDateTimeBefore(
-                eq(ReminderStatus.SCHEDULED), 
-                any(LocalDateTime.class)
-        )).thenReturn(Arrays.asList());
+    void processScheduledReminders_FullBatch_ClaimsAgainUntilShortBatch() {
+        schedulerProperties.setClaimBatchSize(1);
+        when(notificationOutboxWriter.claimAndEnqueue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), eq(1), anySet()))
+                .thenReturn(sentResult(1L), new DispatchResult());
 
         reminderScheduler.processScheduledReminders();
 
-        verify(notificationService, never()).sendNotification(any(Reminder.class));
-        verify(reminderRepository, never()).save(any(Reminder.class));
+        verify(notificationOutboxWriter, times(2)).claimAndEnqueue(
+                anyString(), any(LocalDateTime.class), any(LocalDateTime.class), eq(1), anySet());
     }
 
     @Test
-    void processScheduledReminders_WithNotificationFailure_UpdatesStatusToFailed() {
-        scheduledReminder = new Reminder();
-        scheduledReminder.setId(2L);
-        scheduledReminder.setTitle("Failed Reminder");
-        scheduledReminder.setMessage("Test message");
-        scheduledReminder.setDateTime(LocalDateTime.now().minusHours(1)); // Past time
-        scheduledReminder.setStatus(ReminderStatus.SCHEDULED);
-        scheduledReminder.setChannels(Arrays.asList(NotificationChannel.EMAIL));
-        scheduledReminder.setType(ReminderType.PERSONAL);
+    void processScheduledReminders_LeasesUsingNodeIdAndLeaseDuration() {
+        schedulerProperties.setNodeId("node-a");
+        schedulerProperties.setLeaseSeconds(30);
+        ArgumentCaptor<LocalDateTime> nowCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        reminderScheduler.processScheduledReminders();
+
+        verify(notificationOutboxWriter).claimAndEnqueue(eq("node-a"), nowCaptor.capture(), leaseCaptor.capture(), anyInt(), anySet());
+        assertEquals(nowCaptor.getValue().plusSeconds(30), leaseCaptor.getValue());
+    }
+
+    @Test
+    void processScheduledReminders_WithNoDueReminders_RecordsOnlyTheClaim() {
+        reminderScheduler.processScheduledReminders();
+
+        verify(schedulerMetrics).recordQuery("poll", "claim");
+        verify(schedulerMetrics, never()).recordQueries(anyString(), eq("status"), anyInt());
+    }
+
+    @Test
+    void processScheduledReminders_SaturatedChannel_IsExcludedFromClaim() {
+        when(channelPipelines.saturatedChannels()).thenReturn(EnumSet.of(NotificationChannel.WHATSAPP));
+
+        reminderScheduler.processScheduledReminders();
+
+        verify(notificationOutboxWriter).claimAndEnqueue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class),
+                anyInt(), eq(Set.of(NotificationChannel.WHATSAPP)));
+    }
+
+    @Test
+    void processScheduledReminders_EveryChannelSaturated_DoesNotClaim() {
+        when(channelPipelines.saturatedChannels()).thenReturn(EnumSet.allOf(NotificationChannel.class));
+
+        reminderScheduler.processScheduledReminders();
+
+        verifyNoInteractions(notificationOutboxWriter);
+    }
+
+    @Test
+    void tick_WhileChannelSaturated_KeepsClaimingEveryTick() {
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(scheduleEntry(1L, scheduledReminder.getDateTime())));
+        when(channelPipelines.saturatedChannels()).thenReturn(EnumSet.of(NotificationChannel.SMS), EnumSet.noneOf(NotificationChannel.class));
+
+        reminderScheduler.tick();
+        reminderScheduler.tick();
+        reminderScheduler.tick();
+
+        // Fired once, held back once, then no longer held back
+        verify(notificationOutboxWriter, times(2)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+    }
+
+    @Test
+    void tick_FirstTick_ClaimsOverdueRemindersWithoutLoadingThem() {
+        LocalDateTime before = LocalDateTime.now();
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        reminderScheduler.tick();
+
+        // The window is loaded from now on; what is already overdue is claimed from the database
+        ArgumentCaptor<LocalDateTime> afterFireAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reminderRepository).findScheduleEntriesPage(eq(ReminderStatus.SCHEDULED), afterFireAt.capture(),
+                eq(Long.MAX_VALUE), any(LocalDateTime.class), any(Pageable.class));
+        assertFalse(afterFireAt.getValue().isBefore(before));
+        verify(notificationOutboxWriter, times(1)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+        verify(schedulerMetrics).recordQuery("wheel", "refill");
+    }
+
+    @Test
+    void tick_WheelFull_StopsLoadingAndResumesFromTheLastKeyOnceItFires() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+        doReturn(start.atZone(clock.getZone()).toInstant()).when(clock).instant();
+        schedulerProperties.setWheelCapacity(2);
+        LocalDateTime second = start.plusMinutes(2);
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), eq(start), eq(Long.MAX_VALUE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(scheduleEntry(1L, start.plusMinutes(1)), scheduleEntry(2L, second)));
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), eq(second), eq(2L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        reminderScheduler.tick();
+        reminderScheduler.tick();
+        // Full: the second tick does not query at all
+        verify(reminderRepository, times(1)).findScheduleEntriesPage(
+                any(), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class));
+
+        doReturn(start.plusMinutes(1).plusSeconds(1).atZone(clock.getZone()).toInstant()).when(clock).instant();
+        reminderScheduler.tick();
+        reminderScheduler.tick();
+
+        // The first reminder fired, which leaves room for one more, read on from where the full load stopped
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(reminderRepository).findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), eq(second), eq(2L), any(LocalDateTime.class), page.capture());
+        assertEquals(1, page.getValue().getPageSize());
+    }
+
+    @Test
+    void tick_WindowBeyondTheWheelHorizon_LoadsOnlyUpToIt() {
+        schedulerProperties.setWindowSeconds((int) Duration.ofDays(3).toSeconds());
+        LocalDateTime before = LocalDateTime.now();
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        reminderScheduler.tick();
+
+        // With one-second ticks the wheel reaches one day ahead
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reminderRepository).findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), to.capture(), any(Pageable.class));
+        assertTrue(to.getValue().isBefore(before.plusDays(2)));
+    }
+
+    @Test
+    void tick_WithinLoadedWindow_DoesNotQueryAgain() {
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        reminderScheduler.tick();
+        reminderScheduler.tick();
+
+        verify(reminderRepository, times(1)).findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class));
+        // Only the first tick's claim of the overdue backlog
+        verify(notificationOutboxWriter, times(1)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+    }
+
+    @Test
+    void tick_FullRefillPage_ContinuesFromLastKey() {
+        schedulerProperties.setPageSize(1);
+        LocalDateTime firstDateTime = LocalDateTime.now().plusMinutes(1);
+        ReminderRepository.ScheduleEntry first = scheduleEntry(7L, firstDateTime);
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), eq(Long.MAX_VALUE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first));
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), eq(firstDateTime), eq(7L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        reminderScheduler.tick();
+
+        verify(reminderRepository, times(2)).findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void tick_ReminderSavedIntoLoadedWindow_IsFired() {
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        reminderScheduler.tick();
+
+        reminderScheduler.onReminderSaved(scheduledReminder);
+        reminderScheduler.tick();
+
+        // The first tick's claim of the overdue backlog, then the saved reminder firing
+        verify(notificationOutboxWriter, times(2)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+    }
+
+    @Test
+    void tick_ReminderDeletedBeforeFiring_IsNotFired() {
+        ReminderRepository.ScheduleEntry entry = scheduleEntry(1L, scheduledReminder.getDateTime());
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        reminderScheduler.tick();
+        reminderScheduler.onReminderSaved(scheduledReminder);
+
+        reminderScheduler.onReminderDeleted(1L);
+        reminderScheduler.tick();
+
+        // Only the first tick's claim of the overdue backlog
+        verify(notificationOutboxWriter, times(1)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+    }
+
+    @Test
+    void tick_InPollMode_DoesNothing() {
+        schedulerProperties.setMode(SchedulerProperties.Mode.POLL);
+
+        reminderScheduler.tick();
+
+        verifyNoInteractions(reminderRepository, notificationOutboxWriter);
+    }
+
+    @Test
+    void tick_RecurringReminderRearmedInsideWindow_FiresAgain() {
+        when(reminderRepository.findScheduleEntriesPage(
+                eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(scheduleEntry(1L, scheduledReminder.getDateTime())));
+        DispatchResult rearmed = new DispatchResult();
+        rearmed.rearm(1L, LocalDateTime.now().minusSeconds(1));
+        when(notificationOutboxWriter.claimAndEnqueue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anySet()))
+                .thenReturn(rearmed, new DispatchResult());
 
-        List<Reminder> scheduledReminders = Arrays.asList(scheduledReminder);
-        when(reminderRepository.findByStatusAndDateTimeBefore(
-                eq(ReminderStatus.SCHEDULED), 
-                any(LocalDateTime.class)
-        )).thenReturn(scheduledReminders);
-        
-        doThrow(new RuntimeException("Notification failed")).when(notificationService).sendNotification(scheduledReminder);
+        reminderScheduler.tick();
+        reminderScheduler.tick();
+
+        verify(notificationOutboxWriter, times(2)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+    }
+
+    @Test
+    void wakeUp_NothingScheduled_SleepsUntilIdleRecheck() {
+        schedulerProperties.setMode(SchedulerProperties.Mode.ADAPTIVE);
+        LocalDateTime before = LocalDateTime.now();
+
+        LocalDateTime wakeAt = reminderScheduler.wakeUp();
+
+        assertFalse(wakeAt.isBefore(before.plusSeconds(schedulerProperties.getIdleRecheckSeconds())));
+        verify(schedulerMetrics).recordQuery("adaptive", "next-due");
+        verifyNoInteractions(notificationOutboxWriter);
+    }
+
+    @Test
+    void wakeUp_NextReminderInFuture_SleepsExactlyUntilIt() {
+        LocalDateTime nextDue = LocalDateTime.now().plusSeconds(5).plusNanos(250_000_000);
+        when(reminderRepository.findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(nextDue);
+
+        assertEquals(nextDue, reminderScheduler.wakeUp());
+        verifyNoInteractions(notificationOutboxWriter);
+    }
+
+    @Test
+    void wakeUp_ReminderDue_ClaimsAndLooksAgainRightAway() {
+        LocalDateTime before = LocalDateTime.now();
+        when(reminderRepository.findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(before.minusSeconds(1));
+        when(notificationOutboxWriter.claimAndEnqueue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anySet()))
+                .thenReturn(sentResult(1L));
+
+        LocalDateTime wakeAt = reminderScheduler.wakeUp();
+
+        assertTrue(wakeAt.isBefore(before.plusSeconds(1)));
+        verify(schedulerMetrics).recordBatch(eq("adaptive"), any(Duration.class));
+    }
+
+    @Test
+    void wakeUp_DueButNothingClaimable_BacksOffOneTick() {
+        LocalDateTime before = LocalDateTime.now();
+        when(reminderRepository.findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(before.minusSeconds(1));
+
+        LocalDateTime wakeAt = reminderScheduler.wakeUp();
+
+        assertFalse(wakeAt.isBefore(before.plusNanos(schedulerProperties.getTickMs() * 1_000_000)));
+    }
+
+    @Test
+    void start_AdaptiveMode_SoonerSaveWakesTheSleepingScheduler() {
+        schedulerProperties.setMode(SchedulerProperties.Mode.ADAPTIVE);
+        LocalDateTime due = LocalDateTime.now();
+        when(reminderRepository.findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(due.plusHours(1), due, null);
+        reminderScheduler.start();
+        try {
+            verify(reminderRepository, timeout(2000)).findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class));
+
+            scheduledReminder.setNextFireAt(due);
+            reminderScheduler.onReminderSaved(scheduledReminder);
+
+            verify(notificationOutboxWriter, timeout(2000)).claimAndEnqueue(anyString(), any(), any(), anyInt(), anySet());
+        } finally {
+            reminderScheduler.stop();
+        }
+    }
+
+    private DispatchResult sentResult(Long... ids) {
+        DispatchResult result = new DispatchResult();
+        for (Long id : ids) {
+            result.sent(id);
+        }
+        result.setEnqueued(ids.length);
+        result.setStatusStatements(1);
+        return result;
+    }
 
-        assertDoesNotThrow(() -> reminderScheduler.processScheduledReminders());
+    private ReminderRepository.ScheduleEntry scheduleEntry(Long id, LocalDateTime fireAt) {
+        return new ReminderRepository.ScheduleEntry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
 
-        ArgumentCaptor<Reminder> reminderCaptor = ArgumentCaptor.forClass(Reminder.class);
-        verify(reminderRepository, times(1)).save(reminderCaptor.capture());
-        assertEquals(ReminderStatus.FAILED, reminderCaptor.getValue().getStatus());
+            @Override
+            public LocalDateTime getFireAt() {
+                return fireAt;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,8 @@ import com.hatirlat.backend.dto.*;
 import com.hatirlat.backend.entity.*;
 import com.hatirlat.backend.repository.ContactRepository;
 import com.hatirlat.backend.repository.CustomRepeatConfigRepository;
+import com.hatirlat.backend.repository.GroupMemberRepository;
 import com.hatirlat.backend.repository.GroupRepository;
-import com.hatirlat.backend.repository.MemberRepository;
 import com.hatirlat.backend.repository.ReminderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,14 +13,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,11 +41,14 @@ class ReminderServiceTest {
     private GroupRepository groupRepository;
     
     @Mock
-    private MemberRepository memberRepository;
+    private GroupMemberRepository groupMemberRepository;
     
     @Mock
     private CustomRepeatConfigRepository customRepeatConfigRepository;
 
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
     @InjectMocks
     private ReminderService reminderService;
 
@@ -52,6 +59,15 @@ class ReminderServiceTest {
 
     @BeforeEach
     void setUp() {
+        // A real assembler over the same repository mocks, so the responses are built as in production
+        ReminderResponseAssembler reminderResponseAssembler = new ReminderResponseAssembler();
+        ReflectionTestUtils.setField(reminderResponseAssembler, "contactRepository", contactRepository);
+        ReflectionTestUtils.setField(reminderResponseAssembler, "groupRepository", groupRepository);
+        ReflectionTestUtils.setField(reminderResponseAssembler, "groupMemberRepository", groupMemberRepository);
+        ReflectionTestUtils.setField(reminderResponseAssembler, "customRepeatConfigRepository",
+                customRepeatConfigRepository);
+        ReflectionTestUtils.setField(reminderService, "reminderResponseAssembler", reminderResponseAssembler);
+
         reminderRequest = new ReminderRequest();
         reminderRequest.setTitle("Test Reminder");
         reminderRequest.setType("personal");
@@ -86,31 +102,60 @@ class ReminderServiceTest {
 
     @Test
     void getAllReminders_ReturnsListOfReminders() {
-        when(reminderRepository.findAll()).thenReturn(Arrays.asList(reminder));
+        when(reminderRepository.findAllWithChannels()).thenReturn(Arrays.asList(reminder));
 
         List<ReminderResponse> reminders = reminderService.getAllReminders();
 
         assertEquals(1, reminders.size());
         assertEquals("Test Reminder", reminders.get(0).getTitle());
         assertEquals("personal", reminders.get(0).getType());
-        verify(reminderRepository, times(1)).findAll();
+        verify(reminderRepository, times(1)).findAllWithChannels();
+    }
+
+    @Test
+    void getAllReminders_ManyReminders_LoadsRelatedRowsWithOneQueryEach() {
+        List<Reminder> reminders = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            Reminder listed = new Reminder();
+            listed.setId(id);
+            listed.setTitle("Reminder " + id);
+            listed.setContactId(id % 10 + 1);
+            listed.setGroupId(id % 5 + 1);
+            reminders.add(listed);
+        }
+        when(reminderRepository.findAllWithChannels()).thenReturn(reminders);
+        when(groupRepository.findAllById(anyCollection())).thenReturn(List.of(group));
+        when(groupMemberRepository.countMembersByGroupIdIn(Set.of(1L))).thenReturn(List.of());
+
+        List<ReminderResponse> responses = reminderService.getAllReminders();
+
+        assertEquals(50, responses.size());
+        // One query per kind of related row, not one per reminder
+        verify(contactRepository, times(1)).findAllById(anyCollection());
+        verify(groupRepository, times(1)).findAllById(anyCollection());
+        verify(groupMemberRepository, times(1)).countMembersByGroupIdIn(anyCollection());
+        verify(contactRepository, never()).findById(anyLong());
+        verify(groupRepository, never()).findById(anyLong());
+        verifyNoInteractions(customRepeatConfigRepository);
     }
 
     @Test
     void getReminderById_ExistingReminder_ReturnsReminder() {
         when(reminderRepository.findById(1L)).thenReturn(Optional.of(reminder));
-        when(contactRepository.findById(1L)).thenReturn(Optional.of(contact));
-        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
-        when(memberRepository.findMembersByGroupId(1L)).thenReturn(Arrays.asList());
+        when(contactRepository.findAllById(Set.of(1L))).thenReturn(List.of(contact));
+        when(groupRepository.findAllById(Set.of(1L))).thenReturn(List.of(group));
+        when(groupMemberRepository.countMembersByGroupIdIn(Set.of(1L))).thenReturn(List.of());
 
         ReminderResponse response = reminderService.getReminderById("1");
 
         assertNotNull(response);
         assertEquals("Test Reminder", response.getTitle());
+        assertEquals("Test Contact", response.getContact().getName());
+        assertEquals(0, (int) response.getGroup().getMemberCount());
         verify(reminderRepository, times(1)).findById(1L);
-        verify(contactRepository, times(1)).findById(1L);
-        verify(groupRepository, times(1)).findById(1L);
-        verify(memberRepository, times(1)).findMembersByGroupId(1L);
+        verify(contactRepository, times(1)).findAllById(Set.of(1L));
+        verify(groupRepository, times(1)).findAllById(Set.of(1L));
+        verify(groupMemberRepository, times(1)).countMembersByGroupIdIn(Set.of(1L));
     }
 
     @Test
@@ -0,0 +1,157 @@
+package com.hatirlat.backend.service;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing back the outcome of one claimed batch from a 50k-reminder backlog: a transaction per reminder as
+ * {@code save()} did, one JDBC batch of per-row updates in a single transaction, and the set-based
+ * {@code UPDATE ... WHERE id IN (...)} that {@link ReminderStatusUpdater} issues. Runs against an in-memory H2
+ * database served over a local TCP socket, so every statement and commit is a real round trip, if a far cheaper
+ * one than to a remote database. Not part of the test run; start it from {@link #main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReminderStatusUpdateBenchmark {
+
+    private static final int BACKLOG = 50_000;
+    private static final String NODE_ID = "node-1";
+
+    @Param({"100", "500"})
+    private int batchSize;
+
+    private Server server;
+    private Connection connection;
+    private long firstId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + server.getPort()
+                + "/mem:status-benchmark;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE reminders (id BIGINT PRIMARY KEY, status VARCHAR(20), "
+                    + "claimed_by VARCHAR(64), lease_until TIMESTAMP)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO reminders (id, status) VALUES (?, 'PENDING')")) {
+            for (long id = 1; id <= BACKLOG; id++) {
+                insert.setLong(1, id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE reminders");
+        }
+        connection.commit();
+        connection.close();
+        server.stop();
+    }
+
+    /**
+     * Claims the next batch of the backlog, as the scheduler would have before dispatching it.
+     */
+    @Setup(Level.Invocation)
+    public void claimBatch() throws SQLException {
+        firstId = firstId == 0 || firstId + 2L * batchSize - 1 > BACKLOG ? 1 : firstId + batchSize;
+        connection.setAutoCommit(false);
+        try (PreparedStatement claim = connection.prepareStatement("UPDATE reminders SET status = 'PENDING', "
+                + "claimed_by = ?, lease_until = CURRENT_TIMESTAMP WHERE id BETWEEN ? AND ?")) {
+            claim.setString(1, NODE_ID);
+            claim.setLong(2, firstId);
+            claim.setLong(3, firstId + batchSize - 1);
+            claim.executeUpdate();
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public int transactionPerReminder() throws SQLException {
+        connection.setAutoCommit(true);
+        int updated = 0;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE reminders SET status = 'SENT', "
+                + "claimed_by = NULL, lease_until = NULL WHERE id = ? AND claimed_by = ?")) {
+            for (long id = firstId; id < firstId + batchSize; id++) {
+                update.setLong(1, id);
+                update.setString(2, NODE_ID);
+                updated += update.executeUpdate();
+            }
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public int jdbcBatchPerReminder() throws SQLException {
+        connection.setAutoCommit(false);
+        int updated = 0;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE reminders SET status = 'SENT', "
+                + "claimed_by = NULL, lease_until = NULL WHERE id = ? AND claimed_by = ?")) {
+            for (long id = firstId; id < firstId + batchSize; id++) {
+                update.setLong(1, id);
+                update.setString(2, NODE_ID);
+                update.addBatch();
+            }
+            for (int count : update.executeBatch()) {
+                updated += count;
+            }
+        }
+        connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public int setBased() throws SQLException {
+        connection.setAutoCommit(false);
+        String placeholders = String.join(", ", Collections.nCopies(batchSize, "?"));
+        int updated;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE reminders SET status = 'SENT', "
+                + "claimed_by = NULL, lease_until = NULL WHERE id IN (" + placeholders + ") AND claimed_by = ?")) {
+            int index = 1;
+            for (long id = firstId; id < firstId + batchSize; id++) {
+                update.setLong(index++, id);
+            }
+            update.setString(index, NODE_ID);
+            updated = update.executeUpdate();
+        }
+        connection.commit();
+        return updated;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReminderStatusUpdateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
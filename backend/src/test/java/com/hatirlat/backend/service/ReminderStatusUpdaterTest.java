@@ -0,0 +1,105 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.entity.ReminderStatus;
+import com.hatirlat.backend.repository.ReminderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderStatusUpdaterTest {
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @InjectMocks
+    private ReminderStatusUpdater reminderStatusUpdater;
+
+    @Test
+    void apply_MixedBatch_IssuesOneUpdatePerStatus() {
+        DispatchResult result = new DispatchResult();
+        for (long id = 1; id <= 1000; id++) {
+            if (id % 10 == 0) {
+                result.failed(id);
+            } else {
+                result.sent(id);
+            }
+        }
+        when(reminderRepository.completeClaims(result.getSentIds(), ReminderStatus.SENT, "node-a")).thenReturn(900);
+        when(reminderRepository.completeClaims(result.getFailedIds(), ReminderStatus.FAILED, "node-a")).thenReturn(100);
+
+        int statements = reminderStatusUpdater.apply("node-a", result);
+
+        // 1000 reminders used to cost 1000 save() round trips; the batch now needs two statements
+        assertEquals(2, statements);
+        verify(reminderRepository, times(2)).completeClaims(any(), any(), anyString());
+        verify(reminderRepository, never()).save(any());
+    }
+
+    @Test
+    void apply_OnlySent_SkipsFailedUpdate() {
+        DispatchResult result = new DispatchResult();
+        result.sent(1L);
+        when(reminderRepository.completeClaims(List.of(1L), ReminderStatus.SENT, "node-a")).thenReturn(1);
+
+        int statements = reminderStatusUpdater.apply("node-a", result);
+
+        assertEquals(1, statements);
+        verify(reminderRepository, never()).completeClaims(any(), eq(ReminderStatus.FAILED), anyString());
+    }
+
+    @Test
+    void apply_RecurringReminders_RearmedWithOneStatement() {
+        LocalDateTime nineTomorrow = LocalDateTime.of(2030, 1, 2, 9, 0);
+        LocalDateTime nextHour = LocalDateTime.of(2030, 1, 1, 10, 0);
+        DispatchResult result = new DispatchResult();
+        result.rearm(1L, nineTomorrow);
+        result.rearm(2L, nineTomorrow);
+        result.rearm(3L, nextHour);
+        result.sent(4L);
+        when(reminderRepository.rearmClaims(Map.of(1L, nineTomorrow, 2L, nineTomorrow, 3L, nextHour), "node-a"))
+                .thenReturn(3);
+        when(reminderRepository.completeClaims(List.of(4L), ReminderStatus.SENT, "node-a")).thenReturn(1);
+
+        int statements = reminderStatusUpdater.apply("node-a", result);
+
+        assertEquals(2, statements);
+        verify(reminderRepository, never()).completeClaims(any(), eq(ReminderStatus.FAILED), anyString());
+    }
+
+    @Test
+    void apply_RecurringRemindersWithDistinctOccurrences_StatementsDoNotGrowWithBatch() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        DispatchResult result = new DispatchResult();
+        for (long id = 1; id <= 1000; id++) {
+            // Every reminder has its own next occurrence
+            result.rearm(id, start.plusMinutes(id));
+        }
+        when(reminderRepository.rearmClaims(anyMap(), eq("node-a")))
+                .thenAnswer(invocation -> ((Map<?, ?>) invocation.getArgument(0)).size());
+
+        int statements = reminderStatusUpdater.apply("node-a", result);
+
+        // Used to be one statement per distinct occurrence, i.e. 1000
+        assertEquals(1000 / ReminderStatusUpdater.REARM_CHUNK_SIZE, statements);
+        verify(reminderRepository, times(statements)).rearmClaims(anyMap(), eq("node-a"));
+    }
+
+    @Test
+    void apply_EmptyResult_IssuesNoStatements() {
+        assertEquals(0, reminderStatusUpdater.apply("node-a", new DispatchResult()));
+        verifyNoInteractions(reminderRepository);
+    }
+}
@@ -0,0 +1,79 @@
+package com.hatirlat.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderTimingWheelTest {
+
+    private static final long TICK_MS = 1000;
+    private static final long START_MS = 1_700_000_000_000L;
+
+    private ReminderTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new ReminderTimingWheel(TICK_MS, START_MS);
+    }
+
+    @Test
+    void advance_FiresEntryOnFirstTickAtOrAfterDeadline() {
+        wheel.schedule(1L, START_MS + 2500);
+
+        assertTrue(wheel.advance(START_MS + 2000).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START_MS + 3000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_CascadesEntriesFromHigherLevels() {
+        long inTwoHours = START_MS + 2 * 60 * 60 * 1000 + 500;
+        wheel.schedule(1L, inTwoHours);
+
+        List<Long> fired = new ArrayList<>();
+        long now = START_MS;
+        while (fired.isEmpty() && now < inTwoHours + 5000) {
+            now += TICK_MS;
+            fired.addAll(wheel.advance(now));
+        }
+
+        assertEquals(List.of(1L), fired);
+        assertTrue(now >= inTwoHours);
+        assertTrue(now - inTwoHours <= TICK_MS);
+    }
+
+    @Test
+    void schedule_PastDeadline_FiresOnNextAdvance() {
+        wheel.schedule(1L, START_MS - 60000);
+
+        assertEquals(List.of(1L), wheel.advance(START_MS));
+    }
+
+    @Test
+    void schedule_BeyondHorizon_IsRejected() {
+        assertFalse(wheel.schedule(1L, wheel.getHorizonMs() + 1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_SameIdTwice_OnlyLatestDeadlineFires() {
+        wheel.schedule(1L, START_MS + 1000);
+        wheel.schedule(1L, START_MS + 5000);
+
+        assertTrue(wheel.advance(START_MS + 1000).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START_MS + 5000));
+    }
+
+    @Test
+    void cancel_RemovesArmedEntry() {
+        wheel.schedule(1L, START_MS + 1000);
+        wheel.cancel(1L);
+
+        assertTrue(wheel.advance(START_MS + 10000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+}
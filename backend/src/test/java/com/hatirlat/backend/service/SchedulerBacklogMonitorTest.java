@@ -0,0 +1,112 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.SchedulerProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.entity.OutboxStatus;
+import com.hatirlat.backend.entity.ReminderStatus;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.repository.ReminderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerBacklogMonitorTest {
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private ChannelPipelines channelPipelines;
+
+    @Mock
+    private ChannelPipeline emailPipeline;
+
+    @Mock
+    private SchedulerMetrics schedulerMetrics;
+
+    @Spy
+    private SchedulerProperties schedulerProperties = new SchedulerProperties();
+
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
+
+    @InjectMocks
+    private SchedulerBacklogMonitor schedulerBacklogMonitor;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_UpdatesBacklogGauges() {
+        when(reminderRepository.countByStatusAndNextFireAtLessThanEqual(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(12L);
+        when(notificationOutboxRepository.countByStatus(OutboxStatus.PENDING)).thenReturn(40L);
+        schedulerBacklogMonitor.registerMetrics();
+        ArgumentCaptor<Supplier<Number>> due = ArgumentCaptor.forClass(Supplier.class);
+        ArgumentCaptor<Supplier<Number>> outbox = ArgumentCaptor.forClass(Supplier.class);
+        verify(schedulerMetrics).registerBacklog(eq("due"), due.capture());
+        verify(schedulerMetrics).registerBacklog(eq("outbox"), outbox.capture());
+
+        schedulerBacklogMonitor.refresh();
+
+        assertEquals(12L, due.getValue().get());
+        assertEquals(40L, outbox.getValue().get());
+    }
+
+    @Test
+    void snapshot_ReportsOldestDueOnlyWhenOverdue() {
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+        when(reminderRepository.findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(tomorrow);
+        when(channelPipelines.saturatedChannels()).thenReturn(EnumSet.noneOf(NotificationChannel.class));
+
+        Map<String, Object> snapshot = schedulerBacklogMonitor.snapshot();
+
+        assertEquals(tomorrow, snapshot.get("nextDueAt"));
+        assertNull(snapshot.get("oldestDueAt"));
+    }
+
+    @Test
+    void snapshot_ReportsBacklogInFlightAndQueues() {
+        LocalDateTime overdue = LocalDateTime.now().minusMinutes(3);
+        LocalDateTime unsent = LocalDateTime.now().minusMinutes(1);
+        when(reminderRepository.findEarliestFireAtAfter(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(overdue, (LocalDateTime) null);
+        when(reminderRepository.countByStatusAndNextFireAtLessThanEqual(eq(ReminderStatus.SCHEDULED), any(LocalDateTime.class)))
+                .thenReturn(5L);
+        when(notificationOutboxRepository.countByStatus(OutboxStatus.PENDING)).thenReturn(9L);
+        when(notificationOutboxRepository.countByStatusAndLeaseUntilAfter(eq(OutboxStatus.PENDING), any(LocalDateTime.class)))
+                .thenReturn(4L);
+        when(notificationOutboxRepository.findOldestOccurrence(OutboxStatus.PENDING)).thenReturn(unsent);
+        when(channelPipelines.get(NotificationChannel.EMAIL)).thenReturn(emailPipeline);
+        when(emailPipeline.depth()).thenReturn(3);
+        when(channelPipelines.saturatedChannels()).thenReturn(EnumSet.of(NotificationChannel.SMS));
+
+        Map<String, Object> snapshot = schedulerBacklogMonitor.snapshot();
+
+        assertEquals(overdue, snapshot.get("oldestDueAt"));
+        assertNull(snapshot.get("nextDueAt"));
+        assertEquals(5L, snapshot.get("dueBacklog"));
+        assertEquals(9L, snapshot.get("pendingDeliveries"));
+        assertEquals(4L, snapshot.get("inFlightDeliveries"));
+        assertEquals(unsent, snapshot.get("oldestUnsentOccurrence"));
+        assertEquals(3, ((Map<?, ?>) snapshot.get("queueDepth")).get(NotificationChannel.EMAIL));
+        assertEquals(EnumSet.of(NotificationChannel.SMS), snapshot.get("saturatedChannels"));
+    }
+}
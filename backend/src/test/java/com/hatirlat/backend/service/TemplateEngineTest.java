@@ -0,0 +1,111 @@
+package com.hatirlat.backend.service;
+
+import com.hatirlat.backend.config.TemplateProperties;
+import com.hatirlat.backend.entity.Group;
+import com.hatirlat.backend.entity.MessageLocale;
+import com.hatirlat.backend.entity.Reminder;
+import com.hatirlat.backend.repository.GroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateEngineTest {
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Spy
+    private TemplateProperties templateProperties = new TemplateProperties();
+
+    @InjectMocks
+    private TemplateEngine templateEngine;
+
+    private Reminder reminder;
+
+    @BeforeEach
+    void setUp() {
+        reminder = new Reminder();
+        reminder.setId(1L);
+        reminder.setGroupId(9L);
+        reminder.setTitle("Standup");
+        reminder.setNextFireAt(LocalDateTime.of(2030, 1, 7, 9, 0));
+    }
+
+    @Test
+    void compile_SameVersion_IsParsedOnce() {
+        CompiledTemplate first = templateEngine.compile("reminder-1-body", "Hi {name}");
+
+        assertSame(first, templateEngine.compile("reminder-1-body", "Hi {name}"));
+        assertNotSame(first, templateEngine.compile("reminder-1-body", "Hello {name}"));
+    }
+
+    @Test
+    void compile_FullCache_EvictsTheLeastRecentlyUsed() {
+        templateProperties.setCacheSize(1);
+        CompiledTemplate first = templateEngine.compile("reminder-1-body", "Hi {name}");
+        templateEngine.compile("reminder-2-body", "Hi {name}");
+
+        assertNotSame(first, templateEngine.compile("reminder-1-body", "Hi {name}"));
+    }
+
+    @Test
+    void compile_TextsWithTheSameHash_AreCachedApart() {
+        // "Aa" and "BB" have the same String hash
+        CompiledTemplate aa = templateEngine.compile("reminder-1-body", "Aa {name}");
+        CompiledTemplate bb = templateEngine.compile("reminder-1-body", "BB {name}");
+
+        assertEquals("BB {name}", bb.getSource());
+        assertSame(aa, templateEngine.compile("reminder-1-body", "Aa {name}"));
+        assertSame(bb, templateEngine.compile("reminder-1-body", "BB {name}"));
+    }
+
+    @Test
+    void compile_OverfilledCache_KeepsTheRecentlyUsed() {
+        templateProperties.setCacheSize(16);
+        CompiledTemplate used = templateEngine.compile("reminder-0-body", "Hi {name}");
+        CompiledTemplate unused = templateEngine.compile("reminder-1-body", "Hi {name}");
+
+        for (int i = 2; i <= 100; i++) {
+            templateEngine.compile("reminder-" + i + "-body", "Hi {name}");
+            assertSame(used, templateEngine.compile("reminder-0-body", "Hi {name}"));
+        }
+
+        assertNotSame(unused, templateEngine.compile("reminder-1-body", "Hi {name}"));
+    }
+
+    @Test
+    void prepare_FormatsTheOccurrencePerLocale() {
+        reminder.setMessage("{name}: {title} ({group}) {date} {time}");
+        Group group = new Group();
+        group.setName("Backend");
+        when(groupRepository.findById(9L)).thenReturn(Optional.of(group));
+
+        ReminderMessage message = templateEngine.prepare(reminder);
+
+        assertEquals("Ayse: Standup (Backend) 7 Ocak 2030 09:00", message.body(MessageLocale.TR, "Ayse"));
+        assertEquals("John: Standup (Backend) January 7, 2030 9:00 AM", message.body(MessageLocale.EN, "John"));
+        assertEquals(message.body(MessageLocale.TR, "Ayse"), message.body(null, "Ayse"));
+        assertEquals("Standup", message.subject(MessageLocale.EN, "John"));
+    }
+
+    @Test
+    void prepare_NoMessage_UsesTheLocalesDefaultBody() {
+        ReminderMessage message = templateEngine.prepare(reminder);
+
+        assertEquals("Reminder: Standup on January 7, 2030 at 9:00 AM", message.body(MessageLocale.EN, "John"));
+        assertTrue(message.body(MessageLocale.TR, "Ayse").endsWith("Standup, 7 Ocak 2030 09:00"));
+        // Neither template mentions the group, so it is never loaded
+        verifyNoInteractions(groupRepository);
+    }
+}
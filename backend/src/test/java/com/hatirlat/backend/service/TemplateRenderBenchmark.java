@@ -0,0 +1,65 @@
+package com.hatirlat.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering one member's message from a template compiled once per reminder, against parsing the template
+ * again for every member, and against chained string replacement. Not part of the test run; start it from
+ * {@link #main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    private static final String SOURCE = "Merhaba {name}, {group} grubundaki {title} hat\u0131rlatmas\u0131 {date} {time}.";
+
+    private final String[] values = {null, "Backend", "Sprint planning", "7 Ocak 2030", "09:00"};
+    private CompiledTemplate compiled;
+    private int member;
+
+    @Setup
+    public void setUp() {
+        compiled = CompiledTemplate.parse(SOURCE);
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiled.render("Member " + (member++ & 1023), values);
+    }
+
+    @Benchmark
+    public String parsePerRender() {
+        return CompiledTemplate.parse(SOURCE).render("Member " + (member++ & 1023), values);
+    }
+
+    @Benchmark
+    public String stringReplace() {
+        return SOURCE.replace("{name}", "Member " + (member++ & 1023))
+                .replace("{group}", values[1])
+                .replace("{title}", values[2])
+                .replace("{date}", values[3])
+                .replace("{time}", values[4]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TemplateRenderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.hatirlat.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void reserve_EmptyBucket_SpacesTokensAtTheRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, nanos::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve());
+    }
+
+    @Test
+    void reserve_AfterIdle_AllowsBurstThenThrottles() {
+        TokenBucket bucket = new TokenBucket(10, 3, nanos::get);
+        for (int i = 0; i < 3; i++) {
+            bucket.reserve();
+        }
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // Refill stops at the capacity however long the bucket was idle
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve());
+    }
+
+    @Test
+    void reserve_DebtIsPaidBackOverTime() {
+        TokenBucket bucket = new TokenBucket(10, 1, nanos::get);
+        bucket.reserve();
+        bucket.reserve();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.reserve());
+    }
+
+    @Test
+    void reserve_BeyondTheMaximumWait_TakesNoToken() {
+        TokenBucket bucket = new TokenBucket(10, 1, nanos::get);
+        bucket.reserve();
+
+        assertEquals(-1, bucket.reserve(TimeUnit.MILLISECONDS.toNanos(50)));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    void refund_ReturnsTheReservedToken() {
+        TokenBucket bucket = new TokenBucket(10, 1, nanos::get);
+        bucket.reserve();
+        bucket.reserve();
+
+        bucket.refund();
+        bucket.refund();
+
+        assertEquals(0, bucket.reserve());
+        // Never above the capacity
+        bucket.refund();
+        bucket.refund();
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve());
+    }
+
+    @Test
+    void constructor_NonPositiveRate_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    }
+}
@@ -0,0 +1,136 @@
+package com.hatirlat.backend.simulation;
+
+import com.hatirlat.backend.config.OutboxProperties;
+import com.hatirlat.backend.entity.NotificationChannel;
+import com.hatirlat.backend.repository.NotificationOutboxRepository;
+import com.hatirlat.backend.service.ChannelPipeline;
+import com.hatirlat.backend.service.ChannelPipelines;
+import com.hatirlat.backend.service.NotificationOutboxRelay;
+import com.hatirlat.backend.service.ReminderScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimulationRunnerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
+    @Mock
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @Mock
+    private ChannelPipelines channelPipelines;
+
+    @Mock
+    private ChannelPipeline pipeline;
+
+    @Spy
+    private OutboxProperties outboxProperties = new OutboxProperties();
+
+    @Spy
+    private SimulationClock clock = new SimulationClock(START, ZoneId.of("UTC"));
+
+    @InjectMocks
+    private SimulationRunner simulationRunner;
+
+    @Test
+    void drive_Idle_JumpsStraightToEachWakeUp() {
+        when(channelPipelines.get(any(NotificationChannel.class))).thenReturn(pipeline);
+        List<LocalDateTime> passes = new ArrayList<>();
+        when(reminderScheduler.wakeUp()).thenAnswer(invocation -> {
+            passes.add(clock.now());
+            return clock.now().plusMinutes(30);
+        });
+
+        int count = simulationRunner.drive(START.plusHours(1));
+
+        assertEquals(List.of(START, START.plusMinutes(30), START.plusHours(1)), passes);
+        assertEquals(3, count);
+        assertEquals(START.plusHours(1), clock.now());
+    }
+
+    @Test
+    void drive_DeliveriesRelayed_AdvancesByOneRelayPoll() {
+        outboxProperties.setPollMs(250);
+        when(channelPipelines.get(any(NotificationChannel.class))).thenReturn(pipeline);
+        when(notificationOutboxRelay.fill(NotificationChannel.EMAIL)).thenReturn(3, 0);
+        List<LocalDateTime> passes = new ArrayList<>();
+        when(reminderScheduler.wakeUp()).thenAnswer(invocation -> {
+            passes.add(clock.now());
+            return clock.now().plusMinutes(1);
+        });
+
+        simulationRunner.drive(START.plusMinutes(1));
+
+        assertEquals(START.plusNanos(250_000_000), passes.get(1));
+        verify(notificationOutboxRelay, atLeast(2)).flushCompleted();
+    }
+
+    @Test
+    void clock_NeverRunsBackwards() {
+        SimulationClock virtual = new SimulationClock(START, ZoneId.of("UTC"));
+
+        virtual.advanceTo(START.plusSeconds(5));
+        virtual.advanceTo(START);
+
+        assertEquals(START.plusSeconds(5), virtual.now());
+        assertEquals(START.plusSeconds(5), LocalDateTime.now(virtual));
+    }
+
+    @Test
+    void report_LagPercentilesAndStatementsPerFiring() {
+        List<NotificationOutboxRepository.SendTime> sendTimes = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            // Reminder i fired once at START and was sent i seconds later, on two channels for even ids
+            sendTimes.add(sendTime((long) i, START.plusSeconds(i)));
+            if (i % 2 == 0) {
+                sendTimes.add(sendTime((long) i, START.plusSeconds(i)));
+            }
+        }
+
+        SimulationReport report = new SimulationReport(100, sendTimes, 450, 10, Duration.ofHours(1), Duration.ofSeconds(3));
+
+        assertEquals(100, report.getFirings());
+        assertEquals(150, report.getDeliveries());
+        assertEquals(50.0, report.sendsPerSecond(), 0.001);
+        assertEquals(4.5, report.statementsPerFiring(), 0.001);
+        assertEquals(Duration.ofSeconds(100), report.lagPercentile(100));
+        assertTrue(report.lagPercentile(50).compareTo(report.lagPercentile(95)) < 0);
+    }
+
+    private static NotificationOutboxRepository.SendTime sendTime(Long reminderId, LocalDateTime sentAt) {
+        return new NotificationOutboxRepository.SendTime() {
+            @Override
+            public Long getReminderId() {
+                return reminderId;
+            }
+
+            @Override
+            public LocalDateTime getOccurrence() {
+                return START;
+            }
+
+            @Override
+            public LocalDateTime getSentAt() {
+                return sentAt;
+            }
+        };
+    }
+}